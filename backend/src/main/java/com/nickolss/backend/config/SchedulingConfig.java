@@ -0,0 +1,28 @@
+package com.nickolss.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Pool limitado para jobs em lote: não compete com as threads HTTP nem estoura o pool de conexões
+    @Bean
+    public ThreadPoolTaskExecutor batchJobExecutor(@Value("${jobs.batch.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 4);
+        // Fila cheia: quem submete executa o chunk (backpressure em vez de rejeitar)
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("batch-job-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,158 @@
+package com.nickolss.backend.controllers;
+
+import com.nickolss.backend.models.dtos.NoteCompressionStatsDTO;
+import com.nickolss.backend.models.dtos.OrphanSweepResultDTO;
+import com.nickolss.backend.models.dtos.ReconciliationStatusDTO;
+import com.nickolss.backend.models.dtos.RecurringRunResultDTO;
+import com.nickolss.backend.models.dtos.ReminderStatusDTO;
+import com.nickolss.backend.services.BalanceReconciliationService;
+import com.nickolss.backend.services.CascadeDeleteService;
+import com.nickolss.backend.services.HabitStatsService;
+import com.nickolss.backend.services.NoteContentService;
+import com.nickolss.backend.services.NoteRevisionService;
+import com.nickolss.backend.services.ProjectCounterService;
+import com.nickolss.backend.services.RecurringTransactionService;
+import com.nickolss.backend.services.ReminderService;
+import com.nickolss.backend.services.TaskRankService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@Tag(name = "Administração", description = "Jobs de manutenção e consistência dos dados")
+public class AdminController {
+
+    private final BalanceReconciliationService reconciliationService;
+    private final RecurringTransactionService recurringService;
+    private final HabitStatsService habitStatsService;
+    private final CascadeDeleteService cascadeDeleteService;
+    private final NoteRevisionService noteRevisionService;
+    private final NoteContentService noteContentService;
+    private final ReminderService reminderService;
+    private final TaskRankService taskRankService;
+    private final ProjectCounterService projectCounterService;
+
+    public AdminController(BalanceReconciliationService reconciliationService,
+                           RecurringTransactionService recurringService,
+                           HabitStatsService habitStatsService,
+                           CascadeDeleteService cascadeDeleteService,
+                           NoteRevisionService noteRevisionService,
+                           NoteContentService noteContentService,
+                           ReminderService reminderService,
+                           TaskRankService taskRankService,
+                           ProjectCounterService projectCounterService) {
+        this.reconciliationService = reconciliationService;
+        this.recurringService = recurringService;
+        this.habitStatsService = habitStatsService;
+        this.cascadeDeleteService = cascadeDeleteService;
+        this.noteRevisionService = noteRevisionService;
+        this.noteContentService = noteContentService;
+        this.reminderService = reminderService;
+        this.taskRankService = taskRankService;
+        this.projectCounterService = projectCounterService;
+    }
+
+    @PostMapping("/reconciliation")
+    @Operation(summary = "Iniciar Reconciliação de Saldos", description = "Recalcula o saldo de todas as contas a partir das transações. Roda em background.")
+    public ResponseEntity<ReconciliationStatusDTO> startReconciliation(
+            @Parameter(description = "Corrige os saldos divergentes (padrão: apenas reporta)")
+            @RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.accepted().body(reconciliationService.start(repair));
+    }
+
+    @GetMapping("/reconciliation")
+    @Operation(summary = "Status da Reconciliação", description = "Progresso, throughput e divergências da última execução.")
+    public ResponseEntity<ReconciliationStatusDTO> getReconciliationStatus() {
+        return ResponseEntity.ok(reconciliationService.getStatus());
+    }
+
+    @PostMapping("/reconciliation/opening-balances")
+    @Operation(summary = "Registrar Saldo Inicial das Contas Antigas", description = "Para as contas sem saldo inicial (listadas na reconciliação), aceita o saldo atual: a diferença para as transações vira o saldo inicial.")
+    public ResponseEntity<Map<String, Object>> backfillOpeningBalances() {
+        return ResponseEntity.ok(reconciliationService.backfillOpeningBalances());
+    }
+
+    @PostMapping("/recurring/run")
+    @Operation(summary = "Gerar Transações Recorrentes", description = "Executa agora o job que gera as ocorrências vencidas de todos os usuários.")
+    public ResponseEntity<RecurringRunResultDTO> runRecurring(
+            @Parameter(description = "Gera ocorrências até esta data (padrão: hoje)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(recurringService.runDue(date != null ? date : LocalDate.now()));
+    }
+
+    @PostMapping("/habits/bitsets/rebuild")
+    @Operation(summary = "Reconstruir Bitsets de Hábitos", description = "Recria os bitsets de dias concluídos de todos os hábitos a partir das entries.")
+    public ResponseEntity<Map<String, Object>> rebuildHabitBitsets() {
+        return ResponseEntity.ok(Map.of("rows", habitStatsService.rebuildAll()));
+    }
+
+    @PostMapping("/orphans/sweep")
+    @Operation(summary = "Remover Dados Órfãos", description = "Apaga entries, bitsets, transações, resumos, checkpoints, regras recorrentes e revisões de notas cujo hábito/conta/nota não existe mais.")
+    public ResponseEntity<OrphanSweepResultDTO> sweepOrphans() {
+        try {
+            return ResponseEntity.ok(cascadeDeleteService.sweepOrphans());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/notes/revisions/compact")
+    @Operation(summary = "Compactar Revisões de Notas", description = "Aplica agora a retenção do histórico de notas (o mesmo job agendado).")
+    public ResponseEntity<Map<String, Object>> compactNoteRevisions() {
+        try {
+            return ResponseEntity.ok(noteRevisionService.compact());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/notes/compression/migrate")
+    @Operation(summary = "Migrar Conteúdo das Notas", description = "Converte as notas existentes para a configuração de compressão atual (comprime as grandes, ou descomprime se desabilitada).")
+    public ResponseEntity<Map<String, Object>> migrateNoteContent() {
+        try {
+            return ResponseEntity.ok(noteContentService.migrate());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/notes/compression")
+    @Operation(summary = "Métricas de Compressão de Notas", description = "Bytes economizados no banco e tempo gasto comprimindo/descomprimindo desde a subida.")
+    public ResponseEntity<NoteCompressionStatsDTO> getNoteCompressionStats() {
+        return ResponseEntity.ok(noteContentService.getStats());
+    }
+
+    @PostMapping("/tasks/ranks/rebalance")
+    @Operation(summary = "Rebalancear Ordem Manual", description = "Regrava as chaves de ordenação longas, repetidas ou ausentes das tarefas (o mesmo job agendado). A ordem visível não muda.")
+    public ResponseEntity<Map<String, Object>> rebalanceTaskRanks() {
+        try {
+            return ResponseEntity.ok(taskRankService.rebalance());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/projects/counters/repair")
+    @Operation(summary = "Reparar Contadores de Projetos", description = "Reconta as tarefas vinculadas de cada projeto e corrige contadores e progresso que divergiram (o mesmo job agendado).")
+    public ResponseEntity<Map<String, Object>> repairProjectCounters() {
+        try {
+            return ResponseEntity.ok(projectCounterService.repair());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/reminders")
+    @Operation(summary = "Status dos Lembretes", description = "Lembretes pendentes em memória, janela carregada, watermark e disparos desde a subida.")
+    public ResponseEntity<ReminderStatusDTO> getReminderStatus() {
+        return ResponseEntity.ok(reminderService.getStatus());
+    }
+}
@@ -1,14 +1,37 @@
 package com.nickolss.backend.controllers;
 
 import com.nickolss.backend.models.dtos.AccountDTO;
+import com.nickolss.backend.models.dtos.CategorizationRuleDTO;
+import com.nickolss.backend.models.dtos.BalancePointDTO;
+import com.nickolss.backend.models.dtos.CursorPageDTO;
+import com.nickolss.backend.models.dtos.FinanceSummaryDTO;
+import com.nickolss.backend.models.dtos.RecurringTransactionDTO;
 import com.nickolss.backend.models.dtos.TransactionDTO;
+import com.nickolss.backend.models.dtos.TransactionImportResultDTO;
+import com.nickolss.backend.models.dtos.TransferDTO;
+import com.nickolss.backend.services.BalanceCheckpointService;
+import com.nickolss.backend.services.CategorizationService;
+import com.nickolss.backend.services.FinanceRollupService;
 import com.nickolss.backend.services.FinanceService;
+import com.nickolss.backend.services.RecurringTransactionService;
+import com.nickolss.backend.services.TransactionExportService;
+import com.nickolss.backend.services.TransactionImportService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/finance")
@@ -16,9 +39,24 @@ import java.util.List;
 public class FinanceController {
 
     private final FinanceService financeService;
+    private final TransactionImportService transactionImportService;
+    private final TransactionExportService transactionExportService;
+    private final FinanceRollupService rollupService;
+    private final BalanceCheckpointService checkpointService;
+    private final RecurringTransactionService recurringService;
+    private final CategorizationService categorizationService;
 
-    public FinanceController(FinanceService financeService) {
+    public FinanceController(FinanceService financeService, TransactionImportService transactionImportService,
+                             TransactionExportService transactionExportService, FinanceRollupService rollupService,
+                             BalanceCheckpointService checkpointService, RecurringTransactionService recurringService,
+                             CategorizationService categorizationService) {
         this.financeService = financeService;
+        this.transactionImportService = transactionImportService;
+        this.transactionExportService = transactionExportService;
+        this.rollupService = rollupService;
+        this.checkpointService = checkpointService;
+        this.recurringService = recurringService;
+        this.categorizationService = categorizationService;
     }
 
     // --- ACCOUNTS ---
@@ -36,10 +74,15 @@ public class FinanceController {
     }
 
     @PatchMapping("/accounts/{id}")
-    @Operation(summary = "Atualizar Conta")
+    @Operation(summary = "Atualizar Conta", description = "Ao editar o saldo, envie a version lida para detectar conflitos (409).")
     public ResponseEntity<AccountDTO> updateAccount(
             @RequestParam String userId, @PathVariable Long id, @RequestBody AccountDTO updates) {
-        return ResponseEntity.ok(financeService.updateAccount(userId, id, updates));
+        try {
+            return ResponseEntity.ok(financeService.updateAccount(userId, id, updates));
+        } catch (OptimisticLockingFailureException e) {
+            // Saldo mudou desde a leitura do cliente: ele deve recarregar a conta e tentar de novo
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @DeleteMapping("/accounts/{id}")
@@ -50,6 +93,35 @@ public class FinanceController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/accounts/{id}/balance")
+    @Operation(summary = "Saldo em uma Data", description = "Saldo da conta ao fim do dia informado (padrão: hoje).")
+    public ResponseEntity<BalancePointDTO> getBalanceAt(
+            @RequestParam String userId, @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(checkpointService.getBalanceAt(userId, id, date != null ? date : LocalDate.now()));
+    }
+
+    @GetMapping("/accounts/{id}/balance-history")
+    @Operation(summary = "Histórico de Saldo", description = "Série de saldos entre duas datas, por dia (máx. 366) ou fim de mês.")
+    public ResponseEntity<List<BalancePointDTO>> getBalanceHistory(
+            @RequestParam String userId, @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "day | month")
+            @RequestParam(defaultValue = "month") String interval) {
+        try {
+            return ResponseEntity.ok(checkpointService.getBalanceHistory(userId, id, startDate, endDate, interval));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/accounts/checkpoints/rebuild")
+    @Operation(summary = "Reconstruir Checkpoints de Saldo", description = "Recalcula os checkpoints mensais de todas as contas do usuário.")
+    public ResponseEntity<Map<String, Object>> rebuildCheckpoints(@RequestParam String userId) {
+        return ResponseEntity.ok(Map.of("rows", checkpointService.rebuild(userId)));
+    }
+
     // --- TRANSACTIONS ---
     @GetMapping("/transactions")
     @Operation(summary = "Listar Transações")
@@ -59,6 +131,31 @@ public class FinanceController {
         return ResponseEntity.ok(financeService.getTransactions(userId, accountId));
     }
 
+    @GetMapping("/transactions/page")
+    @Operation(summary = "Listar Transações (paginado)",
+            description = "Paginação por cursor ordenada por data (mais recentes primeiro). Envie o nextCursor recebido para buscar a próxima página.")
+    public ResponseEntity<CursorPageDTO<TransactionDTO>> getTransactionsPage(
+            @RequestParam String userId,
+            @RequestParam(required = false) Long accountId,
+            @Parameter(description = "income | expense")
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Data inicial (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Data final (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Token de continuação retornado pela página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máx. 200)")
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(financeService.getTransactionsPage(
+                    userId, accountId, type, category, startDate, endDate, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/transactions")
     @Operation(summary = "Criar Transação", description = "Cria transação e atualiza saldo da conta.")
     public ResponseEntity<TransactionDTO> createTransaction(
@@ -66,18 +163,234 @@ public class FinanceController {
         return ResponseEntity.ok(financeService.createTransaction(userId, transaction));
     }
 
+    @PostMapping(value = "/transactions/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Importar Transações (JSON)",
+            description = "Importa um array de transações em lote. Com partial=true, linhas válidas são gravadas e as inválidas retornadas em errors.")
+    public ResponseEntity<TransactionImportResultDTO> importTransactionsJson(
+            @RequestParam String userId,
+            @Parameter(description = "Conta usada nas linhas sem accountId")
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(defaultValue = "false") boolean partial,
+            @RequestBody List<TransactionDTO> transactions) {
+        try {
+            return toImportResponse(transactionImportService.importJson(userId, transactions, accountId, partial));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping(value = "/transactions/import", consumes = "text/csv")
+    @Operation(summary = "Importar Transações (CSV)",
+            description = "CSV com cabeçalho: date, description, amount, type, category, accountId. Separador , ou ;")
+    public ResponseEntity<TransactionImportResultDTO> importTransactionsCsv(
+            @RequestParam String userId,
+            @Parameter(description = "Conta usada nas linhas sem accountId")
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(defaultValue = "false") boolean partial,
+            @RequestBody String csv) {
+        try {
+            return toImportResponse(transactionImportService.importCsv(userId, csv, accountId, partial));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/transactions/export")
+    @Operation(summary = "Exportar Transações",
+            description = "Download em streaming (CSV ou NDJSON), opcionalmente compactado com gzip. Não carrega o histórico em memória.")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam String userId,
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "csv | ndjson")
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (!"csv".equals(format) && !"ndjson".equals(format)) return ResponseEntity.badRequest().build();
+
+        String fileName = "transacoes." + format + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : "csv".equals(format) ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                : MediaType.parseMediaType("application/x-ndjson");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                transactionExportService.export(userId, accountId, startDate, endDate, format, gzipOut);
+                gzipOut.finish();
+            } else {
+                transactionExportService.export(userId, accountId, startDate, endDate, format, out);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(contentType)
+                .body(body);
+    }
+
+    // Nada gravado por causa de erros de validação: 400 com o relatório das linhas
+    private ResponseEntity<TransactionImportResultDTO> toImportResponse(TransactionImportResultDTO result) {
+        if (result.getImported() == 0 && result.getRejected() > 0) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
     @PatchMapping("/transactions/{id}")
-    @Operation(summary = "Atualizar Transação", description = "Reverte saldo antigo e aplica novo.")
+    @Operation(summary = "Atualizar Transação", description = "Reverte saldo antigo e aplica novo. Em uma perna de transferência, altera o par.")
     public ResponseEntity<TransactionDTO> updateTransaction(
             @RequestParam String userId, @PathVariable Long id, @RequestBody TransactionDTO updates) {
-        return ResponseEntity.ok(financeService.updateTransaction(userId, id, updates));
+        try {
+            return ResponseEntity.ok(financeService.updateTransaction(userId, id, updates));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @DeleteMapping("/transactions/{id}")
-    @Operation(summary = "Deletar Transação", description = "Reverte impacto no saldo da conta.")
+    @Operation(summary = "Deletar Transação", description = "Reverte impacto no saldo da conta. Em uma perna de transferência, remove o par.")
     public ResponseEntity<Void> deleteTransaction(
             @RequestParam String userId, @PathVariable Long id) {
         financeService.deleteTransaction(userId, id);
         return ResponseEntity.noContent().build();
     }
+
+    // --- TRANSFERS ---
+    @PostMapping("/transfers")
+    @Operation(summary = "Criar Transferência",
+            description = "Move dinheiro entre duas contas do usuário: grava saída, entrada e os dois saldos de forma atômica.")
+    public ResponseEntity<TransferDTO> createTransfer(
+            @RequestParam String userId, @RequestBody TransferDTO transfer) {
+        try {
+            return ResponseEntity.ok(financeService.createTransfer(userId, transfer));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PatchMapping("/transfers/{transferId}")
+    @Operation(summary = "Atualizar Transferência", description = "Altera as duas pernas juntas (valor, data, descrição, categoria ou contas).")
+    public ResponseEntity<TransferDTO> updateTransfer(
+            @RequestParam String userId, @PathVariable String transferId, @RequestBody TransferDTO updates) {
+        try {
+            return ResponseEntity.ok(financeService.updateTransfer(userId, transferId, updates));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/transfers/{transferId}")
+    @Operation(summary = "Deletar Transferência", description = "Remove as duas pernas e reverte os dois saldos.")
+    public ResponseEntity<Void> deleteTransfer(
+            @RequestParam String userId, @PathVariable String transferId) {
+        financeService.deleteTransfer(userId, transferId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // --- SUMMARY ---
+    @GetMapping("/summary")
+    @Operation(summary = "Resumo por Período", description = "Totais de receitas e despesas por mês ou ano e categoria, lidos da tabela de rollup.")
+    public ResponseEntity<List<FinanceSummaryDTO>> getSummary(
+            @RequestParam String userId,
+            @RequestParam(required = false) Long accountId,
+            @Parameter(description = "month | year")
+            @RequestParam(defaultValue = "month") String period,
+            @Parameter(description = "Data inicial (YYYY-MM-DD). Padrão: últimos 12 meses")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Data final (YYYY-MM-DD). Padrão: hoje")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(rollupService.getSummary(userId, accountId, period, startDate, endDate));
+    }
+
+    @PostMapping("/summary/rebuild")
+    @Operation(summary = "Reconstruir Resumo", description = "Recalcula do zero os totais mensais do usuário a partir das transações.")
+    public ResponseEntity<Map<String, Object>> rebuildSummary(@RequestParam String userId) {
+        return ResponseEntity.ok(Map.of("rows", rollupService.rebuild(userId)));
+    }
+
+    // --- RECURRING ---
+    @GetMapping("/recurring")
+    @Operation(summary = "Listar Transações Recorrentes")
+    public ResponseEntity<List<RecurringTransactionDTO>> getRecurring(@RequestParam String userId) {
+        return ResponseEntity.ok(recurringService.getRules(userId));
+    }
+
+    @PostMapping("/recurring")
+    @Operation(summary = "Criar Transação Recorrente",
+            description = "Define uma receita/despesa recorrente. Ocorrências já vencidas (startDate no passado) são geradas na hora.")
+    public ResponseEntity<RecurringTransactionDTO> createRecurring(
+            @RequestParam String userId, @RequestBody RecurringTransactionDTO rule) {
+        try {
+            return ResponseEntity.ok(recurringService.createRule(userId, rule));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PatchMapping("/recurring/{id}")
+    @Operation(summary = "Atualizar Transação Recorrente", description = "Afeta apenas as próximas ocorrências. active=false pausa a regra.")
+    public ResponseEntity<RecurringTransactionDTO> updateRecurring(
+            @RequestParam String userId, @PathVariable Long id, @RequestBody RecurringTransactionDTO updates) {
+        try {
+            return ResponseEntity.ok(recurringService.updateRule(userId, id, updates));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/recurring/{id}")
+    @Operation(summary = "Deletar Transação Recorrente", description = "As transações já geradas são mantidas.")
+    public ResponseEntity<Void> deleteRecurring(
+            @RequestParam String userId, @PathVariable Long id) {
+        recurringService.deleteRule(userId, id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // --- CATEGORIZATION RULES ---
+    @GetMapping("/rules")
+    @Operation(summary = "Listar Regras de Categorização", description = "Em ordem de avaliação (priority crescente).")
+    public ResponseEntity<List<CategorizationRuleDTO>> getRules(@RequestParam String userId) {
+        return ResponseEntity.ok(categorizationService.getRules(userId));
+    }
+
+    @PostMapping("/rules")
+    @Operation(summary = "Criar Regra de Categorização",
+            description = "matchType contains | prefix | regex sobre a descrição, com faixa de valor e tipo opcionais. Menor priority vence.")
+    public ResponseEntity<CategorizationRuleDTO> createRule(
+            @RequestParam String userId, @RequestBody CategorizationRuleDTO rule) {
+        try {
+            return ResponseEntity.ok(categorizationService.createRule(userId, rule));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PatchMapping("/rules/{id}")
+    @Operation(summary = "Atualizar Regra de Categorização")
+    public ResponseEntity<CategorizationRuleDTO> updateRule(
+            @RequestParam String userId, @PathVariable Long id, @RequestBody CategorizationRuleDTO updates) {
+        try {
+            return ResponseEntity.ok(categorizationService.updateRule(userId, id, updates));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/rules/{id}")
+    @Operation(summary = "Deletar Regra de Categorização")
+    public ResponseEntity<Void> deleteRule(
+            @RequestParam String userId, @PathVariable Long id) {
+        categorizationService.deleteRule(userId, id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/rules/apply")
+    @Operation(summary = "Reaplicar Regras", description = "Recategoriza as transações existentes em lotes e ajusta o resumo mensal.")
+    public ResponseEntity<Map<String, Object>> applyRules(
+            @RequestParam String userId,
+            @Parameter(description = "Se true, também sobrescreve categorias já preenchidas")
+            @RequestParam(defaultValue = "false") boolean overwrite) {
+        return ResponseEntity.ok(categorizationService.recategorize(userId, overwrite));
+    }
 }
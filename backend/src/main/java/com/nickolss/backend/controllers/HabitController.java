@@ -2,7 +2,11 @@ package com.nickolss.backend.controllers;
 
 import com.nickolss.backend.models.dtos.HabitDTO;
 import com.nickolss.backend.models.dtos.HabitEntryDTO;
+import com.nickolss.backend.models.dtos.HabitHeatmapDTO;
+import com.nickolss.backend.models.dtos.HabitStatsDTO;
+import com.nickolss.backend.services.HabitHeatmapService;
 import com.nickolss.backend.services.HabitService;
+import com.nickolss.backend.services.HabitStatsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -19,9 +23,14 @@ import java.util.List;
 public class HabitController {
 
     private final HabitService habitService;
+    private final HabitStatsService habitStatsService;
+    private final HabitHeatmapService habitHeatmapService;
 
-    public HabitController(HabitService habitService) {
+    public HabitController(HabitService habitService, HabitStatsService habitStatsService,
+                           HabitHeatmapService habitHeatmapService) {
         this.habitService = habitService;
+        this.habitStatsService = habitStatsService;
+        this.habitHeatmapService = habitHeatmapService;
     }
 
     // --- HABITS ---
@@ -49,6 +58,48 @@ public class HabitController {
         return ResponseEntity.noContent().build();
     }
 
+    // --- STATS ---
+    @GetMapping("/habits/stats")
+    @Operation(summary = "Estatísticas dos Hábitos", description = "Sequência atual e recorde e taxas de conclusão (7/30/90/365 dias) de todos os hábitos do usuário.")
+    public ResponseEntity<List<HabitStatsDTO>> getAllHabitStats(
+            @RequestParam String userId,
+            @Parameter(description = "Data de referência (padrão: hoje)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(habitStatsService.getAllStats(userId, date != null ? date : LocalDate.now()));
+    }
+
+    @GetMapping("/habits/{id}/stats")
+    @Operation(summary = "Estatísticas do Hábito", description = "Calculadas no servidor a partir do bitset de dias concluídos, respeitando frequency e targetDays.")
+    public ResponseEntity<HabitStatsDTO> getHabitStats(
+            @RequestParam String userId, @PathVariable Long id,
+            @Parameter(description = "Data de referência (padrão: hoje)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            return ResponseEntity.ok(habitStatsService.getStats(userId, id, date != null ? date : LocalDate.now()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/habits/heatmap")
+    @Operation(summary = "Heatmap do Calendário", description = "Dias concluídos por hábito no intervalo, como bitmap base64 (bit i = startDate + i) ou run-length. Sem notas nem entidades: uma consulta para todos os hábitos.")
+    public ResponseEntity<HabitHeatmapDTO> getHabitHeatmap(
+            @RequestParam String userId,
+            @Parameter(description = "Data inicial (YYYY-MM-DD)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Data final (YYYY-MM-DD)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "IDs dos hábitos (padrão: todos)")
+            @RequestParam(required = false) List<Long> habitIds,
+            @Parameter(description = "bitmap (padrão) ou rle")
+            @RequestParam(defaultValue = "bitmap") String encoding) {
+        try {
+            return ResponseEntity.ok(habitHeatmapService.getHeatmap(userId, habitIds, startDate, endDate, encoding));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // --- ENTRIES ---
     @GetMapping("/entries")
     @Operation(summary = "Listar Histórico (Entries)", description = "Busca o histórico de execução dos hábitos com filtros de data e hábito específico.")
@@ -71,7 +122,21 @@ public class HabitController {
     @PostMapping("/entries")
     @Operation(summary = "Upsert Entry", description = "Cria ou atualiza uma entrada de hábito (check-in).")
     public ResponseEntity<HabitEntryDTO> upsertHabitEntry(@RequestParam String userId, @RequestBody HabitEntryDTO entryDTO) {
-        return ResponseEntity.ok(habitService.upsertHabitEntry(userId, entryDTO));
+        try {
+            return ResponseEntity.ok(habitService.upsertHabitEntry(userId, entryDTO));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/entries/batch")
+    @Operation(summary = "Upsert de Entries em Lote", description = "Cria ou atualiza várias entradas (hábito, data) num único comando. Ex.: preencher a semana de check-ins perdidos.")
+    public ResponseEntity<List<HabitEntryDTO>> upsertHabitEntries(@RequestParam String userId, @RequestBody List<HabitEntryDTO> entries) {
+        try {
+            return ResponseEntity.ok(habitService.upsertHabitEntries(userId, entries));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @DeleteMapping("/entries/{id}")
@@ -1,8 +1,19 @@
 package com.nickolss.backend.controllers;
 
+import com.nickolss.backend.models.dtos.BulkResultDTO;
+import com.nickolss.backend.models.dtos.CursorPageDTO;
+import com.nickolss.backend.models.dtos.NoteBulkPinRequestDTO;
 import com.nickolss.backend.models.dtos.NoteDTO;
+import com.nickolss.backend.models.dtos.NoteRevisionDTO;
+import com.nickolss.backend.models.dtos.NoteSearchResultDTO;
+import com.nickolss.backend.models.dtos.NoteSummaryDTO;
+import com.nickolss.backend.models.dtos.NoteTagCountDTO;
+import com.nickolss.backend.services.NoteRevisionService;
+import com.nickolss.backend.services.NoteSearchService;
 import com.nickolss.backend.services.NoteService;
+import com.nickolss.backend.services.NoteTagService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,15 +26,82 @@ import java.util.List;
 public class NoteController {
 
     private final NoteService noteService;
+    private final NoteSearchService noteSearchService;
+    private final NoteTagService noteTagService;
+    private final NoteRevisionService noteRevisionService;
 
-    public NoteController(NoteService noteService) {
+    public NoteController(NoteService noteService, NoteSearchService noteSearchService, NoteTagService noteTagService,
+                          NoteRevisionService noteRevisionService) {
         this.noteService = noteService;
+        this.noteSearchService = noteSearchService;
+        this.noteTagService = noteTagService;
+        this.noteRevisionService = noteRevisionService;
     }
 
     @GetMapping
-    @Operation(summary = "Listar Notas", description = "Retorna notas ordenadas por fixadas e data de atualização.")
-    public ResponseEntity<List<NoteDTO>> getNotes(@RequestParam String userId) {
-        return ResponseEntity.ok(noteService.getNotes(userId));
+    @Operation(summary = "Listar Notas", description = "Retorna notas ordenadas por fixadas e data de atualização. Filtro opcional por tags.")
+    public ResponseEntity<List<NoteDTO>> getNotes(
+            @RequestParam String userId,
+            @Parameter(description = "Tags para filtrar (repetir o parâmetro para várias)")
+            @RequestParam(required = false) List<String> tags,
+            @Parameter(description = "any (padrão): qualquer uma das tags; all: todas as tags")
+            @RequestParam(defaultValue = "any") String match) {
+        try {
+            return ResponseEntity.ok(noteService.getNotes(userId, tags, match));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/summary")
+    @Operation(summary = "Listar Notas (Resumo)", description = "Mesma ordem da listagem, sem o conteúdo completo: metadados e um preview de até 160 caracteres.")
+    public ResponseEntity<List<NoteSummaryDTO>> getNoteSummaries(@RequestParam String userId) {
+        return ResponseEntity.ok(noteService.getNoteSummaries(userId));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Buscar Nota", description = "Nota completa, com o conteúdo inteiro.")
+    public ResponseEntity<NoteDTO> getNote(@RequestParam String userId, @PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(noteService.getNote(userId, id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/tags")
+    @Operation(summary = "Facetas de Tags", description = "Todas as tags do usuário com a quantidade de notas de cada uma, mais usadas primeiro.")
+    public ResponseEntity<List<NoteTagCountDTO>> getTagFacets(@RequestParam String userId) {
+        return ResponseEntity.ok(noteTagService.getFacets(userId));
+    }
+
+    @GetMapping("/tags/suggest")
+    @Operation(summary = "Autocomplete de Tags", description = "Tags do usuário que começam com o prefixo (sem diferenciar acentos/maiúsculas), mais usadas primeiro.")
+    public ResponseEntity<List<NoteTagCountDTO>> suggestTags(
+            @RequestParam String userId,
+            @RequestParam(defaultValue = "") String prefix,
+            @Parameter(description = "Máximo de sugestões (padrão 10, máx. 50)")
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(noteTagService.suggest(userId, prefix, limit));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Buscar Notas", description = "Busca textual em título, tags e conteúdo, ordenada por relevância, com trechos destacados (<mark>). Paginada por cursor.")
+    public ResponseEntity<CursorPageDTO<NoteSearchResultDTO>> searchNotes(
+            @RequestParam String userId,
+            @Parameter(description = "Texto da busca", required = true)
+            @RequestParam String q,
+            @Parameter(description = "true: type-ahead (último termo por prefixo); false: sintaxe web (\"frase\", or, -termo)")
+            @RequestParam(defaultValue = "true") boolean prefix,
+            @Parameter(description = "Token nextCursor da página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Itens por página (padrão 20, máx. 100)")
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(noteSearchService.search(userId, q, prefix, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
@@ -34,6 +112,18 @@ public class NoteController {
         return ResponseEntity.ok(noteService.createNote(userId, note));
     }
 
+    @PostMapping("/bulk/pin")
+    @Operation(summary = "Fixar em Lote", description = "Fixa ou desafixa as notas dos ids informados num único comando. Retorna quantas mudaram.")
+    public ResponseEntity<BulkResultDTO> setPinned(
+            @RequestParam String userId,
+            @RequestBody NoteBulkPinRequestDTO request) {
+        try {
+            return ResponseEntity.ok(noteService.setPinned(userId, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PatchMapping("/{id}")
     @Operation(summary = "Atualizar Nota", description = "Atualiza apenas os campos enviados.")
     public ResponseEntity<NoteDTO> updateNote(
@@ -47,6 +137,38 @@ public class NoteController {
         }
     }
 
+    @GetMapping("/{id}/revisions")
+    @Operation(summary = "Listar Revisões", description = "Histórico de versões da nota (título e conteúdo), mais recente primeiro, sem o conteúdo.")
+    public ResponseEntity<List<NoteRevisionDTO>> getRevisions(@RequestParam String userId, @PathVariable Long id) {
+        return ResponseEntity.ok(noteRevisionService.getRevisions(userId, id));
+    }
+
+    @GetMapping("/{id}/revisions/{revision}")
+    @Operation(summary = "Buscar Revisão", description = "Título e conteúdo completos da nota naquela revisão.")
+    public ResponseEntity<NoteRevisionDTO> getRevision(
+            @RequestParam String userId,
+            @PathVariable Long id,
+            @PathVariable int revision) {
+        try {
+            return ResponseEntity.ok(noteRevisionService.getRevision(userId, id, revision));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/{id}/revisions/{revision}/restore")
+    @Operation(summary = "Restaurar Revisão", description = "Volta título e conteúdo para os da revisão, gravando uma revisão nova.")
+    public ResponseEntity<NoteDTO> restoreRevision(
+            @RequestParam String userId,
+            @PathVariable Long id,
+            @PathVariable int revision) {
+        try {
+            return ResponseEntity.ok(noteService.restoreRevision(userId, id, revision));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Deletar Nota")
     public ResponseEntity<Void> deleteNote(
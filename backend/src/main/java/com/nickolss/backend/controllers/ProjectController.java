@@ -1,5 +1,7 @@
 package com.nickolss.backend.controllers;
 
+import com.nickolss.backend.models.dtos.BulkResultDTO;
+import com.nickolss.backend.models.dtos.ProjectBulkStatusRequestDTO;
 import com.nickolss.backend.models.dtos.ProjectDTO;
 import com.nickolss.backend.services.ProjectService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -39,6 +41,19 @@ public class ProjectController {
         return ResponseEntity.ok(projectService.createProject(userId, project));
     }
 
+    @PostMapping("/bulk/status")
+    @Operation(summary = "Status em Lote", description = "Muda o status dos projetos dos ids informados num único comando. Retorna quantos mudaram.")
+    public ResponseEntity<BulkResultDTO> updateStatus(
+            @RequestParam String userId,
+            @RequestBody ProjectBulkStatusRequestDTO request
+    ) {
+        try {
+            return ResponseEntity.ok(projectService.updateStatus(userId, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PatchMapping("/{id}")
     @Operation(summary = "Atualizar Projeto", description = "Atualiza parcialmente os dados do projeto.")
     public ResponseEntity<ProjectDTO> updateProject(
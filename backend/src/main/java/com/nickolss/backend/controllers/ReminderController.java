@@ -0,0 +1,29 @@
+package com.nickolss.backend.controllers;
+
+import com.nickolss.backend.services.SseReminderSink;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/reminders")
+@Tag(name = "Lembretes", description = "Avisos de vencimento de tarefas e projetos")
+public class ReminderController {
+
+    private final SseReminderSink sseReminderSink;
+
+    public ReminderController(SseReminderSink sseReminderSink) {
+        this.sseReminderSink = sseReminderSink;
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream de Lembretes", description = "Server-Sent Events: um evento \"reminder\" por tarefa/projeto perto do vencimento, enquanto a conexão estiver aberta.")
+    public SseEmitter stream(
+            @Parameter(description = "ID do usuário", required = true)
+            @RequestParam String userId) {
+        return sseReminderSink.subscribe(userId);
+    }
+}
@@ -1,13 +1,19 @@
 package com.nickolss.backend.controllers;
 
+import com.nickolss.backend.models.dtos.BulkResultDTO;
+import com.nickolss.backend.models.dtos.CursorPageDTO;
+import com.nickolss.backend.models.dtos.TaskBulkRequestDTO;
 import com.nickolss.backend.models.dtos.TaskDTO;
+import com.nickolss.backend.models.dtos.TaskMoveDTO;
 import com.nickolss.backend.services.TaskService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -22,7 +28,7 @@ public class TaskController {
     }
 
     @GetMapping
-    @Operation(summary = "Listar Tarefas", description = "Retorna todas as tarefas do usuário ordenadas por criação.")
+    @Operation(summary = "Listar Tarefas", description = "Retorna todas as tarefas do usuário na ordem manual (novas entram no topo).")
     public ResponseEntity<List<TaskDTO>> getTasks(
             @Parameter(description = "ID do usuário", required = true)
             @RequestParam String userId
@@ -30,17 +36,63 @@ public class TaskController {
         return ResponseEntity.ok(taskService.getTasks(userId));
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Listar Tarefas (filtrado e paginado)",
+            description = "Filtros opcionais, ordenação por criação ou vencimento e paginação por cursor. Envie o nextCursor recebido para buscar a próxima página.")
+    public ResponseEntity<CursorPageDTO<TaskDTO>> getTasksPage(
+            @RequestParam String userId,
+            @Parameter(description = "false: abertas; true: concluídas; omitido: todas")
+            @RequestParam(required = false) Boolean completed,
+            @Parameter(description = "low | medium | high (repetir o parâmetro para várias)")
+            @RequestParam(required = false) List<String> priority,
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Vencimento a partir de (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @Parameter(description = "Vencimento até (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+            @Parameter(description = "created (padrão): mais recentes primeiro; due: vencimento mais próximo primeiro, sem data no fim")
+            @RequestParam(defaultValue = "created") String sort,
+            @Parameter(description = "Token de continuação retornado pela página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (padrão 50, máx. 200)")
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(taskService.getTasksPage(
+                    userId, completed, priority, category, dueFrom, dueTo, sort, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping
     @Operation(summary = "Criar Tarefa")
     public ResponseEntity<TaskDTO> createTask(
             @RequestParam String userId,
             @RequestBody TaskDTO task
     ) {
-        return ResponseEntity.ok(taskService.createTask(userId, task));
+        try {
+            return ResponseEntity.ok(taskService.createTask(userId, task));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/bulk")
+    @Operation(summary = "Ação em Lote",
+            description = "Conclui, reabre, recategoriza, reprioriza ou remove as tarefas dos ids informados, ou todas as que casam com o filtro, num único comando. Retorna quantas mudaram.")
+    public ResponseEntity<BulkResultDTO> bulkUpdate(
+            @RequestParam String userId,
+            @RequestBody TaskBulkRequestDTO request
+    ) {
+        try {
+            return ResponseEntity.ok(taskService.bulkUpdate(userId, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PatchMapping("/{id}")
-    @Operation(summary = "Atualizar Tarefa", description = "Atualiza parcialmente a tarefa (ex: marcar como completa).")
+    @Operation(summary = "Atualizar Tarefa", description = "Atualiza parcialmente a tarefa (ex: marcar como completa). projectId = 0 desvincula do projeto.")
     public ResponseEntity<TaskDTO> updateTask(
             @RequestParam String userId,
             @PathVariable Long id,
@@ -48,6 +100,24 @@ public class TaskController {
     ) {
         try {
             return ResponseEntity.ok(taskService.updateTask(userId, id, updates));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PutMapping("/{id}/position")
+    @Operation(summary = "Mover Tarefa", description = "Reposiciona a tarefa na ordem manual: logo abaixo de previousId ou, sem ele, logo acima de nextId.")
+    public ResponseEntity<TaskDTO> moveTask(
+            @RequestParam String userId,
+            @PathVariable Long id,
+            @RequestBody TaskMoveDTO move
+    ) {
+        try {
+            return ResponseEntity.ok(taskService.moveTask(userId, id, move));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
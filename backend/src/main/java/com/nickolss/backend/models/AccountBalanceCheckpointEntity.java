@@ -0,0 +1,37 @@
+package com.nickolss.backend.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Fluxo acumulado (receitas - despesas) de uma conta até o fim de um mês.
+ * Só existem checkpoints para meses com transações; um mês sem checkpoint herda o anterior.
+ */
+@Entity
+@Table(name = "account_balance_checkpoints", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_balance_checkpoints_account_period", columnNames = {"account_id", "period_end"})
+})
+@Data
+@NoArgsConstructor
+public class AccountBalanceCheckpointEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd; // Último dia do mês
+
+    @Column(nullable = false)
+    private BigDecimal flow = BigDecimal.ZERO;
+}
@@ -29,8 +29,18 @@ public class AccountEntity {
     @Column(nullable = false)
     private BigDecimal balance = BigDecimal.ZERO; // Uso de BigDecimal para dinheiro
 
+    // Saldo inicial + ajustes manuais. Invariante: balance = openingBalance + soma das transações
+    // (null em contas antigas: a primeira reconciliação preenche a partir do saldo atual)
+    @Column(name = "opening_balance")
+    private BigDecimal openingBalance;
+
     private String bank;
 
+    // Incrementado a cada alteração de saldo, inclusive pelos UPDATEs atômicos de transações
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version = 0L;
+
     @Column(name = "created_at", insertable = false, updatable = false)
     private LocalDateTime createdAt;
 
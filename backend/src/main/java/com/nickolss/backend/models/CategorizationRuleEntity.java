@@ -0,0 +1,52 @@
+package com.nickolss.backend.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "categorization_rules", indexes = {
+        @Index(name = "idx_categorization_rules_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+public class CategorizationRuleEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "match_type", nullable = false)
+    private String matchType; // contains, prefix, regex
+
+    @Column(nullable = false, length = 500)
+    private String pattern;
+
+    @Column(nullable = false)
+    private String category;
+
+    // Faixa de valor opcional (inclusiva)
+    @Column(name = "min_amount")
+    private BigDecimal minAmount;
+
+    @Column(name = "max_amount")
+    private BigDecimal maxAmount;
+
+    @Column(name = "transaction_type")
+    private String transactionType; // income, expense ou null (qualquer)
+
+    @Column(nullable = false)
+    private Integer priority = 100; // menor valor vence
+
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
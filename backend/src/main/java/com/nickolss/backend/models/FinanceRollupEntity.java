@@ -0,0 +1,47 @@
+package com.nickolss.backend.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Total mensal por usuário, conta, tipo e categoria.
+ * Mantido incrementalmente pelo FinanceRollupService na mesma transação que altera as transações.
+ */
+@Entity
+@Table(name = "finance_monthly_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_finance_rollups_key",
+                columnNames = {"user_id", "account_id", "month", "type", "category"})
+})
+@Data
+@NoArgsConstructor
+public class FinanceRollupEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private LocalDate month; // Primeiro dia do mês
+
+    @Column(nullable = false)
+    private String type; // income, expense
+
+    @Column(nullable = false)
+    private String category = ""; // "" = sem categoria (NULL não participa do ON CONFLICT)
+
+    @Column(nullable = false)
+    private BigDecimal total = BigDecimal.ZERO;
+
+    @Column(name = "tx_count", nullable = false)
+    private Long txCount = 0L;
+}
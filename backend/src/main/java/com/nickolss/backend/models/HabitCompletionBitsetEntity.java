@@ -0,0 +1,33 @@
+package com.nickolss.backend.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "habit_completion_bitsets", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_habit_bitsets_habit_year", columnNames = {"habit_id", "year"})
+}, indexes = {
+        @Index(name = "idx_habit_bitsets_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+public class HabitCompletionBitsetEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "habit_id", nullable = false)
+    private Long habitId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    // 48 bytes: bit (dia do ano - 1) ligado = hábito concluído no dia (mesma numeração do set_bit do Postgres)
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] bits;
+}
@@ -6,6 +6,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+// Índice único (user_id, habit_id, date) criado em schema.sql, depois de remover duplicatas antigas.
+// Também atende as consultas do histórico (HabitEntrySpecifications): por usuário, hábito e intervalo de datas.
 @Table(name = "habit_entries")
 @Data
 public class HabitEntryEntity {
@@ -1,8 +1,12 @@
 package com.nickolss.backend.models;
 
+import com.nickolss.backend.models.converters.CompressedTextConverter;
+import com.nickolss.backend.utils.CompressedText;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -25,9 +29,23 @@ public class NoteEntity {
     @Column(nullable = false)
     private String title;
 
+    // Conteúdo em texto puro; quando comprimido (contentCompressed), só o início, para preview e trechos da busca
     @Column(columnDefinition = "TEXT")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String content;
 
+    // Conteúdo grande comprimido pela aplicação (NoteContentService); descomprimido só quando getContent() é chamado.
+    // Fora do toString/equals gerados, que passariam pelo getContent() e descomprimiriam a cada log ou comparação
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "content_compressed", columnDefinition = "bytea")
+    private CompressedText contentCompressed;
+
+    @Column(name = "content_original_bytes")
+    private Integer contentOriginalBytes; // UTF-8 antes da compressão (relatório de bytes economizados)
+
     private String category;
 
     @JdbcTypeCode(SqlTypes.ARRAY)
@@ -44,4 +62,20 @@ public class NoteEntity {
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    public String getContent() {
+        return contentCompressed != null ? contentCompressed.text() : content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+        this.contentCompressed = null;
+        this.contentOriginalBytes = null;
+    }
+
+    public void setCompressedContent(CompressedText compressed, String head) {
+        this.content = head;
+        this.contentCompressed = compressed;
+        this.contentOriginalBytes = compressed.originalBytes();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.nickolss.backend.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Versão de uma nota (título + conteúdo) após um save.
+ * data guarda o conteúdo comprimido inteiro (snapshot) ou o delta em relação à revisão anterior (NoteDeltaCodec);
+ * a cada NoteRevisionService.SNAPSHOT_INTERVAL revisões há um snapshot, que limita o tamanho da cadeia a aplicar.
+ */
+@Entity
+@Table(name = "note_revisions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_note_revisions_note_revision", columnNames = {"note_id", "revision"})
+})
+@Data
+@NoArgsConstructor
+public class NoteRevisionEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "note_id", nullable = false)
+    private Long noteId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private Integer revision; // Sequencial por nota; a compactação remove revisões mas não renumera
+
+    @Column(nullable = false)
+    private Boolean snapshot;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(name = "content_length", nullable = false)
+    private Integer contentLength;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -3,14 +3,21 @@ package com.nickolss.backend.models;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "projects")
+@Table(name = "projects", indexes = {
+        // Listagem do usuário e janela de lembretes (ReminderService): global por vencimento e recarga por usuário
+        @Index(name = "idx_projects_user_due", columnList = "user_id, due_date"),
+        @Index(name = "idx_projects_due", columnList = "due_date")
+})
 @Data
 @NoArgsConstructor
+// UPDATE só com as colunas alteradas: salvar o projeto não sobrescreve o progresso calculado em paralelo
+@DynamicUpdate
 public class ProjectEntity {
 
     @Id
@@ -27,7 +34,14 @@ public class ProjectEntity {
     private String description;
 
     @Column(nullable = false)
-    private Integer progress = 0; // 0 a 100
+    private Integer progress = 0; // 0 a 100; com tarefas vinculadas, % concluída (ProjectCounterService)
+
+    // Tarefas vinculadas (TaskEntity.projectId), mantidos por delta a cada mudança de tarefa; nunca recontados na leitura
+    @Column(name = "task_count", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private Integer taskCount = 0;
+
+    @Column(name = "completed_task_count", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private Integer completedTaskCount = 0;
 
     // Valores esperados: 'planning', 'in-progress', 'on-hold', 'completed'
     private String status;
@@ -0,0 +1,66 @@
+package com.nickolss.backend.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "recurring_transactions", indexes = {
+        // Busca das regras vencidas pelo job: WHERE active = true AND next_run_date <= hoje
+        @Index(name = "idx_recurring_active_next_run", columnList = "active, next_run_date"),
+        @Index(name = "idx_recurring_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+public class RecurringTransactionEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    private String description;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private String type; // income, expense
+
+    private String category;
+
+    @Column(nullable = false)
+    private String frequency; // daily, weekly, monthly, yearly
+
+    @Column(name = "interval_count", nullable = false)
+    private Integer intervalCount = 1; // a cada N períodos
+
+    // Também é a âncora do dia do mês (regra do dia 31 cai no último dia dos meses curtos)
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    // Próxima ocorrência ainda não gerada
+    @Column(name = "next_run_date", nullable = false)
+    private LocalDate nextRunDate;
+
+    @Column(nullable = false)
+    private Boolean active = true;
+
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.nickolss.backend.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Até onde os lembretes já foram entregues: na subida o ReminderService recarrega a partir daqui
+@Entity
+@Table(name = "reminder_watermarks")
+@Data
+@NoArgsConstructor
+public class ReminderWatermarkEntity {
+
+    @Id
+    private String name;
+
+    @Column(name = "fired_until", nullable = false)
+    private LocalDateTime firedUntil;
+}
@@ -8,7 +8,17 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        // Listagem por criação (TaskService.getTasksPage, sort=created), com e sem filtro de concluídas.
+        // Tarefas abertas por vencimento usam o índice parcial idx_tasks_open_user_due (schema.sql)
+        @Index(name = "idx_tasks_user_id", columnList = "user_id, id DESC"),
+        @Index(name = "idx_tasks_user_completed_id", columnList = "user_id, completed, id DESC"),
+        @Index(name = "idx_tasks_user_due", columnList = "user_id, due_date, id"),
+        // Ordem manual (TaskService.getTasks)
+        @Index(name = "idx_tasks_user_rank", columnList = "user_id, rank_key, id DESC"),
+        // Recontagem dos contadores do projeto e desvínculo ao deletar o projeto
+        @Index(name = "idx_tasks_project", columnList = "project_id, completed")
+})
 @Data
 @NoArgsConstructor
 public class TaskEntity {
@@ -34,6 +44,14 @@ public class TaskEntity {
     @Column(name = "due_date")
     private LocalDate dueDate; // Data de vencimento (sem hora)
 
+    // Projeto opcional; os contadores do projeto acompanham (ProjectCounterService)
+    @Column(name = "project_id")
+    private Long projectId;
+
+    // Ordem manual (RankKeys): comparação byte a byte, igual ao String.compareTo do Java
+    @Column(name = "rank_key", columnDefinition = "varchar(255) COLLATE \"C\"")
+    private String rankKey;
+
     @Column(name = "created_at", insertable = false, updatable = false)
     private LocalDateTime createdAt;
 
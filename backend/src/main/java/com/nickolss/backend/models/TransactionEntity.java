@@ -9,7 +9,18 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", uniqueConstraints = {
+        // Uma ocorrência por regra recorrente e data: torna a geração idempotente (ON CONFLICT DO NOTHING)
+        @UniqueConstraint(name = "uk_transactions_recurrence_date", columnNames = {"recurrence_id", "date"})
+}, indexes = {
+        // Serve a listagem paginada (keyset) sem sort: WHERE user_id = ? ORDER BY date DESC, id DESC
+        @Index(name = "idx_transactions_user_date_id", columnList = "user_id, date DESC, id DESC"),
+        // Mesma listagem filtrada por conta (TransactionSpecifications.byAccount)
+        @Index(name = "idx_transactions_user_account_date", columnList = "user_id, account_id, date"),
+        // Saldo histórico: soma das transações de uma conta dentro de um mês
+        @Index(name = "idx_transactions_account_date", columnList = "account_id, date"),
+        @Index(name = "idx_transactions_transfer", columnList = "transfer_id")
+})
 @Data
 @NoArgsConstructor
 public class TransactionEntity {
@@ -37,6 +48,14 @@ public class TransactionEntity {
     @Column(nullable = false)
     private LocalDate date;
 
+    // Regra que gerou a transação (null para lançamentos manuais)
+    @Column(name = "recurrence_id")
+    private Long recurrenceId;
+
+    // Liga as duas pernas de uma transferência entre contas (saída = expense, entrada = income)
+    @Column(name = "transfer_id")
+    private String transferId;
+
     @Column(name = "created_at", insertable = false, updatable = false)
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,20 @@
+package com.nickolss.backend.models.converters;
+
+import com.nickolss.backend.utils.CompressedText;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Só embrulha os bytes: a descompressão fica para quando o texto for lido (CompressedText.text())
+@Converter
+public class CompressedTextConverter implements AttributeConverter<CompressedText, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(CompressedText attribute) {
+        return attribute != null ? attribute.data() : null;
+    }
+
+    @Override
+    public CompressedText convertToEntityAttribute(byte[] data) {
+        return data != null ? CompressedText.of(data) : null;
+    }
+}
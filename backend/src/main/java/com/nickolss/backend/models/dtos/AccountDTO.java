@@ -13,4 +13,5 @@ public class AccountDTO {
     private String type;
     private BigDecimal balance;
     private String bank;
+    private Long version; // Controle otimista para edição manual de saldo
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkResultDTO {
+    private long affected; // linhas alteradas/removidas (as que já estavam no estado pedido não contam)
+}
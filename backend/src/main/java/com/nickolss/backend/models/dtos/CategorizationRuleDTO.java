@@ -0,0 +1,19 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class CategorizationRuleDTO {
+    private Long id;
+    private String matchType; // "contains" | "prefix" | "regex"
+    private String pattern;
+    private String category;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private String transactionType; // "income" | "expense" | null
+    private Integer priority;
+}
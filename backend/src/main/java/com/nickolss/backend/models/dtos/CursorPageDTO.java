@@ -0,0 +1,14 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor; // null quando não há mais páginas
+    private Boolean hasMore;
+}
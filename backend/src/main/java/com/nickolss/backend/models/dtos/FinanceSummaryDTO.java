@@ -0,0 +1,16 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class FinanceSummaryDTO {
+    private String period; // "2024-03" (mensal) ou "2024" (anual)
+    private String type;
+    private String category;
+    private BigDecimal total;
+    private Long count;
+}
@@ -0,0 +1,17 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+public class HabitHeatmapDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int days;
+    private String encoding; // "bitmap" | "rle"
+    private List<HabitHeatmapRowDTO> habits;
+}
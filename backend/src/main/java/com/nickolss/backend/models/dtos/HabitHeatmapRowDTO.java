@@ -0,0 +1,17 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class HabitHeatmapRowDTO {
+    private Long habitId;
+    private int completed;
+    // bitmap: base64, bit i (byte i / 8, bit i % 8 a partir do menos significativo) = startDate + i dias
+    private String bitmap;
+    // rle: tamanhos de sequências alternadas, começando por dias NÃO concluídos (pode ser 0)
+    private List<Integer> runs;
+}
@@ -0,0 +1,22 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+public class HabitStatsDTO {
+    private Long habitId;
+    private String frequency;
+    private int targetPerWeek;
+    private String streakUnit; // "days" | "weeks"
+    private int currentStreak;
+    private int longestStreak;
+    private int totalCompletions;
+    private boolean completedToday;
+    private LocalDate lastCompletedDate;
+    private List<HabitWindowStatsDTO> windows; // 7, 30, 90 e 365 dias
+}
@@ -0,0 +1,13 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class HabitWindowStatsDTO {
+    private int days;
+    private int completions;
+    private double expected;
+    private double rate; // 0..1
+}
@@ -0,0 +1,13 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class NoteBulkPinRequestDTO {
+    private List<Long> ids;
+    private Boolean pinned;
+}
@@ -0,0 +1,21 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class NoteCompressionStatsDTO {
+    private Boolean enabled;
+    private Integer minChars;         // conteúdo a partir deste tamanho é comprimido
+    // Armazenamento atual (banco)
+    private Long compressedNotes;
+    private Long originalBytes;       // UTF-8 do conteúdo das notas comprimidas
+    private Long storedBytes;         // comprimido + início em texto puro
+    private Long savedBytes;
+    // Custo no processo desde a subida
+    private Long compressions;
+    private Double compressMs;
+    private Long decompressions;
+    private Double decompressMs;
+}
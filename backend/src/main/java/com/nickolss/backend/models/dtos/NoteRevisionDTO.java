@@ -0,0 +1,18 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class NoteRevisionDTO {
+    private Integer revision;
+    private String title;
+    private String content;        // só na consulta de uma revisão; null na listagem
+    private Integer contentLength;
+    private Boolean snapshot;      // true: conteúdo completo; false: delta da revisão anterior
+    private Integer storedBytes;   // tamanho comprimido armazenado
+    private LocalDateTime createdAt;
+}
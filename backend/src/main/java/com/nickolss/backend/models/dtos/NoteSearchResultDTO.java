@@ -0,0 +1,22 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class NoteSearchResultDTO {
+    private Long id;
+    private String title;
+    private String titleHighlight; // título com os termos encontrados entre <mark></mark>
+    private String snippet;        // trechos do conteúdo com os termos entre <mark></mark>
+    private String category;
+    private List<String> tags;
+    private Boolean isPinned;
+    private String color;
+    private Float rank;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,22 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class NoteSummaryDTO {
+    private Long id;
+    private String title;
+    private String preview;     // início do conteúdo (tamanho fixo); o conteúdo completo vem de GET /api/notes/{id}
+    private Boolean truncated;  // true quando o conteúdo é maior que o preview
+    private String category;
+    private List<String> tags;
+    private Boolean isPinned;
+    private String color;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,11 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class NoteTagCountDTO {
+    private String tag;
+    private long count; // notas do usuário com a tag
+}
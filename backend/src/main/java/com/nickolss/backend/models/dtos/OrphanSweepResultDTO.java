@@ -0,0 +1,14 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@Builder
+public class OrphanSweepResultDTO {
+    private Map<String, Long> deleted; // tabela → linhas órfãs removidas
+    private long unlinkedTransfers;    // pernas de transferência cujo par não existe mais
+    private long elapsedMs;
+}
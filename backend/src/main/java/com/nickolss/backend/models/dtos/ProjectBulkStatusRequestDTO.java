@@ -0,0 +1,13 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ProjectBulkStatusRequestDTO {
+    private List<Long> ids;
+    private String status; // planning, in-progress, on-hold, completed
+}
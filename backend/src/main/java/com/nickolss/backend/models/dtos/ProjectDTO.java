@@ -12,7 +12,9 @@ public class ProjectDTO {
     private Long id;
     private String name;
     private String description;
-    private Integer progress;
+    private Integer progress;          // calculado pelas tarefas vinculadas quando houver alguma
+    private Integer taskCount;
+    private Integer completedTaskCount;
     private String status;
     private String priority;
     private LocalDate startDate;
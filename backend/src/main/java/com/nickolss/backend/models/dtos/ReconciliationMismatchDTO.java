@@ -0,0 +1,15 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class ReconciliationMismatchDTO {
+    private Long accountId;
+    private String userId;
+    private BigDecimal storedBalance;
+    private BigDecimal expectedBalance;
+}
@@ -0,0 +1,29 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class ReconciliationStatusDTO {
+    private String status; // idle, running, completed, failed
+    private Boolean repair;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Integer totalUsers;
+    private Integer processedUsers;
+    private Integer totalChunks;
+    private Integer processedChunks;
+    private Long accountsChecked;
+    private Long mismatches;
+    private Long repaired;
+    private Long unknownOpening; // contas sem saldo inicial registrado: fora da comparação e do reparo
+    private Long elapsedMs;
+    private Double accountsPerSecond;
+    private String error;
+    private List<ReconciliationMismatchDTO> sampleMismatches; // primeiras divergências encontradas
+    private List<Long> sampleUnknownOpening; // ids das primeiras contas sem saldo inicial
+}
@@ -0,0 +1,15 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class RecurringRunResultDTO {
+    private LocalDate runDate;
+    private int rulesProcessed;
+    private int transactionsCreated;
+    private long durationMs;
+}
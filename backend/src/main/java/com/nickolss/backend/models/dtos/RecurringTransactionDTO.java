@@ -0,0 +1,24 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class RecurringTransactionDTO {
+    private Long id;
+    private Long accountId;
+    private String description;
+    private BigDecimal amount;
+    private String type; // "income" | "expense"
+    private String category;
+    private String frequency; // "daily" | "weekly" | "monthly" | "yearly"
+    private Integer intervalCount;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private LocalDate nextRunDate;
+    private Boolean active;
+}
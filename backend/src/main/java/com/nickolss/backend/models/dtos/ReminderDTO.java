@@ -0,0 +1,18 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ReminderDTO {
+    private String type;           // task ou project
+    private Long id;
+    private String userId;
+    private String title;          // texto da tarefa ou nome do projeto
+    private LocalDate dueDate;
+    private LocalDateTime fireAt;
+}
@@ -0,0 +1,18 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ReminderStatusDTO {
+    private Boolean enabled;
+    private Integer pending;            // lembretes no timing wheel (só a janela carregada)
+    private LocalDateTime loadedUntil;  // fim da janela; o que vence depois está só no banco
+    private LocalDateTime firedUntil;   // watermark: tudo até aqui já foi entregue (retomada após restart)
+    // Desde a subida
+    private Long fired;
+    private Long refills;
+}
@@ -0,0 +1,16 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class TaskBulkRequestDTO {
+    private String action;        // complete, reopen, categorize, prioritize, delete
+    private List<Long> ids;       // tarefas alvo (ou filter)
+    private TaskFilterDTO filter; // todas as tarefas do usuário que casam com o filtro (ou ids)
+    private String category;      // valor novo (categorize; null limpa a categoria)
+    private String priority;      // valor novo (prioritize)
+}
@@ -15,5 +15,6 @@ public class TaskDTO {
     private String priority;
     private String category;
     private LocalDate dueDate;
+    private Long projectId; // no PATCH, 0 remove o vínculo
     private LocalDateTime createdAt;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Mesmos filtros de GET /api/tasks/page, para ações em lote sobre "todas as tarefas que casam"
+@Data
+@Builder
+public class TaskFilterDTO {
+    private Boolean completed;
+    private List<String> priorities;
+    private String category;
+    private LocalDate dueFrom;
+    private LocalDate dueTo;
+}
@@ -0,0 +1,11 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TaskMoveDTO {
+    private Long previousId; // tarefa que fica logo acima (null: a tarefa vai para o topo, antes de nextId)
+    private Long nextId;     // tarefa que fica logo abaixo (usada só sem previousId)
+}
@@ -16,4 +16,6 @@ public class TransactionDTO {
     private String type; // "income" | "expense"
     private String category;
     private LocalDate date;
+    private Long recurrenceId; // somente leitura: preenchido nas transações geradas por regra recorrente
+    private String transferId; // somente leitura: as duas pernas de uma transferência compartilham o id
 }
\ No newline at end of file
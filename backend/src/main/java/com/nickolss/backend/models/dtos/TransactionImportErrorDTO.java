@@ -0,0 +1,11 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TransactionImportErrorDTO {
+    private Integer row; // Linha de origem (1 = primeira linha de dados)
+    private String message;
+}
@@ -0,0 +1,15 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class TransactionImportResultDTO {
+    private Integer received;
+    private Integer imported;
+    private Integer rejected;
+    private List<TransactionImportErrorDTO> errors;
+}
@@ -0,0 +1,21 @@
+package com.nickolss.backend.models.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class TransferDTO {
+    private String transferId;
+    private Long fromAccountId;
+    private Long toAccountId;
+    private BigDecimal amount;
+    private String description;
+    private String category; // padrão: "Transferência"
+    private LocalDate date;
+    private TransactionDTO outgoing; // somente leitura: perna de saída (expense)
+    private TransactionDTO incoming; // somente leitura: perna de entrada (income)
+}
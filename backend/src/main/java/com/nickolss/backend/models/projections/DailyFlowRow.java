@@ -0,0 +1,9 @@
+package com.nickolss.backend.models.projections;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface DailyFlowRow {
+    LocalDate getDate();
+    BigDecimal getFlow();
+}
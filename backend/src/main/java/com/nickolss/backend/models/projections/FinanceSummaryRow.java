@@ -0,0 +1,12 @@
+package com.nickolss.backend.models.projections;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface FinanceSummaryRow {
+    LocalDate getMonth();
+    String getType();
+    String getCategory();
+    BigDecimal getTotal();
+    Long getCount();
+}
@@ -0,0 +1,18 @@
+package com.nickolss.backend.models.projections;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Record (expressão "new" no JPQL) em vez de interface: sem proxy nem conversão por getter, numa listagem de milhares de linhas
+public record NoteSummaryRow(
+        Long id,
+        String title,
+        String preview, // até PREVIEW_LENGTH + 1 caracteres: o excedente só indica que o conteúdo continua
+        String category,
+        List<String> tags,
+        Boolean isPinned,
+        String color,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,62 @@
+package com.nickolss.backend.repositories;
+
+import com.nickolss.backend.models.AccountBalanceCheckpointEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface AccountBalanceCheckpointRepository extends JpaRepository<AccountBalanceCheckpointEntity, Long> {
+
+    // Checkpoint mais recente (fluxo total da conta)
+    Optional<AccountBalanceCheckpointEntity> findFirstByAccountIdOrderByPeriodEndDesc(Long accountId);
+
+    // Checkpoint mais próximo antes de uma data
+    Optional<AccountBalanceCheckpointEntity> findFirstByAccountIdAndPeriodEndLessThanOrderByPeriodEndDesc(
+            Long accountId, LocalDate date);
+
+    List<AccountBalanceCheckpointEntity> findByAccountIdAndPeriodEndBetweenOrderByPeriodEnd(
+            Long accountId, LocalDate start, LocalDate end);
+
+    // Cria o checkpoint do mês (se não existir) herdando o fluxo do checkpoint anterior
+    @Modifying
+    @Query(value = "INSERT INTO account_balance_checkpoints (account_id, user_id, period_end, flow) " +
+            "SELECT :accountId, :userId, :periodEnd, COALESCE((SELECT c.flow FROM account_balance_checkpoints c " +
+            "WHERE c.account_id = :accountId AND c.period_end < :periodEnd ORDER BY c.period_end DESC LIMIT 1), 0) " +
+            "ON CONFLICT (account_id, period_end) DO NOTHING", nativeQuery = true)
+    int ensureCheckpoint(
+            @Param("accountId") Long accountId,
+            @Param("userId") String userId,
+            @Param("periodEnd") LocalDate periodEnd
+    );
+
+    // Uma transação no mês M altera o fluxo acumulado de M e de todos os meses seguintes
+    @Modifying
+    @Query(value = "UPDATE account_balance_checkpoints SET flow = flow + :delta " +
+            "WHERE account_id = :accountId AND period_end >= :periodEnd", nativeQuery = true)
+    int shiftFrom(
+            @Param("accountId") Long accountId,
+            @Param("periodEnd") LocalDate periodEnd,
+            @Param("delta") BigDecimal delta
+    );
+
+    @Modifying
+    @Query(value = "DELETE FROM account_balance_checkpoints WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUser(@Param("userId") String userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO account_balance_checkpoints (account_id, user_id, period_end, flow) " +
+            "SELECT m.account_id, m.user_id, m.period_end, " +
+            "SUM(m.net) OVER (PARTITION BY m.account_id ORDER BY m.period_end) FROM (" +
+            "SELECT account_id, user_id, " +
+            "CAST(date_trunc('month', date) + INTERVAL '1 month' - INTERVAL '1 day' AS date) AS period_end, " +
+            "SUM(CASE WHEN type = 'income' THEN amount ELSE -amount END) AS net " +
+            "FROM transactions WHERE user_id = :userId GROUP BY account_id, user_id, 3) m",
+            nativeQuery = true)
+    int rebuildFromTransactions(@Param("userId") String userId);
+}
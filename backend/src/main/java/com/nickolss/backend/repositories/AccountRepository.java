@@ -1,11 +1,38 @@
 package com.nickolss.backend.repositories;
 
 import com.nickolss.backend.models.AccountEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<AccountEntity, Long> {
     List<AccountEntity> findByUserIdOrderByCreatedAtDesc(String userId);
     Optional<AccountEntity> findByIdAndUserId(Long id, String userId);
+
+    // Trava as contas do usuário: serializa rebuilds com os UPDATEs de saldo das transações
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AccountEntity a WHERE a.userId = :userId ORDER BY a.id")
+    List<AccountEntity> lockByUserId(@Param("userId") String userId);
+
+    @Query("SELECT DISTINCT a.userId FROM AccountEntity a ORDER BY a.userId")
+    List<String> findAllUserIds();
+
+    // Atualização atômica de saldo (retorna 0 se a conta não existe ou não pertence ao usuário)
+    @Modifying
+    @Query("UPDATE AccountEntity a SET a.balance = a.balance + :delta, a.version = a.version + 1, " +
+            "a.updatedAt = :updatedAt WHERE a.id = :id AND a.userId = :userId")
+    int applyBalanceDelta(
+            @Param("id") Long id,
+            @Param("userId") String userId,
+            @Param("delta") BigDecimal delta,
+            @Param("updatedAt") LocalDateTime updatedAt
+    );
 }
\ No newline at end of file
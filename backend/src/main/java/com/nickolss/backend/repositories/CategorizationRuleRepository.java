@@ -0,0 +1,13 @@
+package com.nickolss.backend.repositories;
+
+import com.nickolss.backend.models.CategorizationRuleEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CategorizationRuleRepository extends JpaRepository<CategorizationRuleEntity, Long> {
+    List<CategorizationRuleEntity> findByUserIdOrderByPriorityAscIdAsc(String userId);
+    Optional<CategorizationRuleEntity> findByIdAndUserId(Long id, String userId);
+    long countByUserId(String userId);
+}
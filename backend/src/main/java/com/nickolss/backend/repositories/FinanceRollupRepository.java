@@ -0,0 +1,49 @@
+package com.nickolss.backend.repositories;
+
+import com.nickolss.backend.models.FinanceRollupEntity;
+import com.nickolss.backend.models.projections.FinanceSummaryRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface FinanceRollupRepository extends JpaRepository<FinanceRollupEntity, Long> {
+
+    @Query("SELECT r.month AS month, r.type AS type, r.category AS category, " +
+            "SUM(r.total) AS total, SUM(r.txCount) AS count FROM FinanceRollupEntity r " +
+            "WHERE r.userId = :userId AND r.month >= :startMonth AND r.month <= :endMonth AND r.txCount > 0 " +
+            "GROUP BY r.month, r.type, r.category ORDER BY r.month, r.type, r.category")
+    List<FinanceSummaryRow> summarize(
+            @Param("userId") String userId,
+            @Param("startMonth") LocalDate startMonth,
+            @Param("endMonth") LocalDate endMonth
+    );
+
+    @Query("SELECT r.month AS month, r.type AS type, r.category AS category, " +
+            "SUM(r.total) AS total, SUM(r.txCount) AS count FROM FinanceRollupEntity r " +
+            "WHERE r.userId = :userId AND r.accountId = :accountId " +
+            "AND r.month >= :startMonth AND r.month <= :endMonth AND r.txCount > 0 " +
+            "GROUP BY r.month, r.type, r.category ORDER BY r.month, r.type, r.category")
+    List<FinanceSummaryRow> summarizeAccount(
+            @Param("userId") String userId,
+            @Param("accountId") Long accountId,
+            @Param("startMonth") LocalDate startMonth,
+            @Param("endMonth") LocalDate endMonth
+    );
+
+    @Modifying
+    @Query(value = "DELETE FROM finance_monthly_rollups WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUser(@Param("userId") String userId);
+
+    // Recalcula do zero a partir de transactions (usado pelo rebuild)
+    @Modifying
+    @Query(value = "INSERT INTO finance_monthly_rollups (user_id, account_id, month, type, category, total, tx_count) " +
+            "SELECT user_id, account_id, CAST(date_trunc('month', date) AS date), type, COALESCE(category, ''), " +
+            "SUM(amount), COUNT(*) FROM transactions WHERE user_id = :userId " +
+            "GROUP BY user_id, account_id, CAST(date_trunc('month', date) AS date), type, COALESCE(category, '')",
+            nativeQuery = true)
+    int rebuildFromTransactions(@Param("userId") String userId);
+}
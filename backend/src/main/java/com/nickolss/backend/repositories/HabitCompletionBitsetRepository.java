@@ -0,0 +1,11 @@
+package com.nickolss.backend.repositories;
+
+import com.nickolss.backend.models.HabitCompletionBitsetEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface HabitCompletionBitsetRepository extends JpaRepository<HabitCompletionBitsetEntity, Long> {
+    List<HabitCompletionBitsetEntity> findByHabitId(Long habitId);
+    List<HabitCompletionBitsetEntity> findByUserId(String userId);
+}
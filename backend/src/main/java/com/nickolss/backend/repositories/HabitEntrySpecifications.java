@@ -0,0 +1,32 @@
+package com.nickolss.backend.repositories;
+
+import com.nickolss.backend.models.HabitEntryEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Predicados para consultas dinâmicas do histórico de hábitos.
+ * Cada filtro só entra no SQL quando foi informado, para o Postgres usar o índice (user_id, habit_id, date).
+ */
+public final class HabitEntrySpecifications {
+
+    private HabitEntrySpecifications() {
+    }
+
+    public static Specification<HabitEntryEntity> byUser(String userId) {
+        return (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+
+    public static Specification<HabitEntryEntity> byHabit(Long habitId) {
+        return (root, query, cb) -> cb.equal(root.get("habitId"), habitId);
+    }
+
+    public static Specification<HabitEntryEntity> dateFrom(LocalDate startDate) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("date"), startDate);
+    }
+
+    public static Specification<HabitEntryEntity> dateTo(LocalDate endDate) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("date"), endDate);
+    }
+}
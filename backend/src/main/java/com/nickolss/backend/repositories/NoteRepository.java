@@ -1,15 +1,57 @@
 package com.nickolss.backend.repositories;
 
 import com.nickolss.backend.models.NoteEntity;
+import com.nickolss.backend.models.projections.NoteSummaryRow;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface NoteRepository extends JpaRepository<NoteEntity, Long> {
 
+    int PREVIEW_LENGTH = 160;
+
+    // Listagem leve: só metadados e o início do conteúdo (o Postgres descomprime apenas o trecho lido)
+    @Query("SELECT new com.nickolss.backend.models.projections.NoteSummaryRow(" +
+            "n.id, n.title, substring(n.content, 1, " + (PREVIEW_LENGTH + 1) + "), " +
+            "n.category, n.tags, n.isPinned, n.color, n.createdAt, n.updatedAt) " +
+            "FROM NoteEntity n WHERE n.userId = :userId ORDER BY n.isPinned DESC, n.updatedAt DESC")
+    List<NoteSummaryRow> findSummariesByUserId(@Param("userId") String userId);
+
     // Ordenação: Pinados primeiro (DESC), depois os mais recentes (DESC)
     List<NoteEntity> findByUserIdOrderByIsPinnedDescUpdatedAtDesc(String userId);
 
     // Para garantir que só deletamos/atualizamos notas que pertencem ao usuário
     Optional<NoteEntity> findByIdAndUserId(Long id, String userId);
-}
\ No newline at end of file
+
+    // Serializa os saves da nota: a revisão nova é o delta do conteúdo que estava salvo
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM NoteEntity n WHERE n.id = :id AND n.userId = :userId")
+    Optional<NoteEntity> findForUpdate(@Param("id") Long id, @Param("userId") String userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM NoteEntity n WHERE n.id IN :ids")
+    List<NoteEntity> findAllForUpdate(@Param("ids") List<Long> ids);
+
+    // Fixar/desafixar em lote num único UPDATE; notas que já estão no estado pedido não contam
+    @Modifying
+    @Query("UPDATE NoteEntity n SET n.isPinned = :pinned, n.updatedAt = :now " +
+            "WHERE n.userId = :userId AND n.id IN :ids AND n.isPinned <> :pinned")
+    int updatePinned(@Param("userId") String userId, @Param("ids") List<Long> ids,
+                     @Param("pinned") boolean pinned, @Param("now") LocalDateTime now);
+
+    // Filtros por tags resolvidos pelo índice GIN de tags (schema.sql): && = qualquer uma, @> = todas
+    @Query(value = "SELECT * FROM notes WHERE user_id = :userId AND tags && CAST(:tags AS text[]) " +
+            "ORDER BY is_pinned DESC, updated_at DESC", nativeQuery = true)
+    List<NoteEntity> findByUserIdAndAnyTag(@Param("userId") String userId, @Param("tags") String[] tags);
+
+    @Query(value = "SELECT * FROM notes WHERE user_id = :userId AND tags @> CAST(:tags AS text[]) " +
+            "ORDER BY is_pinned DESC, updated_at DESC", nativeQuery = true)
+    List<NoteEntity> findByUserIdAndAllTags(@Param("userId") String userId, @Param("tags") String[] tags);
+}
@@ -0,0 +1,51 @@
+package com.nickolss.backend.repositories;
+
+import com.nickolss.backend.models.NoteRevisionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface NoteRevisionRepository extends JpaRepository<NoteRevisionEntity, Long> {
+
+    Optional<NoteRevisionEntity> findFirstByNoteIdOrderByRevisionDesc(Long noteId);
+
+    @Query("SELECT max(r.revision) FROM NoteRevisionEntity r WHERE r.noteId = :noteId AND r.snapshot = true")
+    Integer findLastSnapshotRevision(@Param("noteId") Long noteId);
+
+    // Do snapshot mais próximo (<= revision) até a revisão pedida: o bastante para reconstruí-la
+    @Query(value = "SELECT * FROM note_revisions WHERE note_id = :noteId AND user_id = :userId " +
+            "AND revision <= :revision AND revision >= (SELECT max(s.revision) FROM note_revisions s " +
+            "WHERE s.note_id = :noteId AND s.revision <= :revision AND s.snapshot) ORDER BY revision", nativeQuery = true)
+    List<NoteRevisionEntity> findChain(
+            @Param("noteId") Long noteId,
+            @Param("userId") String userId,
+            @Param("revision") int revision
+    );
+
+    List<NoteRevisionEntity> findByNoteIdOrderByRevision(Long noteId);
+
+    @Modifying
+    @Query("DELETE FROM NoteRevisionEntity r WHERE r.noteId = :noteId")
+    int deleteByNoteId(@Param("noteId") Long noteId);
+
+    /**
+     * Notas com algo a compactar: revisões fora das minKept mais recentes, anteriores a thinBefore,
+     * que não são a última do dia ou são anteriores a deleteBefore.
+     */
+    @Query(value = "SELECT DISTINCT note_id FROM (SELECT note_id, created_at, " +
+            "row_number() OVER (PARTITION BY note_id ORDER BY revision DESC) AS newer, " +
+            "lead(created_at) OVER (PARTITION BY note_id ORDER BY revision) AS next_at " +
+            "FROM note_revisions) r WHERE r.newer > :minKept AND r.created_at < :thinBefore " +
+            "AND (r.created_at < :deleteBefore OR CAST(r.next_at AS date) = CAST(r.created_at AS date))",
+            nativeQuery = true)
+    List<Long> findNotesToCompact(
+            @Param("minKept") int minKept,
+            @Param("thinBefore") LocalDateTime thinBefore,
+            @Param("deleteBefore") LocalDateTime deleteBefore
+    );
+}
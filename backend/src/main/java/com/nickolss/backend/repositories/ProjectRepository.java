@@ -1,7 +1,14 @@
 package com.nickolss.backend.repositories;
 
 import com.nickolss.backend.models.ProjectEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +19,33 @@ public interface ProjectRepository extends JpaRepository<ProjectEntity, Long> {
 
     // Busca segura para update/delete (garante que o projeto pertence ao usuário)
     Optional<ProjectEntity> findByIdAndUserId(Long id, String userId);
+
+    boolean existsByIdAndUserId(Long id, String userId);
+
+    // Vínculo de tarefa: FOR KEY SHARE (o mesmo lock de uma FK) segura o delete do projeto até o commit, mas não
+    // conflita com o UPDATE dos contadores logo em seguida nem com outras tarefas sendo vinculadas
+    @Query(value = "SELECT id FROM projects WHERE id = :id AND user_id = :userId FOR KEY SHARE", nativeQuery = true)
+    Optional<Long> lockForTaskLink(@Param("id") Long id, @Param("userId") String userId);
+
+    // Delete do projeto: espera os vínculos em andamento terminarem e barra os novos
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM ProjectEntity p WHERE p.id = :id AND p.userId = :userId")
+    Optional<ProjectEntity> findForUpdate(@Param("id") Long id, @Param("userId") String userId);
+
+    // Delta atômico nos contadores (a linha fica travada até o commit); o progresso acompanha enquanto houver tarefas
+    @Modifying
+    @Query(value = "UPDATE projects SET task_count = task_count + :tasks, " +
+            "completed_task_count = completed_task_count + :completed, " +
+            "progress = CASE WHEN task_count + :tasks > 0 " +
+            "THEN CAST(round(100.0 * (completed_task_count + :completed) / (task_count + :tasks)) AS integer) " +
+            "ELSE progress END " +
+            "WHERE id = :projectId", nativeQuery = true)
+    int adjustTaskCounters(@Param("projectId") Long projectId, @Param("tasks") int tasks, @Param("completed") int completed);
+
+    // Troca de status em lote num único UPDATE; projetos que já estão no status pedido não contam
+    @Modifying
+    @Query("UPDATE ProjectEntity p SET p.status = :status, p.updatedAt = :now " +
+            "WHERE p.userId = :userId AND p.id IN :ids AND (p.status IS NULL OR p.status <> :status)")
+    int updateStatus(@Param("userId") String userId, @Param("ids") List<Long> ids,
+                     @Param("status") String status, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.nickolss.backend.repositories;
+
+import com.nickolss.backend.models.RecurringTransactionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface RecurringTransactionRepository extends JpaRepository<RecurringTransactionEntity, Long> {
+    List<RecurringTransactionEntity> findByUserIdOrderByNextRunDateAscIdAsc(String userId);
+    Optional<RecurringTransactionEntity> findByIdAndUserId(Long id, String userId);
+
+    // Regras vencidas de todos os usuários. SKIP LOCKED: execuções concorrentes (várias instâncias)
+    // dividem o trabalho em vez de esperar ou gerar a mesma ocorrência duas vezes.
+    @Query(value = "SELECT * FROM recurring_transactions WHERE active = true AND next_run_date <= :today " +
+            "ORDER BY next_run_date, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<RecurringTransactionEntity> lockDue(@Param("today") LocalDate today, @Param("limit") int limit);
+}
@@ -0,0 +1,7 @@
+package com.nickolss.backend.repositories;
+
+import com.nickolss.backend.models.ReminderWatermarkEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReminderWatermarkRepository extends JpaRepository<ReminderWatermarkEntity, String> {
+}
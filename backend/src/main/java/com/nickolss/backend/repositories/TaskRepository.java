@@ -1,16 +1,48 @@
 package com.nickolss.backend.repositories;
 
 import com.nickolss.backend.models.TaskEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface TaskRepository extends JpaRepository<TaskEntity, Long> {
+public interface TaskRepository extends JpaRepository<TaskEntity, Long>,
+        JpaSpecificationExecutor<TaskEntity> {
 
-    // Busca todas as tarefas do usuário ordenadas por criação (mais recentes primeiro)
-    List<TaskEntity> findByUserIdOrderByCreatedAtDesc(String userId);
+    // Ordem manual do usuário (idx_tasks_user_rank); sem chave (antes do rebalanceamento) vão para o fim
+    List<TaskEntity> findByUserIdOrderByRankKeyAscIdDesc(String userId);
 
     // Busca segura para garantir que a tarefa pertence ao usuário antes de editar/deletar
     Optional<TaskEntity> findByIdAndUserId(Long id, String userId);
+
+    boolean existsByIdAndUserId(Long id, String userId);
+
+    // Movimento e rebalanceamento se serializam pela linha da tarefa: o vizinho é lido depois do lock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TaskEntity t WHERE t.id = :id AND t.userId = :userId")
+    Optional<TaskEntity> findForUpdate(@Param("id") Long id, @Param("userId") String userId);
+
+    @Query("SELECT t.rankKey FROM TaskEntity t WHERE t.id = :id")
+    String findRankKey(@Param("id") Long id);
+
+    // Projeto deletado: as tarefas ficam, sem vínculo (idx_tasks_project)
+    @Modifying
+    @Query("UPDATE TaskEntity t SET t.projectId = null WHERE t.projectId = :projectId")
+    int unlinkProject(@Param("projectId") Long projectId);
+
+    // Vizinhos na ordem manual: cada um é uma leitura de uma entrada do idx_tasks_user_rank
+    @Query("SELECT min(t.rankKey) FROM TaskEntity t WHERE t.userId = :userId")
+    String findFirstRankKey(@Param("userId") String userId);
+
+    @Query("SELECT min(t.rankKey) FROM TaskEntity t WHERE t.userId = :userId AND t.rankKey > :key AND t.id <> :excludedId")
+    String findNextRankKey(@Param("userId") String userId, @Param("key") String key, @Param("excludedId") Long excludedId);
+
+    @Query("SELECT max(t.rankKey) FROM TaskEntity t WHERE t.userId = :userId AND t.rankKey < :key AND t.id <> :excludedId")
+    String findPreviousRankKey(@Param("userId") String userId, @Param("key") String key, @Param("excludedId") Long excludedId);
 }
\ No newline at end of file
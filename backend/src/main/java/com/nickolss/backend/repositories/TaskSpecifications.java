@@ -0,0 +1,89 @@
+package com.nickolss.backend.repositories;
+
+import com.nickolss.backend.models.TaskEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Predicados para a listagem filtrada de tarefas.
+ * Cada filtro só entra no SQL quando foi informado; "completed" vira literal (não parâmetro)
+ * para o plano genérico poder usar o índice parcial de tarefas abertas.
+ */
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<TaskEntity> byUser(String userId) {
+        return (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+
+    public static Specification<TaskEntity> byIds(List<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<TaskEntity> byCompleted(boolean completed) {
+        return (root, query, cb) -> completed ? cb.isTrue(root.get("completed")) : cb.isFalse(root.get("completed"));
+    }
+
+    public static Specification<TaskEntity> byPriorities(List<String> priorities) {
+        return (root, query, cb) -> root.get("priority").in(priorities);
+    }
+
+    public static Specification<TaskEntity> byCategory(String category) {
+        return (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+
+    // Ações em lote: só as linhas que realmente mudam (null conta como diferente de qualquer valor)
+    public static Specification<TaskEntity> categoryNot(String category) {
+        return (root, query, cb) -> category == null
+                ? cb.isNotNull(root.get("category"))
+                : cb.or(cb.isNull(root.get("category")), cb.notEqual(root.get("category"), category));
+    }
+
+    public static Specification<TaskEntity> priorityNot(String priority) {
+        return (root, query, cb) -> cb.or(cb.isNull(root.get("priority")), cb.notEqual(root.get("priority"), priority));
+    }
+
+    public static Specification<TaskEntity> dueFrom(LocalDate date) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dueDate"), date);
+    }
+
+    public static Specification<TaskEntity> dueTo(LocalDate date) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("dueDate"), date);
+    }
+
+    public static Specification<TaskEntity> withDueDate() {
+        return (root, query, cb) -> cb.isNotNull(root.get("dueDate"));
+    }
+
+    public static Specification<TaskEntity> withoutDueDate() {
+        return (root, query, cb) -> cb.isNull(root.get("dueDate"));
+    }
+
+    // Keyset para (id DESC): ordem de criação, mais recentes primeiro
+    public static Specification<TaskEntity> idBefore(Long id) {
+        return (root, query, cb) -> cb.lessThan(root.get("id"), id);
+    }
+
+    // Keyset para (id ASC), usado no trecho sem vencimento da ordenação por vencimento
+    public static Specification<TaskEntity> idAfter(Long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    /**
+     * Keyset para (due_date ASC, id ASC): linhas estritamente depois do cursor.
+     * O "due_date >= :date" redundante deixa o índice começar a varredura na posição do cursor.
+     */
+    public static Specification<TaskEntity> dueAfter(LocalDate date, Long id) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("dueDate"), date),
+                cb.or(
+                        cb.greaterThan(root.get("dueDate"), date),
+                        cb.greaterThan(root.get("id"), id)
+                )
+        );
+    }
+}
@@ -1,22 +1,77 @@
 package com.nickolss.backend.repositories;
 
 import com.nickolss.backend.models.TransactionEntity;
+import com.nickolss.backend.models.projections.DailyFlowRow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface TransactionRepository extends JpaRepository<TransactionEntity, Long>,
+        JpaSpecificationExecutor<TransactionEntity> {
+
+    Optional<TransactionEntity> findByIdAndUserId(Long id, String userId);
+
+    // Trava as duas pernas da transferência: edições concorrentes do mesmo par são serializadas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TransactionEntity t WHERE t.transferId = :transferId AND t.userId = :userId ORDER BY t.id")
+    List<TransactionEntity> lockTransferLegs(@Param("transferId") String transferId, @Param("userId") String userId);
 
-public interface TransactionRepository extends JpaRepository<TransactionEntity, Long> {
+    @Query("SELECT t.transferId FROM TransactionEntity t WHERE t.id = :id AND t.userId = :userId AND t.transferId IS NOT NULL")
+    Optional<String> findTransferId(@Param("id") Long id, @Param("userId") String userId);
 
-    // Filtro opcional por accountId
+    // Export: cursor no servidor (fetch size) em vez de materializar a lista inteira
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
     @Query("SELECT t FROM TransactionEntity t WHERE t.userId = :userId " +
-            "AND (:accountId IS NULL OR t.accountId = :accountId) " +
-            "ORDER BY t.date DESC")
-    List<TransactionEntity> findTransactions(
+            "AND t.date >= :startDate AND t.date <= :endDate ORDER BY t.date, t.id")
+    Stream<TransactionEntity> streamByUser(
             @Param("userId") String userId,
-            @Param("accountId") Long accountId
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
     );
 
-    Optional<TransactionEntity> findByIdAndUserId(Long id, String userId);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM TransactionEntity t WHERE t.userId = :userId AND t.accountId = :accountId " +
+            "AND t.date >= :startDate AND t.date <= :endDate ORDER BY t.date, t.id")
+    Stream<TransactionEntity> streamByAccount(
+            @Param("userId") String userId,
+            @Param("accountId") Long accountId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // Fluxo líquido (receitas - despesas) da conta num intervalo fechado de datas
+    @Query("SELECT COALESCE(SUM(CASE WHEN t.type = 'income' THEN t.amount ELSE -t.amount END), 0) " +
+            "FROM TransactionEntity t WHERE t.accountId = :accountId AND t.date >= :startDate AND t.date <= :endDate")
+    BigDecimal sumFlow(
+            @Param("accountId") Long accountId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT t.date AS date, SUM(CASE WHEN t.type = 'income' THEN t.amount ELSE -t.amount END) AS flow " +
+            "FROM TransactionEntity t WHERE t.accountId = :accountId AND t.date >= :startDate AND t.date <= :endDate " +
+            "GROUP BY t.date ORDER BY t.date")
+    List<DailyFlowRow> sumFlowByDay(
+            @Param("accountId") Long accountId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
 }
\ No newline at end of file
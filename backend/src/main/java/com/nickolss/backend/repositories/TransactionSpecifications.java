@@ -0,0 +1,54 @@
+package com.nickolss.backend.repositories;
+
+import com.nickolss.backend.models.TransactionEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Predicados para consultas dinâmicas de transações.
+ * Cada filtro só entra no SQL quando foi informado, para o Postgres conseguir usar os índices compostos.
+ */
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<TransactionEntity> byUser(String userId) {
+        return (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+
+    public static Specification<TransactionEntity> byAccount(Long accountId) {
+        return (root, query, cb) -> cb.equal(root.get("accountId"), accountId);
+    }
+
+    public static Specification<TransactionEntity> byType(String type) {
+        return (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    public static Specification<TransactionEntity> byCategory(String category) {
+        return (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+
+    public static Specification<TransactionEntity> dateFrom(LocalDate startDate) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("date"), startDate);
+    }
+
+    public static Specification<TransactionEntity> dateTo(LocalDate endDate) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("date"), endDate);
+    }
+
+    /**
+     * Keyset para ordenação (date DESC, id DESC): linhas estritamente "depois" do cursor.
+     * O "date <= :date" redundante permite ao índice começar a varredura direto na posição do cursor.
+     */
+    public static Specification<TransactionEntity> after(LocalDate date, Long id) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("date"), date),
+                cb.or(
+                        cb.lessThan(root.get("date"), date),
+                        cb.lessThan(root.get("id"), id)
+                )
+        );
+    }
+}
@@ -0,0 +1,176 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.AccountBalanceCheckpointEntity;
+import com.nickolss.backend.models.AccountEntity;
+import com.nickolss.backend.models.dtos.BalancePointDTO;
+import com.nickolss.backend.models.projections.DailyFlowRow;
+import com.nickolss.backend.repositories.AccountBalanceCheckpointRepository;
+import com.nickolss.backend.repositories.AccountRepository;
+import com.nickolss.backend.repositories.TransactionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Saldo de uma conta em qualquer data, sem reprocessar todo o histórico.
+ *
+ * Cada conta tem checkpoints mensais com o fluxo acumulado (receitas - despesas) até o fim do mês.
+ * O saldo numa data X é: saldo atual - fluxo total + fluxo até X, onde "fluxo até X" é o checkpoint do mês
+ * anterior a X mais as transações do próprio mês de X (no máximo um mês de linhas, via índice account_id, date).
+ * Edições manuais de saldo (updateAccount) entram como ajuste de saldo inicial.
+ */
+@Service
+public class BalanceCheckpointService {
+
+    private static final int MAX_DAILY_POINTS = 366;
+
+    private final AccountBalanceCheckpointRepository checkpointRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public BalanceCheckpointService(AccountBalanceCheckpointRepository checkpointRepository,
+                                    AccountRepository accountRepository,
+                                    TransactionRepository transactionRepository,
+                                    TransactionTemplate transactionTemplate) {
+        this.checkpointRepository = checkpointRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Efeito de uma transação no fluxo da conta (positivo = entrada, negativo = saída).
+     */
+    public record FlowDelta(Long accountId, LocalDate date, BigDecimal amount) {
+    }
+
+    private record CheckpointKey(Long accountId, LocalDate periodEnd) {
+    }
+
+    /**
+     * Mantém os checkpoints válidos quando transações (inclusive retroativas) são criadas, editadas ou removidas.
+     * Deve rodar depois do UPDATE de saldo da conta na mesma transação: a linha da conta já está travada,
+     * então alterações concorrentes na mesma conta são serializadas.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(String userId, Collection<FlowDelta> deltas) {
+        Map<CheckpointKey, BigDecimal> aggregated = new TreeMap<>(Comparator
+                .comparing(CheckpointKey::accountId)
+                .thenComparing(CheckpointKey::periodEnd));
+        for (FlowDelta delta : deltas) {
+            LocalDate periodEnd = YearMonth.from(delta.date()).atEndOfMonth();
+            aggregated.merge(new CheckpointKey(delta.accountId(), periodEnd), delta.amount(), BigDecimal::add);
+        }
+
+        // Em ordem crescente de mês: o checkpoint criado para um mês herda o anterior já atualizado
+        aggregated.forEach((key, amount) -> {
+            checkpointRepository.ensureCheckpoint(key.accountId(), userId, key.periodEnd());
+            if (amount.signum() != 0) checkpointRepository.shiftFrom(key.accountId(), key.periodEnd(), amount);
+        });
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public BalancePointDTO getBalanceAt(String userId, Long accountId, LocalDate date) {
+        AccountEntity account = accountRepository.findByIdAndUserId(accountId, userId)
+                .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+
+        BigDecimal offset = account.getBalance().subtract(totalFlow(accountId));
+        return BalancePointDTO.builder().date(date).balance(offset.add(flowAt(accountId, date))).build();
+    }
+
+    /**
+     * Série de saldos entre duas datas.
+     *
+     * @param interval "month" (fim de cada mês, só checkpoints) ou "day" (máx. 366 pontos)
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<BalancePointDTO> getBalanceHistory(String userId, Long accountId, LocalDate startDate,
+                                                   LocalDate endDate, String interval) {
+        if (endDate.isBefore(startDate)) throw new IllegalArgumentException("Data final antes da inicial");
+
+        AccountEntity account = accountRepository.findByIdAndUserId(accountId, userId)
+                .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+        BigDecimal offset = account.getBalance().subtract(totalFlow(accountId));
+
+        List<BalancePointDTO> points = new ArrayList<>();
+        if ("day".equals(interval)) {
+            if (startDate.plusDays(MAX_DAILY_POINTS).isBefore(endDate.plusDays(1))) {
+                throw new IllegalArgumentException("Série diária limitada a " + MAX_DAILY_POINTS + " dias");
+            }
+            BigDecimal running = flowAt(accountId, startDate.minusDays(1));
+            Map<LocalDate, BigDecimal> daily = new TreeMap<>();
+            for (DailyFlowRow row : transactionRepository.sumFlowByDay(accountId, startDate, endDate)) {
+                daily.put(row.getDate(), row.getFlow());
+            }
+            for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+                running = running.add(daily.getOrDefault(day, BigDecimal.ZERO));
+                points.add(BalancePointDTO.builder().date(day).balance(offset.add(running)).build());
+            }
+            return points;
+        }
+
+        // Mensal: fluxo no fim de cada mês = checkpoint do mês ou o último anterior a ele
+        LocalDate firstEnd = YearMonth.from(startDate).atEndOfMonth();
+        LocalDate lastEnd = YearMonth.from(endDate).atEndOfMonth();
+        BigDecimal running = checkpointRepository
+                .findFirstByAccountIdAndPeriodEndLessThanOrderByPeriodEndDesc(accountId, firstEnd)
+                .map(AccountBalanceCheckpointEntity::getFlow).orElse(BigDecimal.ZERO);
+        Map<LocalDate, BigDecimal> checkpoints = new TreeMap<>();
+        for (AccountBalanceCheckpointEntity c : checkpointRepository
+                .findByAccountIdAndPeriodEndBetweenOrderByPeriodEnd(accountId, firstEnd, lastEnd)) {
+            checkpoints.put(c.getPeriodEnd(), c.getFlow());
+        }
+        for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+            running = checkpoints.getOrDefault(month.atEndOfMonth(), running);
+            points.add(BalancePointDTO.builder().date(month.atEndOfMonth()).balance(offset.add(running)).build());
+        }
+        return points;
+    }
+
+    /**
+     * Regenera os checkpoints de um usuário a partir das transações (com as contas travadas).
+     */
+    public int rebuild(String userId) {
+        Integer rows = transactionTemplate.execute(status -> {
+            accountRepository.lockByUserId(userId);
+            checkpointRepository.deleteByUser(userId);
+            return checkpointRepository.rebuildFromTransactions(userId);
+        });
+        return rows != null ? rows : 0;
+    }
+
+    public int rebuildAll() {
+        int rows = 0;
+        for (String userId : accountRepository.findAllUserIds()) {
+            rows += rebuild(userId);
+        }
+        return rows;
+    }
+
+    // O checkpoint mais recente acumula todas as transações da conta
+    private BigDecimal totalFlow(Long accountId) {
+        return checkpointRepository.findFirstByAccountIdOrderByPeriodEndDesc(accountId)
+                .map(AccountBalanceCheckpointEntity::getFlow).orElse(BigDecimal.ZERO);
+    }
+
+    private BigDecimal flowAt(Long accountId, LocalDate date) {
+        LocalDate monthStart = date.withDayOfMonth(1);
+        BigDecimal beforeMonth = checkpointRepository
+                .findFirstByAccountIdAndPeriodEndLessThanOrderByPeriodEndDesc(accountId, monthStart)
+                .map(AccountBalanceCheckpointEntity::getFlow).orElse(BigDecimal.ZERO);
+        return beforeMonth.add(transactionRepository.sumFlow(accountId, monthStart, date));
+    }
+}
@@ -0,0 +1,272 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.ReconciliationMismatchDTO;
+import com.nickolss.backend.models.dtos.ReconciliationStatusDTO;
+import com.nickolss.backend.repositories.AccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reconciliação de saldos: recalcula o saldo de cada conta como opening_balance + soma das transações
+ * (agregação em SQL) e compara com accounts.balance, que é mantido por efeitos colaterais no FinanceService.
+ * Os usuários são divididos em chunks processados em paralelo no executor de jobs (limitado).
+ * Contas antigas sem saldo inicial registrado não têm saldo esperado: são listadas à parte e o reparo não mexe
+ * nelas. Registrar o saldo inicial delas é um passo separado ({@link #backfillOpeningBalances()}).
+ */
+@Service
+public class BalanceReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceReconciliationService.class);
+
+    private static final int MAX_SAMPLE_MISMATCHES = 100;
+
+    private static final int MAX_SAMPLE_UNKNOWN = 100;
+
+    // Reparo: trava as contas do chunk (ordem de id) para não cruzar com criações de transações em andamento.
+    // Só reportar não trava nada: o SELECT do saldo esperado já lê um snapshot só
+    private static final String LOCK_SQL =
+            "SELECT id FROM accounts WHERE user_id IN (:userIds) ORDER BY id FOR UPDATE";
+
+    // Contas criadas antes do opening_balance: o saldo inicial digitado não virou transação e não dá para saber qual era
+    private static final String UNKNOWN_OPENING_SQL =
+            "SELECT id FROM accounts WHERE user_id IN (:userIds) AND opening_balance IS NULL ORDER BY id";
+
+    private static final String EXPECTED_SQL =
+            "SELECT a.id, a.user_id, a.balance, a.opening_balance + COALESCE(s.net, 0) AS expected " +
+            "FROM accounts a LEFT JOIN (" +
+            "SELECT account_id, SUM(CASE WHEN type = 'income' THEN amount ELSE -amount END) AS net " +
+            "FROM transactions WHERE user_id IN (:userIds) GROUP BY account_id) s ON s.account_id = a.id " +
+            "WHERE a.user_id IN (:userIds) AND a.opening_balance IS NOT NULL";
+
+    private static final String REPAIR_SQL =
+            "UPDATE accounts SET balance = :expected, version = version + 1, updated_at = now() " +
+            "WHERE id = :id AND opening_balance IS NOT NULL";
+
+    // Passo manual: aceita o saldo atual das contas sem saldo inicial (o que não vem das transações vira saldo
+    // inicial). Roda depois das contas travadas, num statement novo que enxerga as transações já commitadas
+    private static final String LOCK_UNKNOWN_OPENING_SQL =
+            "SELECT id FROM accounts WHERE opening_balance IS NULL ORDER BY id FOR UPDATE";
+    private static final String BACKFILL_OPENING_SQL =
+            "UPDATE accounts a SET opening_balance = a.balance - COALESCE((" +
+            "SELECT SUM(CASE WHEN t.type = 'income' THEN t.amount ELSE -t.amount END) " +
+            "FROM transactions t WHERE t.account_id = a.id), 0) " +
+            "WHERE a.opening_balance IS NULL";
+
+    private final AccountRepository accountRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor batchJobExecutor;
+    private final int chunkSize;
+    private final boolean scheduledRepair;
+
+    private final AtomicReference<Run> currentRun = new AtomicReference<>();
+
+    public BalanceReconciliationService(AccountRepository accountRepository,
+                                        NamedParameterJdbcTemplate jdbcTemplate,
+                                        TransactionTemplate transactionTemplate,
+                                        ThreadPoolTaskExecutor batchJobExecutor,
+                                        @Value("${finance.reconciliation.chunk-size:200}") int chunkSize,
+                                        @Value("${finance.reconciliation.auto-repair:false}") boolean scheduledRepair) {
+        this.accountRepository = accountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchJobExecutor = batchJobExecutor;
+        this.chunkSize = chunkSize;
+        this.scheduledRepair = scheduledRepair;
+    }
+
+    @Scheduled(cron = "${finance.reconciliation.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        start(scheduledRepair);
+    }
+
+    /**
+     * Inicia uma reconciliação em background. Se já existe uma rodando, apenas retorna o status dela.
+     *
+     * @param repair se true, corrige os saldos divergentes; se false, só reporta
+     */
+    public ReconciliationStatusDTO start(boolean repair) {
+        Run previous = currentRun.get();
+        if (previous != null && previous.finishedAt == null) return previous.toDTO();
+
+        Run run = new Run(repair);
+        if (!currentRun.compareAndSet(previous, run)) return currentRun.get().toDTO();
+
+        try {
+            List<String> userIds = accountRepository.findAllUserIds();
+            List<List<String>> chunks = new ArrayList<>();
+            for (int i = 0; i < userIds.size(); i += chunkSize) {
+                chunks.add(userIds.subList(i, Math.min(i + chunkSize, userIds.size())));
+            }
+            run.totalUsers = userIds.size();
+            run.totalChunks = chunks.size();
+
+            List<CompletableFuture<Void>> futures = new ArrayList<>(chunks.size());
+            for (List<String> chunk : chunks) {
+                futures.add(CompletableFuture.runAsync(() -> processChunk(run, chunk), batchJobExecutor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .whenComplete((ignored, error) -> run.finish(error));
+        } catch (RuntimeException e) {
+            run.finish(e);
+        }
+        return run.toDTO();
+    }
+
+    /**
+     * Registra o saldo inicial das contas antigas que não têm um, derivado do saldo atual: a partir daí elas entram
+     * na reconciliação. Opt-in (endpoint de admin), depois de conferir a lista de contas sem saldo inicial.
+     */
+    public Map<String, Object> backfillOpeningBalances() {
+        long start = System.currentTimeMillis();
+        Integer backfilled = transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForList(LOCK_UNKNOWN_OPENING_SQL, Map.of(), Long.class);
+            return jdbcTemplate.update(BACKFILL_OPENING_SQL, Map.of());
+        });
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Saldo inicial registrado para {} contas antigas em {} ms", backfilled, elapsed);
+        return Map.of("backfilled", backfilled != null ? backfilled : 0, "elapsedMs", elapsed);
+    }
+
+    public ReconciliationStatusDTO getStatus() {
+        Run run = currentRun.get();
+        return run != null ? run.toDTO() : ReconciliationStatusDTO.builder().status("idle").build();
+    }
+
+    private void processChunk(Run run, List<String> userIds) {
+        SqlParameterSource params = new MapSqlParameterSource("userIds", userIds);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (run.repair) jdbcTemplate.queryForList(LOCK_SQL, params, Long.class);
+            List<Long> unknownOpening = jdbcTemplate.queryForList(UNKNOWN_OPENING_SQL, params, Long.class);
+
+            List<ReconciliationMismatchDTO> mismatches = new ArrayList<>();
+            AtomicLong checked = new AtomicLong();
+            jdbcTemplate.query(EXPECTED_SQL, params, rs -> {
+                checked.incrementAndGet();
+                BigDecimal stored = rs.getBigDecimal("balance");
+                BigDecimal expected = rs.getBigDecimal("expected");
+                if (stored.compareTo(expected) != 0) {
+                    mismatches.add(ReconciliationMismatchDTO.builder()
+                            .accountId(rs.getLong("id")).userId(rs.getString("user_id"))
+                            .storedBalance(stored).expectedBalance(expected).build());
+                }
+            });
+
+            if (run.repair && !mismatches.isEmpty()) {
+                SqlParameterSource[] batch = mismatches.stream()
+                        .map(m -> new MapSqlParameterSource("expected", m.getExpectedBalance()).addValue("id", m.getAccountId()))
+                        .toArray(SqlParameterSource[]::new);
+                jdbcTemplate.batchUpdate(REPAIR_SQL, batch);
+                run.repaired.addAndGet(mismatches.size());
+            }
+
+            run.accountsChecked.addAndGet(checked.get());
+            run.mismatches.addAndGet(mismatches.size());
+            run.addSamples(mismatches);
+            run.addUnknownOpening(unknownOpening);
+        });
+
+        run.processedUsers.addAndGet(userIds.size());
+        run.processedChunks.incrementAndGet();
+    }
+
+    // Estado mutável de uma execução, atualizado pelas threads do executor
+    private static class Run {
+        private final boolean repair;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private volatile int totalUsers;
+        private volatile int totalChunks;
+        private final AtomicInteger processedUsers = new AtomicInteger();
+        private final AtomicInteger processedChunks = new AtomicInteger();
+        private final AtomicLong accountsChecked = new AtomicLong();
+        private final AtomicLong mismatches = new AtomicLong();
+        private final AtomicLong repaired = new AtomicLong();
+        private final List<ReconciliationMismatchDTO> samples = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicLong unknownOpening = new AtomicLong();
+        private final List<Long> unknownOpeningSample = Collections.synchronizedList(new ArrayList<>());
+        private volatile LocalDateTime finishedAt;
+        private volatile long elapsedNanos;
+        private volatile String error;
+
+        Run(boolean repair) {
+            this.repair = repair;
+        }
+
+        void addSamples(List<ReconciliationMismatchDTO> found) {
+            synchronized (samples) {
+                for (ReconciliationMismatchDTO m : found) {
+                    if (samples.size() >= MAX_SAMPLE_MISMATCHES) break;
+                    samples.add(m);
+                }
+            }
+        }
+
+        void addUnknownOpening(List<Long> accountIds) {
+            unknownOpening.addAndGet(accountIds.size());
+            synchronized (unknownOpeningSample) {
+                for (Long id : accountIds) {
+                    if (unknownOpeningSample.size() >= MAX_SAMPLE_UNKNOWN) break;
+                    unknownOpeningSample.add(id);
+                }
+            }
+        }
+
+        void finish(Throwable failure) {
+            elapsedNanos = System.nanoTime() - startNanos;
+            if (failure != null) {
+                error = failure.getMessage();
+                log.error("Reconciliação de saldos falhou", failure);
+            } else {
+                log.info("Reconciliação de saldos: {} contas verificadas, {} divergentes, {} corrigidas, " +
+                                "{} sem saldo inicial em {} ms", accountsChecked.get(), mismatches.get(), repaired.get(),
+                        unknownOpening.get(), elapsedNanos / 1_000_000);
+            }
+            finishedAt = LocalDateTime.now();
+        }
+
+        ReconciliationStatusDTO toDTO() {
+            long nanos = finishedAt != null ? elapsedNanos : System.nanoTime() - startNanos;
+            double seconds = nanos / 1_000_000_000.0;
+            String status = finishedAt == null ? "running" : error != null ? "failed" : "completed";
+            List<ReconciliationMismatchDTO> sample;
+            synchronized (samples) {
+                sample = new ArrayList<>(samples);
+            }
+            List<Long> unknownSample;
+            synchronized (unknownOpeningSample) {
+                unknownSample = new ArrayList<>(unknownOpeningSample);
+            }
+            return ReconciliationStatusDTO.builder()
+                    .status(status).repair(repair).startedAt(startedAt).finishedAt(finishedAt)
+                    .totalUsers(totalUsers).processedUsers(processedUsers.get())
+                    .totalChunks(totalChunks).processedChunks(processedChunks.get())
+                    .accountsChecked(accountsChecked.get()).mismatches(mismatches.get()).repaired(repaired.get())
+                    .elapsedMs(nanos / 1_000_000)
+                    .accountsPerSecond(seconds > 0 ? accountsChecked.get() / seconds : 0.0)
+                    .unknownOpening(unknownOpening.get()).sampleUnknownOpening(unknownSample)
+                    .error(error).sampleMismatches(sample)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.OrphanSweepResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Remoção em cascata dos dados filhos de hábitos e contas, direto em SQL (nada é carregado no contexto de persistência).
+ * O pai é removido antes, então novos filhos já são recusados; os filhos saem em chunks, cada um na sua transação,
+ * para os locks durarem pouco mesmo em históricos grandes. Se algo falhar no meio, o que sobrar vira órfão
+ * e é removido pela varredura (sweepOrphans).
+ */
+@Service
+public class CascadeDeleteService {
+
+    private static final Logger log = LoggerFactory.getLogger(CascadeDeleteService.class);
+
+    // Filho → condição de órfão (pai inexistente), usada pela varredura por faixas de id
+    private static final Map<String, String> ORPHAN_CONDITIONS = new LinkedHashMap<>();
+
+    static {
+        ORPHAN_CONDITIONS.put("habit_entries", "NOT EXISTS (SELECT 1 FROM habits p WHERE p.id = c.habit_id)");
+        ORPHAN_CONDITIONS.put("habit_completion_bitsets", "NOT EXISTS (SELECT 1 FROM habits p WHERE p.id = c.habit_id)");
+        ORPHAN_CONDITIONS.put("recurring_transactions", "NOT EXISTS (SELECT 1 FROM accounts p WHERE p.id = c.account_id)");
+        ORPHAN_CONDITIONS.put("transactions", "NOT EXISTS (SELECT 1 FROM accounts p WHERE p.id = c.account_id)");
+        ORPHAN_CONDITIONS.put("finance_monthly_rollups", "NOT EXISTS (SELECT 1 FROM accounts p WHERE p.id = c.account_id)");
+        ORPHAN_CONDITIONS.put("account_balance_checkpoints", "NOT EXISTS (SELECT 1 FROM accounts p WHERE p.id = c.account_id)");
+        ORPHAN_CONDITIONS.put("note_revisions", "NOT EXISTS (SELECT 1 FROM notes p WHERE p.id = c.note_id)");
+    }
+
+    // A outra perna continua valendo na conta dela (o dinheiro entrou/saiu), só deixa de ser transferência
+    private static final String UNLINK_TRANSFERS_SQL =
+            "UPDATE transactions o SET transfer_id = NULL FROM transactions t " +
+            "WHERE t.user_id = ? AND t.account_id = ? AND t.transfer_id IS NOT NULL " +
+            "AND o.transfer_id = t.transfer_id AND o.id <> t.id";
+
+    private static final String UNLINK_ORPHAN_TRANSFERS_SQL =
+            "UPDATE transactions c SET transfer_id = NULL WHERE c.id >= ? AND c.id < ? AND c.transfer_id IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM transactions o WHERE o.transfer_id = c.transfer_id AND o.id <> c.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+
+    public CascadeDeleteService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                @Value("${maintenance.delete.chunk-size:5000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    // Entries e bitsets do hábito já removido
+    public long deleteHabitChildren(String userId, Long habitId) {
+        long entries = deleteInChunks(
+                "DELETE FROM habit_entries WHERE id IN " +
+                "(SELECT id FROM habit_entries WHERE user_id = ? AND habit_id = ? LIMIT ?)", userId, habitId);
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update("DELETE FROM habit_completion_bitsets WHERE habit_id = ?", habitId));
+        return entries;
+    }
+
+    /**
+     * Dados da conta já removida. Regras recorrentes saem primeiro para o job não gerar ocorrências novas;
+     * rollups e checkpoints são por conta, então basta apagá-los junto (os resumos das outras contas não mudam).
+     */
+    public long deleteAccountChildren(String userId, Long accountId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM recurring_transactions WHERE user_id = ? AND account_id = ?", userId, accountId);
+            jdbcTemplate.update(UNLINK_TRANSFERS_SQL, userId, accountId);
+        });
+        long transactions = deleteInChunks(
+                "DELETE FROM transactions WHERE id IN " +
+                "(SELECT id FROM transactions WHERE user_id = ? AND account_id = ? LIMIT ?)", userId, accountId);
+        deleteInChunks(
+                "DELETE FROM finance_monthly_rollups WHERE id IN " +
+                "(SELECT id FROM finance_monthly_rollups WHERE user_id = ? AND account_id = ? LIMIT ?)", userId, accountId);
+        deleteInChunks(
+                "DELETE FROM account_balance_checkpoints WHERE id IN " +
+                "(SELECT id FROM account_balance_checkpoints WHERE account_id = ? LIMIT ?)", accountId);
+        return transactions;
+    }
+
+    /**
+     * Remove os filhos cujo pai não existe mais (histórico de antes da cascata, ou cascata interrompida).
+     * Varre cada tabela em faixas de id pela PK: cada chunk é limitado e não reprocessa faixas já vistas.
+     */
+    @Scheduled(cron = "${maintenance.orphans.cron:0 0 4 * * SUN}")
+    public OrphanSweepResultDTO sweepOrphans() {
+        if (!sweeping.compareAndSet(false, true)) {
+            throw new IllegalStateException("Varredura de órfãos já em andamento");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Map<String, Long> deleted = new LinkedHashMap<>();
+            ORPHAN_CONDITIONS.forEach((table, condition) -> deleted.put(table, sweepByIdRange(table,
+                    "DELETE FROM " + table + " c WHERE c.id >= ? AND c.id < ? AND " + condition)));
+            long unlinked = sweepByIdRange("transactions", UNLINK_ORPHAN_TRANSFERS_SQL);
+
+            OrphanSweepResultDTO result = OrphanSweepResultDTO.builder()
+                    .deleted(deleted)
+                    .unlinkedTransfers(unlinked)
+                    .elapsedMs(System.currentTimeMillis() - start)
+                    .build();
+            log.info("Varredura de órfãos: removidos {}, transferências desvinculadas {}, {} ms",
+                    deleted, unlinked, result.getElapsedMs());
+            return result;
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    // Repete o DELETE ... LIMIT até sobrar menos que um chunk; o último parâmetro é sempre o tamanho do chunk
+    private long deleteInChunks(String sql, Object... args) {
+        Object[] params = new Object[args.length + 1];
+        System.arraycopy(args, 0, params, 0, args.length);
+        params[args.length] = chunkSize;
+
+        long total = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update(sql, params));
+            total += deleted;
+            if (deleted < chunkSize) return total;
+        }
+    }
+
+    private long sweepByIdRange(String table, String sql) {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT min(id) AS lo, max(id) AS hi FROM " + table);
+        if (bounds.get("lo") == null) return 0;
+        long lo = ((Number) bounds.get("lo")).longValue();
+        long hi = ((Number) bounds.get("hi")).longValue();
+
+        long total = 0;
+        for (long from = lo; from <= hi; from += chunkSize) {
+            long rangeStart = from;
+            long rangeEnd = from + chunkSize;
+            Integer affected = transactionTemplate.execute(status -> jdbcTemplate.update(sql, rangeStart, rangeEnd));
+            total += affected;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,236 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.CategorizationRuleEntity;
+import com.nickolss.backend.models.dtos.CategorizationRuleDTO;
+import com.nickolss.backend.repositories.AccountRepository;
+import com.nickolss.backend.repositories.CategorizationRuleRepository;
+import com.nickolss.backend.utils.CategorizationEngine;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Regras de categorização automática por usuário.
+ * As regras são compiladas em um CategorizationEngine e guardadas num cache LRU por usuário;
+ * qualquer alteração de regra invalida a entrada do usuário.
+ */
+@Service
+public class CategorizationService {
+
+    private static final int CACHE_MAX_USERS = 1_000;
+    private static final int MAX_RULES_PER_USER = 10_000;
+    private static final int RECATEGORIZE_BATCH_SIZE = 1_000;
+    private static final Set<String> MATCH_TYPES = Set.of(
+            CategorizationEngine.CONTAINS, CategorizationEngine.PREFIX, CategorizationEngine.REGEX);
+
+    // Pernas de transferência ficam fora: a categoria delas é da transferência, não do extrato
+    private static final String SELECT_BATCH_SQL =
+            "SELECT id, account_id, description, amount, type, category, date FROM transactions " +
+            "WHERE user_id = ? AND id > ? AND transfer_id IS NULL %s ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String UPDATE_SQL = "UPDATE transactions SET category = ? WHERE id = ?";
+
+    private final CategorizationRuleRepository ruleRepository;
+    private final AccountRepository accountRepository;
+    private final FinanceRollupService rollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, CategorizationEngine> engines = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CategorizationEngine> eldest) {
+                    return size() > CACHE_MAX_USERS;
+                }
+            });
+    // Incrementado a cada invalidação: um engine montado antes de uma alteração não entra no cache
+    private final AtomicLong generation = new AtomicLong();
+
+    public CategorizationService(CategorizationRuleRepository ruleRepository, AccountRepository accountRepository,
+                                 FinanceRollupService rollupService, JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate) {
+        this.ruleRepository = ruleRepository;
+        this.accountRepository = accountRepository;
+        this.rollupService = rollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // --- CRUD ---
+    public List<CategorizationRuleDTO> getRules(String userId) {
+        return ruleRepository.findByUserIdOrderByPriorityAscIdAsc(userId)
+                .stream().map(this::toDTO).collect(Collectors.toList());
+    }
+
+    public CategorizationRuleDTO createRule(String userId, CategorizationRuleDTO dto) {
+        if (ruleRepository.countByUserId(userId) >= MAX_RULES_PER_USER) {
+            throw new IllegalArgumentException("Limite de " + MAX_RULES_PER_USER + " regras atingido");
+        }
+        CategorizationRuleEntity entity = new CategorizationRuleEntity();
+        entity.setUserId(userId);
+        entity.setMatchType(dto.getMatchType() != null ? dto.getMatchType() : CategorizationEngine.CONTAINS);
+        entity.setPattern(dto.getPattern());
+        entity.setCategory(dto.getCategory());
+        entity.setMinAmount(dto.getMinAmount());
+        entity.setMaxAmount(dto.getMaxAmount());
+        entity.setTransactionType(dto.getTransactionType());
+        entity.setPriority(dto.getPriority() != null ? dto.getPriority() : 100);
+        entity.setUpdatedAt(LocalDateTime.now());
+        validate(entity);
+
+        CategorizationRuleDTO saved = toDTO(ruleRepository.save(entity));
+        invalidate(userId);
+        return saved;
+    }
+
+    public CategorizationRuleDTO updateRule(String userId, Long ruleId, CategorizationRuleDTO updates) {
+        CategorizationRuleEntity entity = ruleRepository.findByIdAndUserId(ruleId, userId)
+                .orElseThrow(() -> new RuntimeException("Regra não encontrada"));
+
+        if (updates.getMatchType() != null) entity.setMatchType(updates.getMatchType());
+        if (updates.getPattern() != null) entity.setPattern(updates.getPattern());
+        if (updates.getCategory() != null) entity.setCategory(updates.getCategory());
+        if (updates.getMinAmount() != null) entity.setMinAmount(updates.getMinAmount());
+        if (updates.getMaxAmount() != null) entity.setMaxAmount(updates.getMaxAmount());
+        if (updates.getTransactionType() != null) entity.setTransactionType(updates.getTransactionType());
+        if (updates.getPriority() != null) entity.setPriority(updates.getPriority());
+        entity.setUpdatedAt(LocalDateTime.now());
+        validate(entity);
+
+        CategorizationRuleDTO saved = toDTO(ruleRepository.save(entity));
+        invalidate(userId);
+        return saved;
+    }
+
+    public void deleteRule(String userId, Long ruleId) {
+        CategorizationRuleEntity entity = ruleRepository.findByIdAndUserId(ruleId, userId)
+                .orElseThrow(() -> new RuntimeException("Regra não encontrada"));
+        ruleRepository.delete(entity);
+        invalidate(userId);
+    }
+
+    // --- MATCHING ---
+
+    // Matcher compilado do usuário (montado na primeira chamada e reaproveitado até uma regra mudar)
+    public CategorizationEngine engineFor(String userId) {
+        CategorizationEngine engine = engines.get(userId);
+        if (engine == null) {
+            long loadedAt = generation.get();
+            engine = new CategorizationEngine(ruleRepository.findByUserIdOrderByPriorityAscIdAsc(userId)
+                    .stream().map(this::toRule).toList());
+            synchronized (engines) {
+                if (generation.get() == loadedAt) engines.put(userId, engine);
+            }
+        }
+        return engine;
+    }
+
+    private void invalidate(String userId) {
+        synchronized (engines) {
+            generation.incrementAndGet();
+            engines.remove(userId);
+        }
+    }
+
+    public String categorize(String userId, String description, BigDecimal amount, String type) {
+        return engineFor(userId).categorize(description, amount, type);
+    }
+
+    /**
+     * Reaplica as regras nas transações existentes, em lotes de id (keyset) com uma transação por lote.
+     * Quando a categoria muda, o rollup mensal é movido da categoria antiga para a nova.
+     *
+     * @param overwrite se false, só preenche transações sem categoria
+     */
+    public Map<String, Object> recategorize(String userId, boolean overwrite) {
+        CategorizationEngine engine = engineFor(userId);
+        String sql = String.format(SELECT_BATCH_SQL, overwrite ? "" : "AND (category IS NULL OR category = '')");
+        long start = System.nanoTime();
+        long lastId = 0;
+        int scanned = 0;
+        int updated = 0;
+
+        while (true) {
+            final long afterId = lastId;
+            long[] batch = transactionTemplate.execute(status -> {
+                // Contas primeiro, na mesma ordem dos outros escritores do usuário (evita deadlock)
+                accountRepository.lockByUserId(userId);
+                List<Row> rows = jdbcTemplate.query(sql, (rs, rowNum) -> new Row(
+                        rs.getLong("id"), rs.getLong("account_id"), rs.getString("description"),
+                        rs.getBigDecimal("amount"), rs.getString("type"), rs.getString("category"),
+                        rs.getDate("date").toLocalDate()), userId, afterId, RECATEGORIZE_BATCH_SIZE);
+                if (rows.isEmpty()) return null;
+
+                List<Object[]> changes = new ArrayList<>();
+                List<FinanceRollupService.RollupDelta> deltas = new ArrayList<>();
+                for (Row row : rows) {
+                    String category = engine.categorize(row.description(), row.amount(), row.type());
+                    if (category == null || category.equals(row.category())) continue;
+                    changes.add(new Object[]{category, row.id()});
+                    deltas.add(FinanceRollupService.RollupDelta.removed(
+                            row.accountId(), row.date(), row.type(), row.category(), row.amount()));
+                    deltas.add(FinanceRollupService.RollupDelta.added(
+                            row.accountId(), row.date(), row.type(), category, row.amount()));
+                }
+                if (!changes.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_SQL, changes);
+                    rollupService.apply(userId, deltas);
+                }
+                return new long[]{rows.size(), changes.size(), rows.get(rows.size() - 1).id()};
+            });
+            if (batch == null) break;
+            scanned += (int) batch[0];
+            updated += (int) batch[1];
+            lastId = batch[2];
+        }
+
+        return Map.of("scanned", scanned, "updated", updated, "rules", engine.size(),
+                "durationMs", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void validate(CategorizationRuleEntity rule) {
+        if (!MATCH_TYPES.contains(rule.getMatchType())) {
+            throw new IllegalArgumentException("matchType deve ser contains, prefix ou regex");
+        }
+        if (rule.getPattern() == null || rule.getPattern().isBlank()) throw new IllegalArgumentException("Padrão obrigatório");
+        if (rule.getCategory() == null || rule.getCategory().isBlank()) throw new IllegalArgumentException("Categoria obrigatória");
+        if (rule.getTransactionType() != null && !"income".equals(rule.getTransactionType())
+                && !"expense".equals(rule.getTransactionType())) {
+            throw new IllegalArgumentException("Tipo deve ser income ou expense");
+        }
+        if (rule.getMinAmount() != null && rule.getMaxAmount() != null
+                && rule.getMinAmount().compareTo(rule.getMaxAmount()) > 0) {
+            throw new IllegalArgumentException("Valor mínimo maior que o máximo");
+        }
+        if (CategorizationEngine.REGEX.equals(rule.getMatchType())) CategorizationEngine.compileRegex(rule.getPattern());
+    }
+
+    private CategorizationEngine.Rule toRule(CategorizationRuleEntity e) {
+        return new CategorizationEngine.Rule(e.getId(), e.getMatchType(), e.getPattern(), e.getCategory(),
+                e.getMinAmount(), e.getMaxAmount(), e.getTransactionType(), Objects.requireNonNullElse(e.getPriority(), 100));
+    }
+
+    private CategorizationRuleDTO toDTO(CategorizationRuleEntity e) {
+        return CategorizationRuleDTO.builder()
+                .id(e.getId()).matchType(e.getMatchType()).pattern(e.getPattern()).category(e.getCategory())
+                .minAmount(e.getMinAmount()).maxAmount(e.getMaxAmount())
+                .transactionType(e.getTransactionType()).priority(e.getPriority()).build();
+    }
+
+    private record Row(long id, long accountId, String description, BigDecimal amount, String type,
+                       String category, LocalDate date) {
+    }
+}
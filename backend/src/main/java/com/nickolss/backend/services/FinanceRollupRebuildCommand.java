@@ -0,0 +1,40 @@
+package com.nickolss.backend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconstrói os dados derivados de transações de todos os usuários na subida da aplicação.
+ * Uso: java -jar app.jar --rebuild-rollups (resumos mensais) e/ou --rebuild-checkpoints (saldos históricos).
+ * Necessário uma vez após o deploy, para o histórico existente.
+ */
+@Component
+public class FinanceRollupRebuildCommand implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FinanceRollupRebuildCommand.class);
+
+    private final FinanceRollupService rollupService;
+    private final BalanceCheckpointService checkpointService;
+
+    public FinanceRollupRebuildCommand(FinanceRollupService rollupService, BalanceCheckpointService checkpointService) {
+        this.rollupService = rollupService;
+        this.checkpointService = checkpointService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption("rebuild-rollups")) {
+            long start = System.currentTimeMillis();
+            int rows = rollupService.rebuildAll();
+            log.info("Rollups financeiros reconstruídos: {} linhas em {} ms", rows, System.currentTimeMillis() - start);
+        }
+        if (args.containsOption("rebuild-checkpoints")) {
+            long start = System.currentTimeMillis();
+            int rows = checkpointService.rebuildAll();
+            log.info("Checkpoints de saldo reconstruídos: {} linhas em {} ms", rows, System.currentTimeMillis() - start);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.FinanceSummaryDTO;
+import com.nickolss.backend.models.projections.FinanceSummaryRow;
+import com.nickolss.backend.repositories.AccountRepository;
+import com.nickolss.backend.repositories.FinanceRollupRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Totais mensais de receitas/despesas por conta e categoria (tabela finance_monthly_rollups).
+ * Os métodos de escrita rodam dentro da transação de quem altera as transações (FinanceService / import),
+ * então resumo e transações nunca ficam divergentes.
+ */
+@Service
+public class FinanceRollupService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String UPSERT_SQL = "INSERT INTO finance_monthly_rollups " +
+            "(user_id, account_id, month, type, category, total, tx_count) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, account_id, month, type, category) DO UPDATE SET " +
+            "total = finance_monthly_rollups.total + EXCLUDED.total, " +
+            "tx_count = finance_monthly_rollups.tx_count + EXCLUDED.tx_count";
+
+    // Ordem fixa das chaves: lotes concorrentes travam as linhas na mesma ordem (sem deadlock)
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator
+            .comparing(RollupKey::accountId)
+            .thenComparing(RollupKey::month)
+            .thenComparing(RollupKey::type)
+            .thenComparing(RollupKey::category);
+
+    private final FinanceRollupRepository rollupRepository;
+    private final AccountRepository accountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public FinanceRollupService(FinanceRollupRepository rollupRepository, AccountRepository accountRepository,
+                                JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.rollupRepository = rollupRepository;
+        this.accountRepository = accountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Efeito de uma transação no resumo. Para remover uma transação use count = -1 e o valor negado.
+     */
+    public record RollupDelta(Long accountId, LocalDate date, String type, String category, BigDecimal amount, int count) {
+
+        public static RollupDelta added(Long accountId, LocalDate date, String type, String category, BigDecimal amount) {
+            return new RollupDelta(accountId, date, type, category, amount, 1);
+        }
+
+        public static RollupDelta removed(Long accountId, LocalDate date, String type, String category, BigDecimal amount) {
+            return new RollupDelta(accountId, date, type, category, amount.negate(), -1);
+        }
+    }
+
+    private record RollupKey(Long accountId, LocalDate month, String type, String category) {
+    }
+
+    private record RollupValue(BigDecimal total, long count) {
+        RollupValue plus(RollupValue other) {
+            return new RollupValue(total.add(other.total), count + other.count);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(String userId, Collection<RollupDelta> deltas) {
+        // Agrega por chave antes de ir ao banco: um import de 10k linhas vira poucas centenas de upserts
+        Map<RollupKey, RollupValue> aggregated = new TreeMap<>(KEY_ORDER);
+        for (RollupDelta delta : deltas) {
+            RollupKey key = new RollupKey(delta.accountId(), delta.date().withDayOfMonth(1), delta.type(),
+                    delta.category() != null ? delta.category() : "");
+            aggregated.merge(key, new RollupValue(delta.amount(), delta.count()), RollupValue::plus);
+        }
+        aggregated.values().removeIf(v -> v.count() == 0 && v.total().signum() == 0);
+        if (aggregated.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new ArrayList<>(aggregated.entrySet()), BATCH_SIZE, (ps, entry) -> {
+            ps.setString(1, userId);
+            ps.setLong(2, entry.getKey().accountId());
+            ps.setDate(3, Date.valueOf(entry.getKey().month()));
+            ps.setString(4, entry.getKey().type());
+            ps.setString(5, entry.getKey().category());
+            ps.setBigDecimal(6, entry.getValue().total());
+            ps.setLong(7, entry.getValue().count());
+        });
+    }
+
+    /**
+     * Resumo por período lendo só a tabela de rollup: custo proporcional ao número de meses, não de transações.
+     *
+     * @param period "month" ou "year"
+     */
+    public List<FinanceSummaryDTO> getSummary(String userId, Long accountId, String period,
+                                              LocalDate startDate, LocalDate endDate) {
+        boolean yearly = "year".equals(period);
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusYears(1).plusDays(1);
+
+        LocalDate startMonth = yearly ? start.withDayOfYear(1) : start.withDayOfMonth(1);
+        LocalDate endMonth = end.withDayOfMonth(1);
+
+        List<FinanceSummaryRow> rows = accountId != null
+                ? rollupRepository.summarizeAccount(userId, accountId, startMonth, endMonth)
+                : rollupRepository.summarize(userId, startMonth, endMonth);
+
+        // Linhas já vêm ordenadas por mês; no anual apenas somamos os meses de cada ano
+        Map<String, FinanceSummaryDTO> result = new LinkedHashMap<>();
+        for (FinanceSummaryRow row : rows) {
+            String label = yearly ? String.valueOf(row.getMonth().getYear()) : row.getMonth().toString().substring(0, 7);
+            String category = row.getCategory().isEmpty() ? null : row.getCategory();
+            FinanceSummaryDTO dto = result.computeIfAbsent(label + "|" + row.getType() + "|" + row.getCategory(),
+                    k -> FinanceSummaryDTO.builder().period(label).type(row.getType()).category(category)
+                            .total(BigDecimal.ZERO).count(0L).build());
+            dto.setTotal(dto.getTotal().add(row.getTotal()));
+            dto.setCount(dto.getCount() + row.getCount());
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * Regenera o resumo de um usuário a partir de transactions.
+     * Trava as contas do usuário antes, para não cruzar com criações/edições de transações em andamento.
+     */
+    public int rebuild(String userId) {
+        Integer rows = transactionTemplate.execute(status -> {
+            accountRepository.lockByUserId(userId);
+            rollupRepository.deleteByUser(userId);
+            return rollupRepository.rebuildFromTransactions(userId);
+        });
+        return rows != null ? rows : 0;
+    }
+
+    // Cada usuário é reconstruído na sua própria transação (locks curtos)
+    public int rebuildAll() {
+        int rows = 0;
+        for (String userId : accountRepository.findAllUserIds()) {
+            rows += rebuild(userId);
+        }
+        return rows;
+    }
+}
@@ -3,26 +3,54 @@ package com.nickolss.backend.services;
 import com.nickolss.backend.models.AccountEntity;
 import com.nickolss.backend.models.TransactionEntity;
 import com.nickolss.backend.models.dtos.AccountDTO;
+import com.nickolss.backend.models.dtos.CursorPageDTO;
 import com.nickolss.backend.models.dtos.TransactionDTO;
+import com.nickolss.backend.models.dtos.TransferDTO;
 import com.nickolss.backend.repositories.AccountRepository;
 import com.nickolss.backend.repositories.TransactionRepository;
+import com.nickolss.backend.repositories.TransactionSpecifications;
+import com.nickolss.backend.utils.CursorUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class FinanceService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final String TRANSFER_CATEGORY = "Transferência";
+
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
-
-    public FinanceService(AccountRepository accountRepository, TransactionRepository transactionRepository) {
+    private final FinanceRollupService rollupService;
+    private final BalanceCheckpointService checkpointService;
+    private final CategorizationService categorizationService;
+    private final CascadeDeleteService cascadeDeleteService;
+
+    public FinanceService(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                          FinanceRollupService rollupService, BalanceCheckpointService checkpointService,
+                          CategorizationService categorizationService, CascadeDeleteService cascadeDeleteService) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
+        this.rollupService = rollupService;
+        this.checkpointService = checkpointService;
+        this.categorizationService = categorizationService;
+        this.cascadeDeleteService = cascadeDeleteService;
     }
 
     // --- ACCOUNT METHODS ---
@@ -37,6 +65,7 @@ public class FinanceService {
         entity.setName(dto.getName());
         entity.setType(dto.getType());
         entity.setBalance(dto.getBalance() != null ? dto.getBalance() : BigDecimal.ZERO);
+        entity.setOpeningBalance(entity.getBalance());
         entity.setBank(dto.getBank());
         entity.setUpdatedAt(LocalDateTime.now());
 
@@ -50,7 +79,18 @@ public class FinanceService {
         if (updates.getName() != null) entity.setName(updates.getName());
         if (updates.getType() != null) entity.setType(updates.getType());
         if (updates.getBank() != null) entity.setBank(updates.getBank());
-        if (updates.getBalance() != null) entity.setBalance(updates.getBalance());
+        if (updates.getBalance() != null) {
+            // Edição manual de saldo: se o cliente enviou a versão que leu, ela precisa ser a atual.
+            // Sem versão, o @Version ainda protege a janela entre a leitura e o save.
+            if (updates.getVersion() != null && !updates.getVersion().equals(entity.getVersion())) {
+                throw new OptimisticLockingFailureException("O saldo da conta foi alterado por outra operação");
+            }
+            // O ajuste manual entra no saldo inicial, para a reconciliação não desfazê-lo
+            if (entity.getOpeningBalance() != null) {
+                entity.setOpeningBalance(entity.getOpeningBalance().add(updates.getBalance().subtract(entity.getBalance())));
+            }
+            entity.setBalance(updates.getBalance());
+        }
 
         entity.setUpdatedAt(LocalDateTime.now());
         return toAccountDTO(accountRepository.save(entity));
@@ -59,15 +99,65 @@ public class FinanceService {
     public void deleteAccount(String userId, Long accountId) {
         AccountEntity entity = accountRepository.findByIdAndUserId(accountId, userId)
                 .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+        // Conta primeiro (novas transações passam a falhar no saldo), depois os dados dela em chunks
         accountRepository.delete(entity);
+        cascadeDeleteService.deleteAccountChildren(userId, accountId);
     }
 
     // --- TRANSACTION METHODS ---
     public List<TransactionDTO> getTransactions(String userId, Long accountId) {
-        return transactionRepository.findTransactions(userId, accountId)
+        Specification<TransactionEntity> spec = TransactionSpecifications.byUser(userId);
+        if (accountId != null) spec = spec.and(TransactionSpecifications.byAccount(accountId));
+
+        return transactionRepository.findAll(spec, Sort.by(Sort.Direction.DESC, "date", "id"))
                 .stream().map(this::toTransactionDTO).collect(Collectors.toList());
     }
 
+    /**
+     * Listagem paginada por cursor (keyset em date, id).
+     * Busca "limit + 1" linhas para saber se existe próxima página sem precisar de COUNT.
+     */
+    public CursorPageDTO<TransactionDTO> getTransactionsPage(String userId, Long accountId, String type, String category,
+                                                             LocalDate startDate, LocalDate endDate,
+                                                             String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        Specification<TransactionEntity> spec = TransactionSpecifications.byUser(userId);
+        if (accountId != null) spec = spec.and(TransactionSpecifications.byAccount(accountId));
+        if (type != null) spec = spec.and(TransactionSpecifications.byType(type));
+        if (category != null) spec = spec.and(TransactionSpecifications.byCategory(category));
+        if (startDate != null) spec = spec.and(TransactionSpecifications.dateFrom(startDate));
+        if (endDate != null) spec = spec.and(TransactionSpecifications.dateTo(endDate));
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorUtils.decode(cursor, 2);
+            try {
+                spec = spec.and(TransactionSpecifications.after(LocalDate.parse(parts[0]), Long.parseLong(parts[1])));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+        }
+
+        List<TransactionEntity> rows = transactionRepository.findBy(spec, q -> q
+                .sortBy(Sort.by(Sort.Direction.DESC, "date", "id"))
+                .limit(pageSize + 1)
+                .all());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<TransactionEntity> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            TransactionEntity last = page.get(page.size() - 1);
+            nextCursor = CursorUtils.encode(last.getDate(), last.getId());
+        }
+
+        return CursorPageDTO.<TransactionDTO>builder()
+                .items(page.stream().map(this::toTransactionDTO).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
     @Transactional // Garante atomicidade: cria transação E atualiza saldo ou falha tudo
     public TransactionDTO createTransaction(String userId, TransactionDTO dto) {
         // 1. Criar a transação
@@ -77,25 +167,37 @@ public class FinanceService {
         entity.setDescription(dto.getDescription());
         entity.setAmount(dto.getAmount());
         entity.setType(dto.getType());
-        entity.setCategory(dto.getCategory());
+        // Sem categoria informada: aplica as regras automáticas do usuário
+        entity.setCategory(dto.getCategory() != null ? dto.getCategory()
+                : categorizationService.categorize(userId, dto.getDescription(), dto.getAmount(), dto.getType()));
         entity.setDate(dto.getDate());
 
         TransactionEntity saved = transactionRepository.save(entity);
 
         // 2. Atualizar saldo da conta (Side effect)
-        updateAccountBalance(userId, dto.getAccountId(), dto.getAmount(), dto.getType());
+        applyBalanceDelta(userId, dto.getAccountId(), signedAmount(dto.getAmount(), dto.getType()));
+
+        // 3. Atualizar resumo mensal e checkpoints de saldo
+        rollupService.apply(userId, List.of(addedRollup(saved)));
+        checkpointService.apply(userId, List.of(flow(saved, BigDecimal.ONE)));
 
         return toTransactionDTO(saved);
     }
 
     @Transactional
     public TransactionDTO updateTransaction(String userId, Long transactionId, TransactionDTO updates) {
-        // 1. Buscar transação antiga para reverter saldo
+        // Perna de transferência: a edição vale para o par inteiro
+        Optional<String> transferId = transactionRepository.findTransferId(transactionId, userId);
+        if (transferId.isPresent()) return updateTransferLeg(userId, transferId.get(), transactionId, updates);
+
+        // 1. Buscar transação antiga para calcular o impacto anterior no saldo
         TransactionEntity entity = transactionRepository.findByIdAndUserId(transactionId, userId)
                 .orElseThrow(() -> new RuntimeException("Transação não encontrada"));
 
-        // Reverter impacto da transação antiga
-        revertAccountBalance(userId, entity.getAccountId(), entity.getAmount(), entity.getType());
+        Long oldAccountId = entity.getAccountId();
+        BigDecimal oldEffect = signedAmount(entity.getAmount(), entity.getType());
+        FinanceRollupService.RollupDelta oldRollup = removedRollup(entity);
+        BalanceCheckpointService.FlowDelta oldFlow = flow(entity, BigDecimal.ONE.negate());
 
         // 2. Atualizar dados
         if (updates.getDescription() != null) entity.setDescription(updates.getDescription());
@@ -107,60 +209,245 @@ public class FinanceService {
         if (updates.getAmount() != null) entity.setAmount(updates.getAmount());
         if (updates.getType() != null) entity.setType(updates.getType());
 
-        // 3. Aplicar novo impacto no saldo
-        updateAccountBalance(userId, entity.getAccountId(), entity.getAmount(), entity.getType());
+        BigDecimal newEffect = signedAmount(entity.getAmount(), entity.getType());
+
+        // 3. Aplicar a diferença no saldo
+        if (oldAccountId.equals(entity.getAccountId())) {
+            // Mesma conta: um único UPDATE com (novo - antigo)
+            BigDecimal delta = newEffect.subtract(oldEffect);
+            if (delta.signum() != 0) applyBalanceDelta(userId, oldAccountId, delta);
+        } else if (oldAccountId < entity.getAccountId()) {
+            // Trocou de conta: atualiza sempre na ordem crescente de id para não gerar deadlock
+            applyBalanceDelta(userId, oldAccountId, oldEffect.negate());
+            applyBalanceDelta(userId, entity.getAccountId(), newEffect);
+        } else {
+            applyBalanceDelta(userId, entity.getAccountId(), newEffect);
+            applyBalanceDelta(userId, oldAccountId, oldEffect.negate());
+        }
+
+        // 4. Resumo mensal: sai o valor antigo, entra o novo (o serviço soma os dois quando a chave é a mesma)
+        rollupService.apply(userId, List.of(oldRollup, addedRollup(entity)));
+        checkpointService.apply(userId, List.of(oldFlow, flow(entity, BigDecimal.ONE)));
 
         return toTransactionDTO(transactionRepository.save(entity));
     }
 
     @Transactional
     public void deleteTransaction(String userId, Long transactionId) {
+        Optional<String> transferId = transactionRepository.findTransferId(transactionId, userId);
+        if (transferId.isPresent()) {
+            deleteTransfer(userId, transferId.get());
+            return;
+        }
+
         TransactionEntity entity = transactionRepository.findByIdAndUserId(transactionId, userId)
                 .orElseThrow(() -> new RuntimeException("Transação não encontrada"));
 
         // Reverter saldo antes de deletar
-        revertAccountBalance(userId, entity.getAccountId(), entity.getAmount(), entity.getType());
+        applyBalanceDelta(userId, entity.getAccountId(), signedAmount(entity.getAmount(), entity.getType()).negate());
+        rollupService.apply(userId, List.of(removedRollup(entity)));
+        checkpointService.apply(userId, List.of(flow(entity, BigDecimal.ONE.negate())));
 
         transactionRepository.delete(entity);
     }
 
+    // --- TRANSFER METHODS ---
+
+    /**
+     * Transferência entre contas do usuário: grava a saída (expense) e a entrada (income) e os dois deltas
+     * de saldo na mesma transação do banco. As contas são atualizadas em ordem crescente de id,
+     * então transferências opostas simultâneas (A→B e B→A) não entram em deadlock.
+     */
+    @Transactional
+    public TransferDTO createTransfer(String userId, TransferDTO dto) {
+        if (dto.getFromAccountId() == null || dto.getToAccountId() == null) {
+            throw new IllegalArgumentException("Contas de origem e destino são obrigatórias");
+        }
+        if (dto.getFromAccountId().equals(dto.getToAccountId())) {
+            throw new IllegalArgumentException("Origem e destino devem ser contas diferentes");
+        }
+        if (dto.getAmount() == null || dto.getAmount().signum() <= 0) {
+            throw new IllegalArgumentException("Valor deve ser maior que zero");
+        }
+
+        String transferId = UUID.randomUUID().toString();
+        TransactionEntity outgoing = transferLeg(userId, transferId, dto, dto.getFromAccountId(), "expense");
+        TransactionEntity incoming = transferLeg(userId, transferId, dto, dto.getToAccountId(), "income");
+        List<TransactionEntity> legs = transactionRepository.saveAll(List.of(outgoing, incoming));
+
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        for (TransactionEntity leg : legs) {
+            deltas.merge(leg.getAccountId(), signedAmount(leg.getAmount(), leg.getType()), BigDecimal::add);
+        }
+        applyBalanceDeltas(userId, deltas);
+        rollupService.apply(userId, legs.stream().map(this::addedRollup).toList());
+        checkpointService.apply(userId, legs.stream().map(leg -> flow(leg, BigDecimal.ONE)).toList());
+
+        return toTransferDTO(outgoing, incoming);
+    }
+
+    /**
+     * Altera valor, data, descrição, categoria ou contas das duas pernas juntas.
+     * O saldo recebe só a diferença líquida por conta (antigo revertido + novo aplicado).
+     */
+    @Transactional
+    public TransferDTO updateTransfer(String userId, String transferId, TransferDTO updates) {
+        List<TransactionEntity> legs = lockTransfer(userId, transferId);
+        TransactionEntity outgoing = leg(legs, "expense");
+        TransactionEntity incoming = leg(legs, "income");
+
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        List<FinanceRollupService.RollupDelta> rollups = new ArrayList<>();
+        List<BalanceCheckpointService.FlowDelta> flows = new ArrayList<>();
+        for (TransactionEntity leg : legs) {
+            deltas.merge(leg.getAccountId(), signedAmount(leg.getAmount(), leg.getType()).negate(), BigDecimal::add);
+            rollups.add(removedRollup(leg));
+            flows.add(flow(leg, BigDecimal.ONE.negate()));
+        }
+
+        if (updates.getAmount() != null && updates.getAmount().signum() <= 0) {
+            throw new IllegalArgumentException("Valor deve ser maior que zero");
+        }
+        for (TransactionEntity leg : legs) {
+            if (updates.getAmount() != null) leg.setAmount(updates.getAmount());
+            if (updates.getDate() != null) leg.setDate(updates.getDate());
+            if (updates.getDescription() != null) leg.setDescription(updates.getDescription());
+            if (updates.getCategory() != null) leg.setCategory(updates.getCategory());
+        }
+        if (updates.getFromAccountId() != null) outgoing.setAccountId(updates.getFromAccountId());
+        if (updates.getToAccountId() != null) incoming.setAccountId(updates.getToAccountId());
+        if (outgoing.getAccountId().equals(incoming.getAccountId())) {
+            throw new IllegalArgumentException("Origem e destino devem ser contas diferentes");
+        }
+
+        for (TransactionEntity leg : legs) {
+            deltas.merge(leg.getAccountId(), signedAmount(leg.getAmount(), leg.getType()), BigDecimal::add);
+            rollups.add(addedRollup(leg));
+            flows.add(flow(leg, BigDecimal.ONE));
+        }
+        applyBalanceDeltas(userId, deltas);
+        rollupService.apply(userId, rollups);
+        checkpointService.apply(userId, flows);
+
+        transactionRepository.saveAll(legs);
+        return toTransferDTO(outgoing, incoming);
+    }
+
+    @Transactional
+    public void deleteTransfer(String userId, String transferId) {
+        List<TransactionEntity> legs = lockTransfer(userId, transferId);
+
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        for (TransactionEntity leg : legs) {
+            deltas.merge(leg.getAccountId(), signedAmount(leg.getAmount(), leg.getType()).negate(), BigDecimal::add);
+        }
+        applyBalanceDeltas(userId, deltas);
+        rollupService.apply(userId, legs.stream().map(this::removedRollup).toList());
+        checkpointService.apply(userId, legs.stream().map(leg -> flow(leg, BigDecimal.ONE.negate())).toList());
+
+        transactionRepository.deleteAll(legs);
+    }
+
+    // Edição feita pela rota de transações em uma das pernas: traduz para a edição da transferência
+    private TransactionDTO updateTransferLeg(String userId, String transferId, Long legId, TransactionDTO updates) {
+        if (updates.getType() != null) {
+            throw new IllegalArgumentException("O tipo de uma perna de transferência não pode ser alterado");
+        }
+        boolean outgoingLeg = lockTransfer(userId, transferId).stream()
+                .anyMatch(leg -> leg.getId().equals(legId) && "expense".equals(leg.getType()));
+
+        TransferDTO transferUpdates = TransferDTO.builder()
+                .amount(updates.getAmount()).date(updates.getDate())
+                .description(updates.getDescription()).category(updates.getCategory())
+                .fromAccountId(outgoingLeg ? updates.getAccountId() : null)
+                .toAccountId(outgoingLeg ? null : updates.getAccountId())
+                .build();
+        TransferDTO updated = updateTransfer(userId, transferId, transferUpdates);
+        return outgoingLeg ? updated.getOutgoing() : updated.getIncoming();
+    }
+
+    private List<TransactionEntity> lockTransfer(String userId, String transferId) {
+        List<TransactionEntity> legs = transactionRepository.lockTransferLegs(transferId, userId);
+        if (legs.size() != 2) throw new RuntimeException("Transferência não encontrada");
+        return legs;
+    }
+
+    private TransactionEntity leg(List<TransactionEntity> legs, String type) {
+        return legs.stream().filter(leg -> type.equals(leg.getType())).findFirst()
+                .orElseThrow(() -> new RuntimeException("Transferência inconsistente"));
+    }
+
+    private TransactionEntity transferLeg(String userId, String transferId, TransferDTO dto, Long accountId, String type) {
+        TransactionEntity entity = new TransactionEntity();
+        entity.setUserId(userId);
+        entity.setAccountId(accountId);
+        entity.setDescription(dto.getDescription());
+        entity.setAmount(dto.getAmount());
+        entity.setType(type);
+        entity.setCategory(dto.getCategory() != null ? dto.getCategory() : TRANSFER_CATEGORY);
+        entity.setDate(dto.getDate() != null ? dto.getDate() : LocalDate.now());
+        entity.setTransferId(transferId);
+        return entity;
+    }
+
     // --- HELPER METHODS (BALANCE LOGIC) ---
 
-    private void updateAccountBalance(String userId, Long accountId, BigDecimal amount, String type) {
-        AccountEntity account = accountRepository.findByIdAndUserId(accountId, userId)
-                .orElseThrow(() -> new RuntimeException("Conta vinculada não encontrada"));
+    // Income soma no saldo, qualquer outro tipo subtrai
+    private BigDecimal signedAmount(BigDecimal amount, String type) {
+        return "income".equals(type) ? amount : amount.negate();
+    }
 
-        BigDecimal adjustment = "income".equals(type) ? amount : amount.negate();
-        account.setBalance(account.getBalance().add(adjustment));
-        account.setUpdatedAt(LocalDateTime.now());
+    /**
+     * Aplica o delta direto no banco (balance = balance + delta), sem ler a conta antes.
+     * O UPDATE é atômico e trava só a linha da conta, então criações concorrentes não perdem atualizações.
+     */
+    private void applyBalanceDelta(String userId, Long accountId, BigDecimal delta) {
+        int updated = accountRepository.applyBalanceDelta(accountId, userId, delta, LocalDateTime.now());
+        if (updated == 0) throw new RuntimeException("Conta vinculada não encontrada");
+    }
 
-        accountRepository.save(account);
+    // Vários deltas na mesma transação: TreeMap garante a ordem crescente de id (ordem de lock única)
+    private void applyBalanceDeltas(String userId, Map<Long, BigDecimal> deltas) {
+        deltas.forEach((accountId, delta) -> {
+            if (delta.signum() != 0) applyBalanceDelta(userId, accountId, delta);
+        });
     }
 
-    private void revertAccountBalance(String userId, Long accountId, BigDecimal amount, String type) {
-        // Para reverter, fazemos o oposto do update
-        AccountEntity account = accountRepository.findByIdAndUserId(accountId, userId)
-                .orElseThrow(() -> new RuntimeException("Conta vinculada não encontrada"));
+    private FinanceRollupService.RollupDelta addedRollup(TransactionEntity e) {
+        return FinanceRollupService.RollupDelta.added(e.getAccountId(), e.getDate(), e.getType(), e.getCategory(), e.getAmount());
+    }
 
-        // Se era income, subtraímos. Se era expense, somamos.
-        BigDecimal reversal = "income".equals(type) ? amount.negate() : amount;
-        account.setBalance(account.getBalance().add(reversal));
-        account.setUpdatedAt(LocalDateTime.now());
+    private FinanceRollupService.RollupDelta removedRollup(TransactionEntity e) {
+        return FinanceRollupService.RollupDelta.removed(e.getAccountId(), e.getDate(), e.getType(), e.getCategory(), e.getAmount());
+    }
 
-        accountRepository.save(account);
+    // sign = 1 para a transação entrando no histórico, -1 para saindo
+    private BalanceCheckpointService.FlowDelta flow(TransactionEntity e, BigDecimal sign) {
+        return new BalanceCheckpointService.FlowDelta(e.getAccountId(), e.getDate(),
+                signedAmount(e.getAmount(), e.getType()).multiply(sign));
     }
 
     // --- Mappers ---
     private AccountDTO toAccountDTO(AccountEntity e) {
         return AccountDTO.builder()
                 .id(e.getId()).name(e.getName()).type(e.getType())
-                .balance(e.getBalance()).bank(e.getBank()).build();
+                .balance(e.getBalance()).bank(e.getBank()).version(e.getVersion()).build();
     }
 
     private TransactionDTO toTransactionDTO(TransactionEntity e) {
         return TransactionDTO.builder()
                 .id(e.getId()).accountId(e.getAccountId()).description(e.getDescription())
                 .amount(e.getAmount()).type(e.getType()).category(e.getCategory())
-                .date(e.getDate()).build();
+                .date(e.getDate()).recurrenceId(e.getRecurrenceId())
+                .transferId(e.getTransferId()).build();
+    }
+
+    private TransferDTO toTransferDTO(TransactionEntity outgoing, TransactionEntity incoming) {
+        return TransferDTO.builder()
+                .transferId(outgoing.getTransferId())
+                .fromAccountId(outgoing.getAccountId()).toAccountId(incoming.getAccountId())
+                .amount(outgoing.getAmount()).description(outgoing.getDescription())
+                .category(outgoing.getCategory()).date(outgoing.getDate())
+                .outgoing(toTransactionDTO(outgoing)).incoming(toTransactionDTO(incoming)).build();
     }
-}
\ No newline at end of file
+}
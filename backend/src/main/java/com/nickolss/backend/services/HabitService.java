@@ -5,24 +5,56 @@ import com.nickolss.backend.models.HabitEntryEntity;
 import com.nickolss.backend.models.dtos.HabitDTO;
 import com.nickolss.backend.models.dtos.HabitEntryDTO;
 import com.nickolss.backend.repositories.HabitEntryRepository;
+import com.nickolss.backend.repositories.HabitEntrySpecifications;
 import com.nickolss.backend.repositories.HabitRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Date;
+import java.sql.PreparedStatement;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class HabitService {
 
+    private static final int MAX_BATCH_ENTRIES = 1_000;
+
+    // A CTE guarda o completed original (pode ser nulo) para o DO UPDATE distinguir "não informado" de false
+    private static final String UPSERT_SQL =
+            "WITH input AS (SELECT * FROM unnest(?::bigint[], ?::date[], ?::boolean[], ?::varchar[]) " +
+            "               AS u(habit_id, date, completed, notes)) " +
+            "INSERT INTO habit_entries (user_id, habit_id, date, completed, notes, created_at) " +
+            "SELECT ?, i.habit_id, i.date, COALESCE(i.completed, true), i.notes, now() FROM input i " +
+            "ON CONFLICT (user_id, habit_id, date) DO UPDATE SET " +
+            "completed = COALESCE((SELECT i.completed FROM input i " +
+            "                      WHERE i.habit_id = EXCLUDED.habit_id AND i.date = EXCLUDED.date), habit_entries.completed), " +
+            "notes = COALESCE(EXCLUDED.notes, habit_entries.notes) " +
+            "RETURNING id, habit_id, date, completed, notes";
+
     private final HabitRepository habitRepository;
     private final HabitEntryRepository habitEntryRepository;
+    private final HabitStatsService habitStatsService;
+    private final CascadeDeleteService cascadeDeleteService;
+    private final JdbcTemplate jdbcTemplate;
 
-    public HabitService(HabitRepository habitRepository, HabitEntryRepository habitEntryRepository) {
+    public HabitService(HabitRepository habitRepository, HabitEntryRepository habitEntryRepository,
+                        HabitStatsService habitStatsService, CascadeDeleteService cascadeDeleteService,
+                        JdbcTemplate jdbcTemplate) {
         this.habitRepository = habitRepository;
         this.habitEntryRepository = habitEntryRepository;
+        this.habitStatsService = habitStatsService;
+        this.cascadeDeleteService = cascadeDeleteService;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     // --- MAPPERS ---
@@ -86,19 +118,27 @@ public class HabitService {
         return convertToHabitDTO(habitRepository.save(entity));
     }
 
+    // Sem @Transactional: cada chunk da cascata commita sozinho (locks curtos)
     public void deleteHabit(String userId, Long habitId) {
         HabitEntity entity = habitRepository.findById(habitId)
                 .orElseThrow(() -> new RuntimeException("Hábito não encontrado"));
 
         if (!entity.getUserId().equals(userId)) throw new RuntimeException("Acesso negado");
 
+        // Pai primeiro (novos check-ins passam a ser recusados), depois entries e bitsets em chunks
         habitRepository.delete(entity);
+        cascadeDeleteService.deleteHabitChildren(userId, habitId);
     }
 
     // --- HABIT ENTRIES (Histórico e Checks) ---
     public List<HabitEntryDTO> getHabitEntries(String userId, Long habitId, LocalDate startDate, LocalDate endDate) {
+        Specification<HabitEntryEntity> spec = HabitEntrySpecifications.byUser(userId);
+        if (habitId != null) spec = spec.and(HabitEntrySpecifications.byHabit(habitId));
+        if (startDate != null) spec = spec.and(HabitEntrySpecifications.dateFrom(startDate));
+        if (endDate != null) spec = spec.and(HabitEntrySpecifications.dateTo(endDate));
+
         try {
-            return habitEntryRepository.findEntries(userId, habitId, startDate, endDate)
+            return habitEntryRepository.findAll(spec, Sort.by(Sort.Direction.DESC, "date"))
                     .stream()
                     .map(this::convertToEntryDTO)
                     .collect(Collectors.toList());
@@ -111,32 +151,64 @@ public class HabitService {
      * UPSERT: Cria ou Atualiza uma entrada.
      * Usado quando o usuário marca/desmarca ou anota algo num dia.
      */
+    @Transactional
     public HabitEntryDTO upsertHabitEntry(String userId, HabitEntryDTO dto) {
-        // Verifica se já existe entrada para este hábito nesta data
-        Optional<HabitEntryEntity> existingOpt = habitEntryRepository
-                .findByUserIdAndHabitIdAndDate(userId, dto.getHabitId(), dto.getDate());
-
-        HabitEntryEntity entity;
-
-        if (existingOpt.isPresent()) {
-            // Atualizar
-            entity = existingOpt.get();
-            if (dto.getCompleted() != null) entity.setCompleted(dto.getCompleted());
-            if (dto.getNotes() != null) entity.setNotes(dto.getNotes());
-        } else {
-            // Criar Novo
-            entity = new HabitEntryEntity();
-            entity.setUserId(userId);
-            entity.setHabitId(dto.getHabitId());
-            entity.setDate(dto.getDate());
-            entity.setCompleted(dto.getCompleted() != null ? dto.getCompleted() : true);
-            entity.setNotes(dto.getNotes());
-            entity.setCreatedAt(LocalDateTime.now());
+        return upsertHabitEntries(userId, List.of(dto)).get(0);
+    }
+
+    /**
+     * Upsert em lote: todas as entradas num único INSERT ... ON CONFLICT DO UPDATE sobre a chave
+     * (user_id, habit_id, date). completed/notes nulos mantêm o valor atual (em entrada nova, completed = true).
+     * Check-ins repetidos (duplo toque) caem na mesma linha em vez de criar duplicatas.
+     */
+    @Transactional
+    public List<HabitEntryDTO> upsertHabitEntries(String userId, List<HabitEntryDTO> entries) {
+        if (entries.isEmpty()) return List.of();
+        if (entries.size() > MAX_BATCH_ENTRIES) {
+            throw new IllegalArgumentException("Máximo de " + MAX_BATCH_ENTRIES + " entradas por requisição");
+        }
+
+        // Mesmo (hábito, dia) repetido no lote: vale o último valor informado de cada campo
+        Map<String, HabitEntryDTO> unique = new LinkedHashMap<>();
+        for (HabitEntryDTO entry : entries) {
+            if (entry.getHabitId() == null || entry.getDate() == null) {
+                throw new IllegalArgumentException("habitId e date são obrigatórios");
+            }
+            unique.merge(entry.getHabitId() + ":" + entry.getDate(), entry, (previous, next) -> HabitEntryDTO.builder()
+                    .habitId(next.getHabitId()).date(next.getDate())
+                    .completed(next.getCompleted() != null ? next.getCompleted() : previous.getCompleted())
+                    .notes(next.getNotes() != null ? next.getNotes() : previous.getNotes())
+                    .build());
         }
 
-        return convertToEntryDTO(habitEntryRepository.save(entity));
+        Set<Long> habitIds = unique.values().stream().map(HabitEntryDTO::getHabitId).collect(Collectors.toSet());
+        long owned = habitRepository.findAllById(habitIds).stream().filter(h -> h.getUserId().equals(userId)).count();
+        if (owned != habitIds.size()) throw new IllegalArgumentException("Hábito não encontrado");
+
+        List<HabitEntryDTO> rows = new ArrayList<>(unique.values());
+        List<HabitEntryDTO> saved = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPSERT_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", rows.stream().map(HabitEntryDTO::getHabitId).toArray()));
+            ps.setArray(2, connection.createArrayOf("date", rows.stream().map(r -> Date.valueOf(r.getDate())).toArray()));
+            ps.setArray(3, connection.createArrayOf("boolean", rows.stream().map(HabitEntryDTO::getCompleted).toArray()));
+            ps.setArray(4, connection.createArrayOf("varchar", rows.stream().map(HabitEntryDTO::getNotes).toArray()));
+            ps.setString(5, userId);
+            return ps;
+        }, (rs, rowNum) -> HabitEntryDTO.builder()
+                .id(rs.getLong("id"))
+                .habitId(rs.getLong("habit_id"))
+                .date(rs.getDate("date").toLocalDate())
+                .completed(rs.getBoolean("completed"))
+                .notes(rs.getString("notes"))
+                .build());
+
+        habitStatsService.applyDays(userId, saved.stream()
+                .map(e -> new HabitStatsService.DayMark(e.getHabitId(), e.getDate(), e.getCompleted()))
+                .toList());
+        return saved;
     }
 
+    @Transactional
     public void deleteHabitEntry(String userId, Long entryId) {
         HabitEntryEntity entity = habitEntryRepository.findById(entryId)
                 .orElseThrow(() -> new RuntimeException("Entrada não encontrada"));
@@ -144,5 +216,6 @@ public class HabitService {
         if (!entity.getUserId().equals(userId)) throw new RuntimeException("Acesso negado");
 
         habitEntryRepository.delete(entity);
+        habitStatsService.applyDays(userId, List.of(new HabitStatsService.DayMark(entity.getHabitId(), entity.getDate(), false)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.HabitCompletionBitsetEntity;
+import com.nickolss.backend.models.HabitEntity;
+import com.nickolss.backend.models.dtos.HabitStatsDTO;
+import com.nickolss.backend.models.dtos.HabitWindowStatsDTO;
+import com.nickolss.backend.repositories.HabitCompletionBitsetRepository;
+import com.nickolss.backend.repositories.HabitRepository;
+import com.nickolss.backend.utils.HabitCalendar;
+import com.nickolss.backend.utils.HabitStatsEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Estatísticas de hábitos (sequências e taxas de conclusão) calculadas no servidor.
+ * Cada hábito guarda os dias concluídos como um bitset por ano; o HabitService liga/desliga os bits dos dias
+ * a cada check-in, e as estatísticas são operações de bits sobre alguns words, sem ler o histórico de entries.
+ */
+@Service
+public class HabitStatsService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(HabitStatsService.class);
+
+    // Monta os 48 bytes de cada (hábito, ano) direto no banco: bit_or agrega os dias de cada byte
+    private static final String REBUILD_SQL =
+            "INSERT INTO habit_completion_bitsets (habit_id, user_id, year, bits) " +
+            "SELECT k.habit_id, k.user_id, k.year, " +
+            "decode(string_agg(lpad(to_hex(COALESCE(b.value, 0)), 2, '0'), '' ORDER BY s.i), 'hex') " +
+            "FROM (SELECT DISTINCT e.habit_id, h.user_id, EXTRACT(YEAR FROM e.date)::int AS year " +
+            "      FROM habit_entries e JOIN habits h ON h.id = e.habit_id AND h.user_id = e.user_id " +
+            "      WHERE e.completed = true %1$s) k " +
+            "CROSS JOIN generate_series(0, 47) s(i) " +
+            "LEFT JOIN (SELECT e.habit_id, EXTRACT(YEAR FROM e.date)::int AS year, " +
+            "           (EXTRACT(DOY FROM e.date)::int - 1) / 8 AS i, " +
+            "           bit_or(1 << ((EXTRACT(DOY FROM e.date)::int - 1) %% 8)) AS value " +
+            "           FROM habit_entries e WHERE e.completed = true %1$s GROUP BY 1, 2, 3) b " +
+            "  ON b.habit_id = k.habit_id AND b.year = k.year AND b.i = s.i " +
+            "GROUP BY k.habit_id, k.user_id, k.year " +
+            "ON CONFLICT (habit_id, year) DO UPDATE SET bits = EXCLUDED.bits";
+
+    private static final String WITHOUT_BITSETS =
+            "AND NOT EXISTS (SELECT 1 FROM habit_completion_bitsets x WHERE x.habit_id = e.habit_id)";
+
+    private static final String ENSURE_SQL =
+            "INSERT INTO habit_completion_bitsets (habit_id, user_id, year, bits) " +
+            "SELECT k.habit_id, ?, k.year, decode(repeat('00', 48), 'hex') " +
+            "FROM unnest(?::bigint[], ?::int[]) AS k(habit_id, year) " +
+            "ON CONFLICT (habit_id, year) DO NOTHING";
+
+    private static final String LOCK_SQL =
+            "SELECT id, habit_id, year, bits FROM habit_completion_bitsets " +
+            "WHERE (habit_id, year) IN (SELECT * FROM unnest(?::bigint[], ?::int[])) ORDER BY id FOR UPDATE";
+
+    private static final String UPDATE_SQL =
+            "UPDATE habit_completion_bitsets b SET bits = decode(u.bits, 'hex') " +
+            "FROM unnest(?::bigint[], ?::text[]) AS u(id, bits) WHERE b.id = u.id";
+
+    private final HabitRepository habitRepository;
+    private final HabitCompletionBitsetRepository bitsetRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public HabitStatsService(HabitRepository habitRepository, HabitCompletionBitsetRepository bitsetRepository,
+                             JdbcTemplate jdbcTemplate) {
+        this.habitRepository = habitRepository;
+        this.bitsetRepository = bitsetRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record DayMark(Long habitId, LocalDate date, boolean completed) {
+    }
+
+    /**
+     * Marca (ou desmarca) dias como concluídos, em qualquer quantidade, com três comandos:
+     * garante as linhas (hábito, ano), trava-as em ordem de id e grava os bytes recalculados.
+     * Roda na transação do check-in.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDays(String userId, List<DayMark> marks) {
+        if (marks.isEmpty()) return;
+
+        Map<String, List<DayMark>> byKey = new LinkedHashMap<>();
+        for (DayMark mark : marks) {
+            byKey.computeIfAbsent(mark.habitId() + ":" + mark.date().getYear(), k -> new ArrayList<>()).add(mark);
+        }
+        Long[] habitIds = byKey.values().stream().map(list -> list.get(0).habitId()).toArray(Long[]::new);
+        Integer[] years = byKey.values().stream().map(list -> list.get(0).date().getYear()).toArray(Integer[]::new);
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(ENSURE_SQL);
+            ps.setString(1, userId);
+            ps.setArray(2, connection.createArrayOf("bigint", habitIds));
+            ps.setArray(3, connection.createArrayOf("integer", years));
+            return ps;
+        });
+
+        List<Object[]> rows = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(LOCK_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", habitIds));
+            ps.setArray(2, connection.createArrayOf("integer", years));
+            return ps;
+        }, (rs, rowNum) -> new Object[]{rs.getLong("id"), rs.getLong("habit_id") + ":" + rs.getInt("year"), rs.getBytes("bits")});
+
+        Long[] ids = new Long[rows.size()];
+        String[] hex = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            byte[] bits = Arrays.copyOf((byte[]) rows.get(i)[2], HabitCalendar.YEAR_BYTES);
+            for (DayMark mark : byKey.get((String) rows.get(i)[1])) {
+                HabitCalendar.setDay(bits, mark.date(), mark.completed());
+            }
+            ids[i] = (Long) rows.get(i)[0];
+            hex[i] = HexFormat.of().formatHex(bits);
+        }
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPDATE_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", ids));
+            ps.setArray(2, connection.createArrayOf("text", hex));
+            return ps;
+        });
+    }
+
+    public HabitStatsDTO getStats(String userId, Long habitId, LocalDate today) {
+        HabitEntity habit = habitRepository.findById(habitId)
+                .orElseThrow(() -> new RuntimeException("Hábito não encontrado"));
+        if (!habit.getUserId().equals(userId)) throw new RuntimeException("Acesso negado");
+
+        return compute(habit, bitsetRepository.findByHabitId(habitId), today);
+    }
+
+    // Todos os hábitos do usuário com uma única leitura de bitsets
+    public List<HabitStatsDTO> getAllStats(String userId, LocalDate today) {
+        Map<Long, List<HabitCompletionBitsetEntity>> bitsets = bitsetRepository.findByUserId(userId)
+                .stream().collect(Collectors.groupingBy(HabitCompletionBitsetEntity::getHabitId));
+        return habitRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(habit -> compute(habit, bitsets.getOrDefault(habit.getId(), List.of()), today))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Recria os bitsets a partir das entries (carga inicial ou correção).
+     */
+    @Transactional
+    public int rebuildAll() {
+        jdbcTemplate.update("DELETE FROM habit_completion_bitsets");
+        return jdbcTemplate.update(String.format(REBUILD_SQL, ""));
+    }
+
+    // Carga dos bitsets antes do servidor web aceitar requisições (o schema.sql já rodou, o start do servidor vem
+    // depois): nenhum check-in cria o bitset de um hábito antes da carga (e ele ficaria de fora do NOT EXISTS) nem
+    // commita depois do snapshot dela (e seria sobrescrito)
+    @Override
+    public void afterSingletonsInstantiated() {
+        backfillOnStartup();
+    }
+
+    // Hábitos com check-ins e nenhum bitset (histórico anterior aos bitsets ou limpo pela migração do schema.sql):
+    // carregados uma única vez. Instalação nova ou já carregada não tem nenhum e não reescreve nada
+    public void backfillOnStartup() {
+        try {
+            long start = System.currentTimeMillis();
+            int rows = jdbcTemplate.update(String.format(REBUILD_SQL, WITHOUT_BITSETS));
+            if (rows > 0) log.info("Bitsets de hábitos carregados: {} linhas em {} ms", rows, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("Falha ao carregar os bitsets de hábitos", e);
+        }
+    }
+
+    private HabitStatsDTO compute(HabitEntity habit, List<HabitCompletionBitsetEntity> bitsets, LocalDate today) {
+        Map<Integer, byte[]> years = new HashMap<>();
+        for (HabitCompletionBitsetEntity bitset : bitsets) years.put(bitset.getYear(), bitset.getBits());
+
+        HabitCalendar calendar = HabitCalendar.fromYears(years, today);
+        HabitStatsEngine.Stats stats = HabitStatsEngine.compute(calendar, habit.getFrequency(), habit.getTargetDays(),
+                habit.getCreatedAt() != null ? habit.getCreatedAt().toLocalDate() : null, today);
+
+        return HabitStatsDTO.builder()
+                .habitId(habit.getId())
+                .frequency(habit.getFrequency())
+                .targetPerWeek(stats.targetPerWeek())
+                .streakUnit(stats.streakUnit())
+                .currentStreak(stats.currentStreak())
+                .longestStreak(stats.longestStreak())
+                .totalCompletions(stats.totalCompletions())
+                .completedToday(stats.completedToday())
+                .lastCompletedDate(stats.lastCompletedDate())
+                .windows(stats.windows().stream()
+                        .map(w -> HabitWindowStatsDTO.builder()
+                                .days(w.days()).completions(w.completions())
+                                .expected(w.expected()).rate(w.rate()).build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+}
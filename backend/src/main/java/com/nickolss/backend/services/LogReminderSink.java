@@ -0,0 +1,18 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.ReminderDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LogReminderSink implements ReminderSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LogReminderSink.class);
+
+    @Override
+    public void send(ReminderDTO reminder) {
+        log.info("Lembrete: {} {} \"{}\" do usuário {} vence em {}",
+                reminder.getType(), reminder.getId(), reminder.getTitle(), reminder.getUserId(), reminder.getDueDate());
+    }
+}
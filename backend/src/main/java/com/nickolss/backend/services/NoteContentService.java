@@ -0,0 +1,158 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.NoteEntity;
+import com.nickolss.backend.models.dtos.NoteCompressionStatsDTO;
+import com.nickolss.backend.repositories.NoteRepository;
+import com.nickolss.backend.utils.CompressedText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Armazenamento do conteúdo das notas. Com notes.compression.enabled, conteúdo a partir de min-chars é comprimido
+ * na aplicação (content_compressed) e a coluna content guarda só o início, que basta para o preview das listagens
+ * e para os trechos da busca. A busca continua cobrindo o conteúdo inteiro: os termos (content_vector) são gravados
+ * aqui, já que o trigger do banco não lê o texto comprimido.
+ */
+@Service
+public class NoteContentService {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteContentService.class);
+
+    // Mesma janela usada pelo ts_headline da busca: os trechos destacados não mudam com a compressão
+    static final int HEAD_CHARS = NoteSearchService.SNIPPET_SOURCE_CHARS;
+
+    // Abaixo de 10% de ganho não compensa descomprimir a cada leitura
+    private static final double MAX_RATIO = 0.9;
+
+    private static final String UPDATE_VECTOR_SQL =
+            "UPDATE notes SET content_vector = to_tsvector('portuguese', ?) WHERE id = ?";
+
+    private static final String STORAGE_SQL =
+            "SELECT count(*) AS notes, coalesce(sum(content_original_bytes), 0) AS original_bytes, " +
+            "coalesce(sum(octet_length(content_compressed) + coalesce(octet_length(content), 0)), 0) AS stored_bytes " +
+            "FROM notes WHERE content_compressed IS NOT NULL";
+
+    // octet_length não descomprime o TOAST: filtra os candidatos sem ler o conteúdo
+    private static final String TO_COMPRESS_SQL =
+            "SELECT id FROM notes WHERE id > ? AND content_compressed IS NULL AND octet_length(content) >= ? " +
+            "ORDER BY id LIMIT ?";
+    private static final String TO_DECOMPRESS_SQL =
+            "SELECT id FROM notes WHERE id > ? AND content_compressed IS NOT NULL ORDER BY id LIMIT ?";
+
+    private final NoteRepository noteRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int minChars;
+    private final int chunkSize;
+    private final AtomicBoolean migrating = new AtomicBoolean(false);
+
+    public NoteContentService(NoteRepository noteRepository, JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${notes.compression.enabled:false}") boolean enabled,
+                              @Value("${notes.compression.min-chars:32768}") int minChars,
+                              @Value("${notes.compression.chunk-size:100}") int chunkSize) {
+        this.noteRepository = noteRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.minChars = minChars;
+        this.chunkSize = chunkSize;
+    }
+
+    // Grava o conteúdo no formato da configuração atual (texto puro ou comprimido)
+    public void store(NoteEntity note, String content) {
+        if (enabled && content != null && content.length() >= minChars) {
+            CompressedText compressed = CompressedText.compress(content);
+            if (compressed.data().length < compressed.originalBytes() * MAX_RATIO) {
+                note.setCompressedContent(compressed, head(content));
+                return;
+            }
+        }
+        note.setContent(content);
+    }
+
+    // Depois do save, na mesma transação: termos de busca do conteúdo comprimido
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void index(NoteEntity note) {
+        if (note.getContentCompressed() != null) {
+            jdbcTemplate.update(UPDATE_VECTOR_SQL, note.getContent(), note.getId());
+        }
+    }
+
+    private static String head(String content) {
+        int end = Math.min(HEAD_CHARS, content.length());
+        if (end < content.length() && Character.isHighSurrogate(content.charAt(end - 1))) end--;
+        return content.substring(0, end);
+    }
+
+    /**
+     * Converte as notas existentes para a configuração atual: habilitada, comprime as grandes ainda em texto puro;
+     * desabilitada, volta as comprimidas para texto (o trigger recalcula os termos). Chunks por id, cada um numa
+     * transação com as notas travadas contra saves concorrentes. Os termos de busca já existentes continuam valendo.
+     */
+    public Map<String, Object> migrate() {
+        if (!migrating.compareAndSet(false, true)) {
+            throw new IllegalStateException("Migração do conteúdo das notas já em andamento");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long lastId = 0;
+            long converted = 0;
+            while (true) {
+                List<Long> ids = enabled
+                        ? jdbcTemplate.queryForList(TO_COMPRESS_SQL, Long.class, lastId, minChars, chunkSize)
+                        : jdbcTemplate.queryForList(TO_DECOMPRESS_SQL, Long.class, lastId, chunkSize);
+                if (ids.isEmpty()) break;
+                Integer count = transactionTemplate.execute(status -> migrateChunk(ids));
+                converted += count != null ? count : 0;
+                lastId = ids.get(ids.size() - 1);
+            }
+            long elapsed = System.currentTimeMillis() - start;
+            log.info("Migração do conteúdo das notas ({}): {} notas convertidas em {} ms",
+                    enabled ? "comprimir" : "descomprimir", converted, elapsed);
+            return Map.of("compress", enabled, "converted", converted, "elapsedMs", elapsed);
+        } finally {
+            migrating.set(false);
+        }
+    }
+
+    private int migrateChunk(List<Long> ids) {
+        int converted = 0;
+        for (NoteEntity note : noteRepository.findAllForUpdate(ids)) {
+            boolean wasCompressed = note.getContentCompressed() != null;
+            store(note, note.getContent());
+            if (wasCompressed != (note.getContentCompressed() != null)) converted++;
+        }
+        return converted;
+    }
+
+    public NoteCompressionStatsDTO getStats() {
+        Map<String, Object> storage = jdbcTemplate.queryForMap(STORAGE_SQL);
+        long original = ((Number) storage.get("original_bytes")).longValue();
+        long stored = ((Number) storage.get("stored_bytes")).longValue();
+        CompressedText.Stats cost = CompressedText.stats();
+        return NoteCompressionStatsDTO.builder()
+                .enabled(enabled)
+                .minChars(minChars)
+                .compressedNotes(((Number) storage.get("notes")).longValue())
+                .originalBytes(original)
+                .storedBytes(stored)
+                .savedBytes(original - stored)
+                .compressions(cost.compressions())
+                .compressMs(cost.compressNanos() / 1e6)
+                .decompressions(cost.decompressions())
+                .decompressMs(cost.decompressNanos() / 1e6)
+                .build();
+    }
+}
@@ -0,0 +1,244 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.NoteEntity;
+import com.nickolss.backend.models.NoteRevisionEntity;
+import com.nickolss.backend.models.dtos.NoteRevisionDTO;
+import com.nickolss.backend.repositories.NoteRepository;
+import com.nickolss.backend.repositories.NoteRevisionRepository;
+import com.nickolss.backend.utils.NoteDeltaCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Histórico de versões das notas. Cada save que muda título ou conteúdo grava uma revisão com o delta comprimido
+ * em relação à anterior; a cada SNAPSHOT_INTERVAL revisões grava o conteúdo inteiro, então reconstruir qualquer
+ * revisão aplica no máximo SNAPSHOT_INTERVAL - 1 deltas.
+ * A compactação (retenção) mantém as minKept revisões mais recentes; das mais antigas que thin-after-days fica só a
+ * última de cada dia, e as mais antigas que retention-days são removidas. A cadeia restante é recodificada.
+ */
+@Service
+public class NoteRevisionService {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteRevisionService.class);
+
+    static final int SNAPSHOT_INTERVAL = 20;
+
+    private static final String LIST_SQL =
+            "SELECT revision, title, content_length, snapshot, octet_length(data) AS stored_bytes, created_at " +
+            "FROM note_revisions WHERE note_id = ? AND user_id = ? ORDER BY revision DESC";
+
+    private final NoteRevisionRepository revisionRepository;
+    private final NoteRepository noteRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int minKept;
+    private final int thinAfterDays;
+    private final int retentionDays;
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+
+    public NoteRevisionService(NoteRevisionRepository revisionRepository, NoteRepository noteRepository,
+                               JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               @Value("${notes.revisions.min-kept:20}") int minKept,
+                               @Value("${notes.revisions.thin-after-days:7}") int thinAfterDays,
+                               @Value("${notes.revisions.retention-days:180}") int retentionDays) {
+        this.revisionRepository = revisionRepository;
+        this.noteRepository = noteRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.minKept = minKept;
+        this.thinAfterDays = thinAfterDays;
+        this.retentionDays = retentionDays;
+    }
+
+    // --- Mapper ---
+    private NoteRevisionDTO toDTO(NoteRevisionEntity entity, String content) {
+        return NoteRevisionDTO.builder()
+                .revision(entity.getRevision())
+                .title(entity.getTitle())
+                .content(content)
+                .contentLength(entity.getContentLength())
+                .snapshot(entity.getSnapshot())
+                .storedBytes(entity.getData().length)
+                .createdAt(entity.getCreatedAt())
+                .build();
+    }
+
+    // --- Consulta ---
+    // Sem os bytes de cada revisão: só o tamanho armazenado (octet_length, que o HQL não aceita para bytea)
+    public List<NoteRevisionDTO> getRevisions(String userId, Long noteId) {
+        return jdbcTemplate.query(LIST_SQL, (rs, rowNum) -> NoteRevisionDTO.builder()
+                .revision(rs.getInt("revision"))
+                .title(rs.getString("title"))
+                .contentLength(rs.getInt("content_length"))
+                .snapshot(rs.getBoolean("snapshot"))
+                .storedBytes(rs.getInt("stored_bytes"))
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .build(), noteId, userId);
+    }
+
+    public NoteRevisionDTO getRevision(String userId, Long noteId, int revision) {
+        List<NoteRevisionEntity> chain = revisionRepository.findChain(noteId, userId, revision);
+        if (chain.isEmpty() || chain.get(chain.size() - 1).getRevision() != revision) {
+            throw new RuntimeException("Revisão não encontrada ou acesso negado");
+        }
+        return toDTO(chain.get(chain.size() - 1), rebuild(chain).get(chain.size() - 1));
+    }
+
+    // --- Gravação (dentro da transação do save, com a nota travada) ---
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(NoteEntity note) {
+        append(note, 1, note.getTitle(), null, content(note.getContent()), true, note.getUpdatedAt());
+    }
+
+    /**
+     * Revisão com o estado atual da nota. previousTitle/previousContent são os valores antes do save, iguais aos da
+     * última revisão; nota sem histórico (anterior a este recurso) ganha antes um snapshot do estado anterior.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(NoteEntity note, String previousTitle, String previousContent, LocalDateTime previousAt) {
+        String base = content(previousContent);
+        int next;
+        Integer lastSnapshot;
+        var last = revisionRepository.findFirstByNoteIdOrderByRevisionDesc(note.getId());
+        if (last.isPresent()) {
+            next = last.get().getRevision() + 1;
+            lastSnapshot = revisionRepository.findLastSnapshotRevision(note.getId());
+        } else {
+            append(note, 1, previousTitle, null, base, true, previousAt != null ? previousAt : LocalDateTime.now());
+            next = 2;
+            lastSnapshot = 1;
+        }
+        boolean snapshot = lastSnapshot == null || next - lastSnapshot >= SNAPSHOT_INTERVAL;
+        append(note, next, note.getTitle(), base, content(note.getContent()), snapshot, note.getUpdatedAt());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteRevisions(Long noteId) {
+        revisionRepository.deleteByNoteId(noteId);
+    }
+
+    private void append(NoteEntity note, int revision, String title, String base, String content,
+                        boolean snapshot, LocalDateTime createdAt) {
+        NoteRevisionEntity entity = new NoteRevisionEntity();
+        entity.setNoteId(note.getId());
+        entity.setUserId(note.getUserId());
+        entity.setRevision(revision);
+        entity.setTitle(title);
+        entity.setCreatedAt(createdAt);
+        encode(entity, base, content, snapshot);
+        revisionRepository.save(entity);
+    }
+
+    // Delta contra base, ou snapshot quando pedido (ou quando o delta não compensa, ex.: texto reescrito inteiro)
+    private static void encode(NoteRevisionEntity entity, String base, String content, boolean snapshot) {
+        byte[] full = NoteDeltaCodec.snapshot(content);
+        byte[] delta = snapshot || base == null ? null : NoteDeltaCodec.diff(base, content);
+        boolean useSnapshot = delta == null || delta.length >= full.length;
+        entity.setSnapshot(useSnapshot);
+        entity.setData(useSnapshot ? full : delta);
+        entity.setContentLength(content.length());
+    }
+
+    // Conteúdo de cada revisão da cadeia (a primeira é snapshot)
+    private static List<String> rebuild(List<NoteRevisionEntity> chain) {
+        List<String> contents = new ArrayList<>(chain.size());
+        String current = null;
+        for (NoteRevisionEntity revision : chain) {
+            if (revision.getSnapshot()) current = NoteDeltaCodec.fromSnapshot(revision.getData());
+            else if (current == null) throw new IllegalStateException("Cadeia de revisões sem snapshot inicial");
+            else current = NoteDeltaCodec.apply(current, revision.getData());
+            contents.add(current);
+        }
+        return contents;
+    }
+
+    private static String content(String content) {
+        return content != null ? content : "";
+    }
+
+    // --- Retenção ---
+    @Scheduled(cron = "${notes.revisions.compaction-cron:0 30 4 * * *}")
+    public Map<String, Object> compact() {
+        if (!compacting.compareAndSet(false, true)) {
+            throw new IllegalStateException("Compactação de revisões já em andamento");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> noteIds = revisionRepository.findNotesToCompact(
+                    minKept, now.minusDays(thinAfterDays), now.minusDays(retentionDays));
+
+            long removed = 0;
+            for (Long noteId : noteIds) {
+                // Uma transação por nota: o lock da nota (contra saves concorrentes) dura só a recodificação dela
+                Integer count = transactionTemplate.execute(status -> compactNote(noteId, now));
+                removed += count != null ? count : 0;
+            }
+            long elapsed = System.currentTimeMillis() - start;
+            log.info("Compactação de revisões: {} notas, {} revisões removidas, {} ms", noteIds.size(), removed, elapsed);
+            return Map.of("notes", noteIds.size(), "removed", removed, "elapsedMs", elapsed);
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private int compactNote(Long noteId, LocalDateTime now) {
+        List<NoteRevisionEntity> revisions = revisionRepository.findByNoteIdOrderByRevision(noteId);
+        if (revisions.isEmpty()) return 0;
+        if (noteRepository.findForUpdate(noteId, revisions.get(0).getUserId()).isEmpty()) {
+            // Nota já removida: o histórico inteiro é órfão
+            revisionRepository.deleteAllInBatch(revisions);
+            return revisions.size();
+        }
+        // Relê depois do lock: um save pode ter acrescentado revisões
+        revisions = revisionRepository.findByNoteIdOrderByRevision(noteId);
+        List<String> contents = rebuild(revisions);
+
+        LocalDateTime thinBefore = now.minusDays(thinAfterDays);
+        LocalDateTime deleteBefore = now.minusDays(retentionDays);
+        int protectedFrom = revisions.size() - minKept;
+
+        List<NoteRevisionEntity> dropped = new ArrayList<>();
+        NoteRevisionEntity previous = null;
+        String previousContent = null;
+        int sinceSnapshot = 0;
+        for (int i = 0; i < revisions.size(); i++) {
+            NoteRevisionEntity revision = revisions.get(i);
+            LocalDateTime at = revision.getCreatedAt();
+            boolean drop = i < protectedFrom && at.isBefore(thinBefore) && (at.isBefore(deleteBefore)
+                    || (i + 1 < revisions.size() && sameDay(at, revisions.get(i + 1).getCreatedAt())));
+            if (drop) {
+                dropped.add(revision);
+                continue;
+            }
+            // Recodifica a partir da primeira revisão cuja anterior mudou (as demais continuam válidas)
+            NoteRevisionEntity expectedPrevious = i > 0 ? revisions.get(i - 1) : null;
+            boolean snapshot = previous == null || sinceSnapshot >= SNAPSHOT_INTERVAL - 1;
+            if (previous != expectedPrevious || snapshot != revision.getSnapshot()) {
+                encode(revision, previousContent, contents.get(i), snapshot);
+            }
+            sinceSnapshot = revision.getSnapshot() ? 0 : sinceSnapshot + 1;
+            previous = revision;
+            previousContent = contents.get(i);
+        }
+        revisionRepository.deleteAllInBatch(dropped);
+        return dropped.size();
+    }
+
+    private static boolean sameDay(LocalDateTime a, LocalDateTime b) {
+        return a.toLocalDate().equals(b.toLocalDate());
+    }
+}
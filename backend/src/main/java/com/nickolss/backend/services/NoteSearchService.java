@@ -0,0 +1,134 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.CursorPageDTO;
+import com.nickolss.backend.models.dtos.NoteSearchResultDTO;
+import com.nickolss.backend.utils.CursorUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Busca textual nas notas (Postgres full-text, config 'portuguese') sobre a coluna gerada search_vector
+ * (ver schema.sql). Ordena por relevância (título pesa mais que tags, que pesam mais que conteúdo) e pagina
+ * por cursor em (rank, id). ts_headline é caro, então só roda nas linhas da página, depois do LIMIT.
+ */
+@Service
+public class NoteSearchService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String HIGHLIGHT_OPTIONS = "StartSel=<mark>, StopSel=</mark>";
+
+    // ts_headline reprocessa o texto inteiro: o trecho vem dos primeiros caracteres, com custo limitado em notas longas
+    static final int SNIPPET_SOURCE_CHARS = 8000;
+
+    // %s: construtor da tsquery (to_tsquery com prefixo ou websearch_to_tsquery); %s: filtro do cursor
+    private static final String SEARCH_SQL =
+            "WITH q AS (SELECT %s('portuguese', ?) AS query), " +
+            "hits AS (" +
+            "  SELECT * FROM (" +
+            "    SELECT n.id, ts_rank(n.search_vector, q.query, 32) AS rank " +
+            "    FROM notes n, q WHERE n.user_id = ? AND n.search_vector @@ q.query) r " +
+            "  %s ORDER BY r.rank DESC, r.id DESC LIMIT ?) " +
+            "SELECT n.id, n.title, n.category, n.tags, n.is_pinned, n.color, n.updated_at, h.rank, " +
+            "ts_headline('portuguese', n.title, q.query, 'HighlightAll=true, " + HIGHLIGHT_OPTIONS + "') AS title_highlight, " +
+            "ts_headline('portuguese', left(coalesce(n.content, ''), " + SNIPPET_SOURCE_CHARS + "), q.query, " +
+            "            'MaxFragments=2, MaxWords=20, MinWords=8, " + HIGHLIGHT_OPTIONS + "') AS snippet " +
+            "FROM hits h JOIN notes n ON n.id = h.id, q " +
+            "ORDER BY h.rank DESC, h.id DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NoteSearchService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param prefix true: type-ahead, todos os termos são obrigatórios e o último casa por prefixo ("reun" → "reunião");
+     *               false: sintaxe de busca web ("frase exata", or, -exclusão)
+     */
+    public CursorPageDTO<NoteSearchResultDTO> search(String userId, String text, boolean prefix, String cursor, Integer limit) {
+        if (text == null || text.isBlank()) throw new IllegalArgumentException("Informe o texto da busca");
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        String queryText = prefix ? prefixQuery(text) : text;
+        Float afterRank = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorUtils.decode(cursor, 2);
+            try {
+                afterRank = Float.parseFloat(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+        }
+
+        String sql = String.format(SEARCH_SQL,
+                prefix ? "to_tsquery" : "websearch_to_tsquery",
+                afterId != null ? "WHERE (r.rank, r.id) < (?::real, ?)" : "");
+        Float rankParam = afterRank;
+        Long idParam = afterId;
+
+        List<NoteSearchResultDTO> rows = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            int i = 1;
+            ps.setString(i++, queryText);
+            ps.setString(i++, userId);
+            if (idParam != null) {
+                ps.setFloat(i++, rankParam);
+                ps.setLong(i++, idParam);
+            }
+            ps.setInt(i, pageSize + 1);
+            return ps;
+        }, (rs, rowNum) -> {
+            Array tags = rs.getArray("tags");
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            return NoteSearchResultDTO.builder()
+                    .id(rs.getLong("id"))
+                    .title(rs.getString("title"))
+                    .titleHighlight(rs.getString("title_highlight"))
+                    .snippet(rs.getString("snippet"))
+                    .category(rs.getString("category"))
+                    .tags(tags != null ? Arrays.asList((String[]) tags.getArray()) : null)
+                    .isPinned(rs.getBoolean("is_pinned"))
+                    .color(rs.getString("color"))
+                    .rank(rs.getFloat("rank"))
+                    .updatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null)
+                    .build();
+        });
+
+        boolean hasMore = rows.size() > pageSize;
+        List<NoteSearchResultDTO> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            NoteSearchResultDTO last = page.get(page.size() - 1);
+            nextCursor = CursorUtils.encode(last.getRank(), last.getId());
+        }
+
+        return CursorPageDTO.<NoteSearchResultDTO>builder()
+                .items(page)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // Só letras e dígitos chegam ao to_tsquery (a sintaxe dele não vaza para o usuário): "reunião proj" → "reunião & proj:*"
+    static String prefixQuery(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) terms.add(term);
+        }
+        if (terms.isEmpty()) throw new IllegalArgumentException("Informe o texto da busca");
+        return String.join(" & ", terms) + ":*";
+    }
+}
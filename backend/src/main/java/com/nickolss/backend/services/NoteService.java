@@ -2,21 +2,41 @@ package com.nickolss.backend.services;
 
 
 import com.nickolss.backend.models.NoteEntity;
+import com.nickolss.backend.models.dtos.BulkResultDTO;
+import com.nickolss.backend.models.dtos.NoteBulkPinRequestDTO;
 import com.nickolss.backend.models.dtos.NoteDTO;
+import com.nickolss.backend.models.dtos.NoteRevisionDTO;
+import com.nickolss.backend.models.dtos.NoteSummaryDTO;
+import com.nickolss.backend.models.projections.NoteSummaryRow;
 import com.nickolss.backend.repositories.NoteRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 public class NoteService {
 
-    private final NoteRepository noteRepository;
+    private static final int MAX_BULK_IDS = 1_000;
 
-    public NoteService(NoteRepository noteRepository) {
+    private final NoteRepository noteRepository;
+    private final NoteTagService noteTagService;
+    private final NoteRevisionService noteRevisionService;
+    private final NoteContentService noteContentService;
+    private final TransactionTemplate transactionTemplate;
+
+    public NoteService(NoteRepository noteRepository, NoteTagService noteTagService,
+                       NoteRevisionService noteRevisionService, NoteContentService noteContentService,
+                       TransactionTemplate transactionTemplate) {
         this.noteRepository = noteRepository;
+        this.noteTagService = noteTagService;
+        this.noteRevisionService = noteRevisionService;
+        this.noteContentService = noteContentService;
+        this.transactionTemplate = transactionTemplate;
     }
 
     // --- Mapper ---
@@ -34,6 +54,23 @@ public class NoteService {
                 .build();
     }
 
+    private NoteSummaryDTO toSummaryDTO(NoteSummaryRow row) {
+        String preview = row.preview();
+        boolean truncated = preview != null && preview.length() > NoteRepository.PREVIEW_LENGTH;
+        return NoteSummaryDTO.builder()
+                .id(row.id())
+                .title(row.title())
+                .preview(truncated ? preview.substring(0, NoteRepository.PREVIEW_LENGTH) : preview)
+                .truncated(truncated)
+                .category(row.category())
+                .tags(row.tags())
+                .isPinned(row.isPinned())
+                .color(row.color())
+                .createdAt(row.createdAt())
+                .updatedAt(row.updatedAt())
+                .build();
+    }
+
     // --- Métodos ---
     public List<NoteDTO> getNotes(String userId) {
         return noteRepository.findByUserIdOrderByIsPinnedDescUpdatedAtDesc(userId)
@@ -42,11 +79,41 @@ public class NoteService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * @param tags  filtro opcional de tags
+     * @param match "any" (padrão): notas com qualquer uma das tags; "all": notas com todas
+     */
+    public List<NoteDTO> getNotes(String userId, List<String> tags, String match) {
+        if (tags == null || tags.isEmpty()) return getNotes(userId);
+
+        String[] filter = tags.toArray(String[]::new);
+        List<NoteEntity> notes;
+        if (match == null || match.equals("any")) notes = noteRepository.findByUserIdAndAnyTag(userId, filter);
+        else if (match.equals("all")) notes = noteRepository.findByUserIdAndAllTags(userId, filter);
+        else throw new IllegalArgumentException("match inválido (use any ou all)");
+
+        return notes.stream().map(this::toDTO).collect(Collectors.toList());
+    }
+
+    // Lista sem o conteúdo completo: metadados + preview de tamanho fixo gerado no banco
+    public List<NoteSummaryDTO> getNoteSummaries(String userId) {
+        return noteRepository.findSummariesByUserId(userId)
+                .stream()
+                .map(this::toSummaryDTO)
+                .collect(Collectors.toList());
+    }
+
+    public NoteDTO getNote(String userId, Long noteId) {
+        return noteRepository.findByIdAndUserId(noteId, userId)
+                .map(this::toDTO)
+                .orElseThrow(() -> new RuntimeException("Nota não encontrada ou acesso negado"));
+    }
+
     public NoteDTO createNote(String userId, NoteDTO dto) {
         NoteEntity entity = new NoteEntity();
         entity.setUserId(userId);
         entity.setTitle(dto.getTitle());
-        entity.setContent(dto.getContent());
+        noteContentService.store(entity, dto.getContent());
         entity.setCategory(dto.getCategory());
         entity.setTags(dto.getTags());
         entity.setIsPinned(dto.getIsPinned() != null ? dto.getIsPinned() : false);
@@ -54,30 +121,77 @@ public class NoteService {
 
         entity.setUpdatedAt(LocalDateTime.now());
 
-        return toDTO(noteRepository.save(entity));
+        NoteDTO saved = transactionTemplate.execute(status -> {
+            NoteEntity note = noteRepository.save(entity);
+            noteContentService.index(note);
+            noteRevisionService.recordCreated(note);
+            return toDTO(note);
+        });
+        noteTagService.invalidate(userId);
+        return saved;
     }
 
     public NoteDTO updateNote(String userId, Long noteId, NoteDTO updates) {
-        NoteEntity entity = noteRepository.findByIdAndUserId(noteId, userId)
-                .orElseThrow(() -> new RuntimeException("Nota não encontrada ou acesso negado"));
-
-        // Atualização Parcial (Patch logic)
-        if (updates.getTitle() != null) entity.setTitle(updates.getTitle());
-        if (updates.getContent() != null) entity.setContent(updates.getContent());
-        if (updates.getCategory() != null) entity.setCategory(updates.getCategory());
-        if (updates.getTags() != null) entity.setTags(updates.getTags());
-        if (updates.getIsPinned() != null) entity.setIsPinned(updates.getIsPinned());
-        if (updates.getColor() != null) entity.setColor(updates.getColor());
+        NoteDTO saved = transactionTemplate.execute(status -> {
+            NoteEntity entity = noteRepository.findForUpdate(noteId, userId)
+                    .orElseThrow(() -> new RuntimeException("Nota não encontrada ou acesso negado"));
+            String previousTitle = entity.getTitle();
+            String previousContent = entity.getContent();
+            LocalDateTime previousAt = entity.getUpdatedAt();
+
+            // Atualização Parcial (Patch logic)
+            if (updates.getTitle() != null) entity.setTitle(updates.getTitle());
+            if (updates.getContent() != null) noteContentService.store(entity, updates.getContent());
+            if (updates.getCategory() != null) entity.setCategory(updates.getCategory());
+            if (updates.getTags() != null) entity.setTags(updates.getTags());
+            if (updates.getIsPinned() != null) entity.setIsPinned(updates.getIsPinned());
+            if (updates.getColor() != null) entity.setColor(updates.getColor());
+
+            entity.setUpdatedAt(LocalDateTime.now());
+
+            NoteEntity note = noteRepository.save(entity);
+            if (updates.getContent() != null) noteContentService.index(note);
+            // Só título e conteúdo são versionados (fixar, cor e tags não geram revisão)
+            if (!Objects.equals(previousTitle, note.getTitle()) || !Objects.equals(previousContent, note.getContent())) {
+                noteRevisionService.recordChange(note, previousTitle, previousContent, previousAt);
+            }
+            return toDTO(note);
+        });
+        noteTagService.invalidate(userId);
+        return saved;
+    }
 
-        entity.setUpdatedAt(LocalDateTime.now());
+    // Volta título e conteúdo para os da revisão; vira uma revisão nova (o histórico posterior é mantido)
+    public NoteDTO restoreRevision(String userId, Long noteId, int revision) {
+        NoteRevisionDTO source = noteRevisionService.getRevision(userId, noteId, revision);
+        return updateNote(userId, noteId, NoteDTO.builder()
+                .title(source.getTitle())
+                .content(source.getContent())
+                .build());
+    }
 
-        return toDTO(noteRepository.save(entity));
+    // Pin não mexe em título/conteúdo: não gera revisão nem invalida o cache de tags
+    @Transactional
+    public BulkResultDTO setPinned(String userId, NoteBulkPinRequestDTO request) {
+        List<Long> ids = request.getIds();
+        if (ids == null || ids.isEmpty() || request.getPinned() == null) {
+            throw new IllegalArgumentException("Informe ids e pinned");
+        }
+        if (ids.size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("Máximo de " + MAX_BULK_IDS + " ids por requisição");
+        }
+        int affected = noteRepository.updatePinned(userId, ids, request.getPinned(), LocalDateTime.now());
+        return BulkResultDTO.builder().affected(affected).build();
     }
 
     public void deleteNote(String userId, Long noteId) {
-        NoteEntity entity = noteRepository.findByIdAndUserId(noteId, userId)
-                .orElseThrow(() -> new RuntimeException("Nota não encontrada ou acesso negado"));
-
-        noteRepository.delete(entity);
+        transactionTemplate.executeWithoutResult(status -> {
+            NoteEntity entity = noteRepository.findForUpdate(noteId, userId)
+                    .orElseThrow(() -> new RuntimeException("Nota não encontrada ou acesso negado"));
+
+            noteRepository.delete(entity);
+            noteRevisionService.deleteRevisions(noteId);
+        });
+        noteTagService.invalidate(userId);
     }
 }
@@ -0,0 +1,77 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.NoteTagCountDTO;
+import com.nickolss.backend.utils.TagDictionary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Facetas e autocomplete das tags das notas.
+ * As contagens saem de uma agregação no banco (unnest das tags) e ficam num TagDictionary por usuário,
+ * em cache LRU; o NoteService invalida a entrada do usuário a cada nota criada, alterada ou removida.
+ */
+@Service
+public class NoteTagService {
+
+    private static final int CACHE_MAX_USERS = 1_000;
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private static final String TAG_COUNTS_SQL =
+            "SELECT t.tag, count(*) AS notes FROM notes n, unnest(n.tags) AS t(tag) " +
+            "WHERE n.user_id = ? AND t.tag <> '' GROUP BY t.tag";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, TagDictionary> dictionaries = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TagDictionary> eldest) {
+                    return size() > CACHE_MAX_USERS;
+                }
+            });
+    // Incrementado a cada invalidação: um dicionário montado antes de uma alteração não entra no cache
+    private final AtomicLong generation = new AtomicLong();
+
+    public NoteTagService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<NoteTagCountDTO> getFacets(String userId) {
+        return dictionaryFor(userId).all().stream().map(this::toDTO).toList();
+    }
+
+    public List<NoteTagCountDTO> suggest(String userId, String prefix, Integer limit) {
+        int max = limit == null ? 10 : Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        return dictionaryFor(userId).suggest(prefix, max).stream().map(this::toDTO).toList();
+    }
+
+    public void invalidate(String userId) {
+        synchronized (dictionaries) {
+            generation.incrementAndGet();
+            dictionaries.remove(userId);
+        }
+    }
+
+    private TagDictionary dictionaryFor(String userId) {
+        TagDictionary dictionary = dictionaries.get(userId);
+        if (dictionary == null) {
+            long loadedAt = generation.get();
+            dictionary = new TagDictionary(jdbcTemplate.query(TAG_COUNTS_SQL,
+                    (rs, rowNum) -> new TagDictionary.Entry(rs.getString("tag"), rs.getLong("notes")), userId));
+            synchronized (dictionaries) {
+                if (generation.get() == loadedAt) dictionaries.put(userId, dictionary);
+            }
+        }
+        return dictionary;
+    }
+
+    private NoteTagCountDTO toDTO(TagDictionary.Entry entry) {
+        return NoteTagCountDTO.builder().tag(entry.tag()).count(entry.count()).build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.repositories.ProjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Contadores de tarefas vinculadas no projeto (task_count, completed_task_count) e o progresso derivado deles.
+ * Cada mudança de tarefa aplica um delta na mesma transação (UPDATE atômico na linha do projeto), então ler o
+ * projeto nunca reconta tarefas. O job de reparo reconta em lote e corrige só o que divergiu.
+ */
+@Service
+public class ProjectCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectCounterService.class);
+
+    // Trava a faixa de projetos antes de recontar: o UPDATE seguinte (READ COMMITTED) enxerga todo delta já
+    // commitado, e as transações que ainda vão aplicar delta esperam o reparo terminar
+    private static final String LOCK_RANGE_SQL = "SELECT id FROM projects WHERE id BETWEEN ? AND ? FOR UPDATE";
+    private static final String REPAIR_RANGE_SQL = "UPDATE projects p SET task_count = c.total, completed_task_count = c.done, " +
+            "progress = CASE WHEN c.total > 0 THEN CAST(round(100.0 * c.done / c.total) AS integer) ELSE p.progress END " +
+            "FROM (SELECT pr.id, count(t.id) AS total, count(t.id) FILTER (WHERE t.completed) AS done " +
+            "      FROM projects pr LEFT JOIN tasks t ON t.project_id = pr.id " +
+            "      WHERE pr.id BETWEEN ? AND ? GROUP BY pr.id) c " +
+            "WHERE p.id = c.id AND (p.task_count <> c.total OR p.completed_task_count <> c.done)";
+    // Tarefa vinculada a um projeto já deletado: só dados antigos, de antes do lock do projeto no vínculo da tarefa
+    private static final String UNLINK_DANGLING_SQL = "UPDATE tasks t SET project_id = NULL " +
+            "WHERE t.project_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM projects p WHERE p.id = t.project_id)";
+
+    private final ProjectRepository projectRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final AtomicBoolean repairing = new AtomicBoolean(false);
+
+    public ProjectCounterService(ProjectRepository projectRepository, JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${projects.counters.chunk-size:1000}") int chunkSize) {
+        this.projectRepository = projectRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Delta de uma tarefa que saiu de (fromProject, wasCompleted) para (toProject, completed);
+     * null = sem projeto (tarefa criada, deletada ou desvinculada).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void taskChanged(Long fromProject, boolean wasCompleted, Long toProject, boolean completed) {
+        SortedMap<Long, int[]> deltas = new TreeMap<>();
+        if (fromProject != null) add(deltas, fromProject, -1, wasCompleted ? -1 : 0);
+        if (toProject != null) add(deltas, toProject, 1, completed ? 1 : 0);
+        apply(deltas);
+    }
+
+    /**
+     * Aplica os deltas (projeto → {tarefas, concluídas}) em ordem de id: duas transações que mexem nos mesmos
+     * projetos travam as linhas na mesma ordem e não entram em deadlock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(SortedMap<Long, int[]> deltas) {
+        for (Map.Entry<Long, int[]> entry : deltas.entrySet()) {
+            int[] delta = entry.getValue();
+            if (delta[0] != 0 || delta[1] != 0) {
+                projectRepository.adjustTaskCounters(entry.getKey(), delta[0], delta[1]);
+            }
+        }
+    }
+
+    // Acumula o delta de uma tarefa (ações em lote somam várias antes de aplicar)
+    public static void add(SortedMap<Long, int[]> deltas, Long projectId, int tasks, int completed) {
+        int[] delta = deltas.computeIfAbsent(projectId, id -> new int[2]);
+        delta[0] += tasks;
+        delta[1] += completed;
+    }
+
+    @Scheduled(cron = "${projects.counters.repair-cron:0 15 5 * * SUN}")
+    public void scheduledRepair() {
+        try {
+            repair();
+        } catch (IllegalStateException e) {
+            log.warn("Reparo dos contadores de projetos ignorado: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reconta as tarefas de todos os projetos em faixas de id (uma transação por faixa) e corrige os contadores
+     * e o progresso dos que divergiram; antes, desvincula tarefas que apontam para projetos que não existem mais.
+     */
+    public Map<String, Object> repair() {
+        if (!repairing.compareAndSet(false, true)) {
+            throw new IllegalStateException("Reparo dos contadores de projetos já em andamento");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int unlinked = jdbcTemplate.update(UNLINK_DANGLING_SQL);
+            Long maxId = jdbcTemplate.queryForObject("SELECT max(id) FROM projects", Long.class);
+
+            long repaired = 0;
+            for (long from = 1; maxId != null && from <= maxId; from += chunkSize) {
+                long to = from + chunkSize - 1;
+                long rangeStart = from;
+                Integer count = transactionTemplate.execute(status -> {
+                    jdbcTemplate.queryForList(LOCK_RANGE_SQL, Long.class, rangeStart, to);
+                    return jdbcTemplate.update(REPAIR_RANGE_SQL, rangeStart, to);
+                });
+                repaired += count != null ? count : 0;
+            }
+            long elapsed = System.currentTimeMillis() - start;
+            if (repaired > 0 || unlinked > 0) {
+                log.warn("Contadores de projetos divergentes corrigidos: {} projetos, {} tarefas desvinculadas, {} ms",
+                        repaired, unlinked, elapsed);
+            }
+            return Map.of("repaired", repaired, "unlinkedTasks", unlinked, "elapsedMs", elapsed);
+        } finally {
+            repairing.set(false);
+        }
+    }
+}
@@ -1,21 +1,34 @@
 package com.nickolss.backend.services;
 
 import com.nickolss.backend.models.ProjectEntity;
+import com.nickolss.backend.models.dtos.BulkResultDTO;
+import com.nickolss.backend.models.dtos.ProjectBulkStatusRequestDTO;
 import com.nickolss.backend.models.dtos.ProjectDTO;
 import com.nickolss.backend.repositories.ProjectRepository;
+import com.nickolss.backend.repositories.TaskRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 public class ProjectService {
 
+    private static final int MAX_BULK_IDS = 1_000;
+
     private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
+    private final ReminderService reminderService;
 
-    public ProjectService(ProjectRepository projectRepository) {
+    public ProjectService(ProjectRepository projectRepository, TaskRepository taskRepository,
+                          ReminderService reminderService) {
         this.projectRepository = projectRepository;
+        this.taskRepository = taskRepository;
+        this.reminderService = reminderService;
     }
 
     // --- Mapper Auxiliar ---
@@ -25,6 +38,8 @@ public class ProjectService {
                 .name(entity.getName())
                 .description(entity.getDescription())
                 .progress(entity.getProgress())
+                .taskCount(entity.getTaskCount())
+                .completedTaskCount(entity.getCompletedTaskCount())
                 .status(entity.getStatus())
                 .priority(entity.getPriority())
                 .startDate(entity.getStartDate())
@@ -56,17 +71,23 @@ public class ProjectService {
 
         entity.setUpdatedAt(LocalDateTime.now());
 
-        return toDTO(projectRepository.save(entity));
+        ProjectEntity saved = projectRepository.save(entity);
+        reminderService.projectChanged(saved, true);
+        return toDTO(saved);
     }
 
     public ProjectDTO updateProject(String userId, Long projectId, ProjectDTO updates) {
         ProjectEntity entity = projectRepository.findByIdAndUserId(projectId, userId)
                 .orElseThrow(() -> new RuntimeException("Projeto não encontrado ou acesso negado"));
 
+        LocalDate previousDueDate = entity.getDueDate();
+        boolean wasCompleted = "completed".equals(entity.getStatus());
+
         // Lógica de Patch (Atualização Parcial)
         if (updates.getName() != null) entity.setName(updates.getName());
         if (updates.getDescription() != null) entity.setDescription(updates.getDescription());
-        if (updates.getProgress() != null) entity.setProgress(updates.getProgress());
+        // Com tarefas vinculadas o progresso é calculado por elas; manual só em projeto sem tarefas
+        if (updates.getProgress() != null && entity.getTaskCount() == 0) entity.setProgress(updates.getProgress());
         if (updates.getStatus() != null) entity.setStatus(updates.getStatus());
         if (updates.getPriority() != null) entity.setPriority(updates.getPriority());
         if (updates.getStartDate() != null) entity.setStartDate(updates.getStartDate());
@@ -75,13 +96,41 @@ public class ProjectService {
 
         entity.setUpdatedAt(LocalDateTime.now());
 
-        return toDTO(projectRepository.save(entity));
+        ProjectEntity saved = projectRepository.save(entity);
+        boolean rescheduled = !Objects.equals(previousDueDate, saved.getDueDate())
+                || (wasCompleted && !"completed".equals(saved.getStatus()));
+        reminderService.projectChanged(saved, rescheduled);
+        return toDTO(saved);
+    }
+
+    @Transactional
+    public BulkResultDTO updateStatus(String userId, ProjectBulkStatusRequestDTO request) {
+        List<Long> ids = request.getIds();
+        if (ids == null || ids.isEmpty() || request.getStatus() == null) {
+            throw new IllegalArgumentException("Informe ids e status");
+        }
+        if (ids.size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("Máximo de " + MAX_BULK_IDS + " ids por requisição");
+        }
+        int affected = projectRepository.updateStatus(userId, ids, request.getStatus(), LocalDateTime.now());
+        if (affected > 0) reminderService.projectsChanged(userId);
+        return BulkResultDTO.builder().affected(affected).build();
     }
 
+    // As tarefas do projeto continuam, sem vínculo. Desvincula antes de travar o projeto: mesma ordem de locks
+    // (tarefa, depois projeto) das edições de tarefa. Com o projeto travado, nenhuma tarefa nova é vinculada
+    // (TaskService.projectOf espera o commit e não o encontra mais); o segundo UPDATE pega as vinculadas no meio
+    @Transactional
     public void deleteProject(String userId, Long projectId) {
-        ProjectEntity entity = projectRepository.findByIdAndUserId(projectId, userId)
-                .orElseThrow(() -> new RuntimeException("Projeto não encontrado ou acesso negado"));
+        if (!projectRepository.existsByIdAndUserId(projectId, userId)) {
+            throw new RuntimeException("Projeto não encontrado ou acesso negado");
+        }
 
+        taskRepository.unlinkProject(projectId);
+        ProjectEntity entity = projectRepository.findForUpdate(projectId, userId)
+                .orElseThrow(() -> new RuntimeException("Projeto não encontrado ou acesso negado"));
+        taskRepository.unlinkProject(projectId);
         projectRepository.delete(entity);
+        reminderService.projectDeleted(projectId);
     }
 }
\ No newline at end of file
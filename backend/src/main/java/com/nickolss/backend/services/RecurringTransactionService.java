@@ -0,0 +1,347 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.AccountEntity;
+import com.nickolss.backend.models.RecurringTransactionEntity;
+import com.nickolss.backend.models.dtos.RecurringRunResultDTO;
+import com.nickolss.backend.models.dtos.RecurringTransactionDTO;
+import com.nickolss.backend.repositories.AccountRepository;
+import com.nickolss.backend.repositories.RecurringTransactionRepository;
+import com.nickolss.backend.utils.RecurrenceUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transações recorrentes (aluguel, salário, assinaturas).
+ * Um job varre as regras vencidas de todos os usuários, insere as ocorrências em lote e aplica os efeitos
+ * (saldo, rollups, checkpoints) agregados por conta. É idempotente: a próxima data avança na mesma transação
+ * do insert e o índice único (recurrence_id, date) descarta qualquer ocorrência repetida.
+ */
+@Service
+public class RecurringTransactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecurringTransactionService.class);
+
+    private static final int RULE_BATCH_SIZE = 500;
+    private static final int INSERT_CHUNK_SIZE = 1_000;
+    // Limite de ocorrências geradas por regra em cada passada; o restante do atraso vem nas passadas seguintes
+    private static final int MAX_OCCURRENCES_PER_PASS = 400;
+
+    // Um único INSERT por chunk (arrays + unnest). RETURNING devolve só as linhas realmente inseridas,
+    // e são elas que geram efeito no saldo.
+    private static final String INSERT_SQL = "INSERT INTO transactions " +
+            "(user_id, account_id, description, amount, type, category, date, recurrence_id) " +
+            "SELECT * FROM unnest(?::varchar[], ?::bigint[], ?::varchar[], ?::numeric[], ?::varchar[], " +
+            "?::varchar[], ?::date[], ?::bigint[]) " +
+            "ON CONFLICT (recurrence_id, date) DO NOTHING " +
+            "RETURNING user_id, account_id, amount, type, category, date";
+
+    private final RecurringTransactionRepository recurringRepository;
+    private final AccountRepository accountRepository;
+    private final FinanceRollupService rollupService;
+    private final BalanceCheckpointService checkpointService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean runOnStartup;
+
+    public RecurringTransactionService(RecurringTransactionRepository recurringRepository,
+                                       AccountRepository accountRepository,
+                                       FinanceRollupService rollupService,
+                                       BalanceCheckpointService checkpointService,
+                                       JdbcTemplate jdbcTemplate,
+                                       TransactionTemplate transactionTemplate,
+                                       @Value("${finance.recurring.run-on-startup:true}") boolean runOnStartup) {
+        this.recurringRepository = recurringRepository;
+        this.accountRepository = accountRepository;
+        this.rollupService = rollupService;
+        this.checkpointService = checkpointService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.runOnStartup = runOnStartup;
+    }
+
+    // --- CRUD ---
+    public List<RecurringTransactionDTO> getRules(String userId) {
+        return recurringRepository.findByUserIdOrderByNextRunDateAscIdAsc(userId)
+                .stream().map(this::toDTO).collect(Collectors.toList());
+    }
+
+    /**
+     * Cria a regra e já gera as ocorrências vencidas (startDate no passado), sem esperar o próximo job.
+     */
+    @Transactional
+    public RecurringTransactionDTO createRule(String userId, RecurringTransactionDTO dto) {
+        validate(dto);
+        accountRepository.findByIdAndUserId(dto.getAccountId(), userId)
+                .orElseThrow(() -> new IllegalArgumentException("Conta não encontrada"));
+
+        RecurringTransactionEntity entity = new RecurringTransactionEntity();
+        entity.setUserId(userId);
+        entity.setAccountId(dto.getAccountId());
+        entity.setDescription(dto.getDescription());
+        entity.setAmount(dto.getAmount());
+        entity.setType(dto.getType());
+        entity.setCategory(dto.getCategory());
+        entity.setFrequency(dto.getFrequency());
+        entity.setIntervalCount(dto.getIntervalCount() != null ? dto.getIntervalCount() : 1);
+        entity.setStartDate(dto.getStartDate());
+        entity.setEndDate(dto.getEndDate());
+        entity.setNextRunDate(dto.getStartDate());
+        entity.setActive(true);
+        entity.setUpdatedAt(LocalDateTime.now());
+        recurringRepository.save(entity);
+
+        LocalDate today = LocalDate.now();
+        // Catch-up longo (regra antiga) fica limitado por passada; o job completa o resto
+        if (!entity.getNextRunDate().isAfter(today)) {
+            materialize(List.of(entity), today);
+        }
+        return toDTO(entity);
+    }
+
+    /**
+     * Altera apenas as próximas ocorrências; as transações já geradas não mudam.
+     * Ao reativar, a regra pula para a próxima data a partir de hoje em vez de gerar o período pausado.
+     */
+    @Transactional
+    public RecurringTransactionDTO updateRule(String userId, Long ruleId, RecurringTransactionDTO updates) {
+        RecurringTransactionEntity entity = recurringRepository.findByIdAndUserId(ruleId, userId)
+                .orElseThrow(() -> new RuntimeException("Regra recorrente não encontrada"));
+
+        if (updates.getDescription() != null) entity.setDescription(updates.getDescription());
+        if (updates.getCategory() != null) entity.setCategory(updates.getCategory());
+        if (updates.getAmount() != null) {
+            if (updates.getAmount().signum() <= 0) throw new IllegalArgumentException("Valor deve ser maior que zero");
+            entity.setAmount(updates.getAmount());
+        }
+        if (updates.getEndDate() != null) entity.setEndDate(updates.getEndDate());
+        if (updates.getActive() != null) {
+            if (updates.getActive() && !entity.getActive()) {
+                entity.setNextRunDate(RecurrenceUtils.firstOnOrAfter(entity.getFrequency(), entity.getIntervalCount(),
+                        entity.getStartDate(), entity.getNextRunDate(), LocalDate.now()));
+            }
+            entity.setActive(updates.getActive());
+        }
+
+        entity.setUpdatedAt(LocalDateTime.now());
+        return toDTO(recurringRepository.save(entity));
+    }
+
+    public void deleteRule(String userId, Long ruleId) {
+        RecurringTransactionEntity entity = recurringRepository.findByIdAndUserId(ruleId, userId)
+                .orElseThrow(() -> new RuntimeException("Regra recorrente não encontrada"));
+        recurringRepository.delete(entity);
+    }
+
+    // --- JOB ---
+    @Scheduled(cron = "${finance.recurring.cron:0 5 * * * *}")
+    public void scheduledRun() {
+        runDue(LocalDate.now());
+    }
+
+    // Catch-up após downtime: o que venceu enquanto a aplicação estava fora é gerado na subida
+    @EventListener(ApplicationReadyEvent.class)
+    public void runAtStartup() {
+        if (!runOnStartup) return;
+        try {
+            runDue(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.error("Falha ao gerar transações recorrentes na inicialização", e);
+        }
+    }
+
+    /**
+     * Gera todas as ocorrências com data <= runDate. Cada lote de regras roda numa transação própria,
+     * então uma falha no meio não desfaz os lotes anteriores e a próxima execução continua de onde parou.
+     */
+    public RecurringRunResultDTO runDue(LocalDate runDate) {
+        long start = System.nanoTime();
+        int rules = 0;
+        int created = 0;
+
+        while (true) {
+            int[] batch = transactionTemplate.execute(status -> {
+                List<RecurringTransactionEntity> due = recurringRepository.lockDue(runDate, RULE_BATCH_SIZE);
+                if (due.isEmpty()) return null;
+                return new int[]{due.size(), materialize(due, runDate)};
+            });
+            if (batch == null) break;
+            rules += batch[0];
+            created += batch[1];
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        if (created > 0) {
+            log.info("Recorrentes: {} transações geradas a partir de {} regras em {} ms", created, rules, durationMs);
+        }
+        return RecurringRunResultDTO.builder()
+                .runDate(runDate).rulesProcessed(rules).transactionsCreated(created).durationMs(durationMs).build();
+    }
+
+    /**
+     * Gera as ocorrências vencidas das regras (já travadas pelo chamador) e avança next_run_date.
+     * Regras cuja conta não existe mais são desativadas.
+     */
+    private int materialize(List<RecurringTransactionEntity> rules, LocalDate runDate) {
+        Map<Long, AccountEntity> accounts = accountRepository.findAllById(
+                        rules.stream().map(RecurringTransactionEntity::getAccountId).distinct().toList())
+                .stream().collect(Collectors.toMap(AccountEntity::getId, Function.identity()));
+
+        List<Occurrence> occurrences = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (RecurringTransactionEntity rule : rules) {
+            AccountEntity account = accounts.get(rule.getAccountId());
+            if (account == null || !account.getUserId().equals(rule.getUserId())) {
+                rule.setActive(false);
+                rule.setUpdatedAt(now);
+                continue;
+            }
+
+            LocalDate date = rule.getNextRunDate();
+            int generated = 0;
+            while (!date.isAfter(runDate) && generated < MAX_OCCURRENCES_PER_PASS) {
+                if (rule.getEndDate() != null && date.isAfter(rule.getEndDate())) break;
+                occurrences.add(new Occurrence(rule, date));
+                date = RecurrenceUtils.next(rule.getFrequency(), rule.getIntervalCount(), rule.getStartDate(), date);
+                generated++;
+            }
+            rule.setNextRunDate(date);
+            if (rule.getEndDate() != null && date.isAfter(rule.getEndDate())) rule.setActive(false);
+            rule.setUpdatedAt(now);
+        }
+
+        List<InsertedRow> inserted = new ArrayList<>(occurrences.size());
+        for (int from = 0; from < occurrences.size(); from += INSERT_CHUNK_SIZE) {
+            inserted.addAll(insertChunk(occurrences.subList(from, Math.min(from + INSERT_CHUNK_SIZE, occurrences.size()))));
+        }
+        applyEffects(inserted, now);
+        return inserted.size();
+    }
+
+    private List<InsertedRow> insertChunk(List<Occurrence> chunk) {
+        int size = chunk.size();
+        String[] userIds = new String[size];
+        Long[] accountIds = new Long[size];
+        String[] descriptions = new String[size];
+        BigDecimal[] amounts = new BigDecimal[size];
+        String[] types = new String[size];
+        String[] categories = new String[size];
+        Date[] dates = new Date[size];
+        Long[] recurrenceIds = new Long[size];
+        for (int i = 0; i < size; i++) {
+            RecurringTransactionEntity rule = chunk.get(i).rule();
+            userIds[i] = rule.getUserId();
+            accountIds[i] = rule.getAccountId();
+            descriptions[i] = rule.getDescription();
+            amounts[i] = rule.getAmount();
+            types[i] = rule.getType();
+            categories[i] = rule.getCategory();
+            dates[i] = Date.valueOf(chunk.get(i).date());
+            recurrenceIds[i] = rule.getId();
+        }
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_SQL);
+            ps.setArray(1, array(connection, "varchar", userIds));
+            ps.setArray(2, array(connection, "bigint", accountIds));
+            ps.setArray(3, array(connection, "varchar", descriptions));
+            ps.setArray(4, array(connection, "numeric", amounts));
+            ps.setArray(5, array(connection, "varchar", types));
+            ps.setArray(6, array(connection, "varchar", categories));
+            ps.setArray(7, array(connection, "date", dates));
+            ps.setArray(8, array(connection, "bigint", recurrenceIds));
+            return ps;
+        }, (rs, rowNum) -> new InsertedRow(rs.getString("user_id"), rs.getLong("account_id"),
+                rs.getBigDecimal("amount"), rs.getString("type"), rs.getString("category"),
+                rs.getDate("date").toLocalDate()));
+    }
+
+    private Array array(Connection connection, String type, Object[] values) throws SQLException {
+        return connection.createArrayOf(type, values);
+    }
+
+    /**
+     * Um UPDATE de saldo por conta (ordem de id, mesma ordem de lock do resto do módulo) e
+     * um apply de rollups/checkpoints por usuário.
+     */
+    private void applyEffects(List<InsertedRow> inserted, LocalDateTime now) {
+        if (inserted.isEmpty()) return;
+
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        Map<Long, String> owners = new HashMap<>();
+        Map<String, List<InsertedRow>> byUser = new TreeMap<>();
+        for (InsertedRow row : inserted) {
+            deltas.merge(row.accountId(), row.signedAmount(), BigDecimal::add);
+            owners.put(row.accountId(), row.userId());
+            byUser.computeIfAbsent(row.userId(), k -> new ArrayList<>()).add(row);
+        }
+        deltas.forEach((accountId, delta) ->
+                accountRepository.applyBalanceDelta(accountId, owners.get(accountId), delta, now));
+
+        byUser.forEach((userId, rows) -> {
+            rollupService.apply(userId, rows.stream()
+                    .map(row -> FinanceRollupService.RollupDelta.added(
+                            row.accountId(), row.date(), row.type(), row.category(), row.amount()))
+                    .toList());
+            checkpointService.apply(userId, rows.stream()
+                    .map(row -> new BalanceCheckpointService.FlowDelta(row.accountId(), row.date(), row.signedAmount()))
+                    .toList());
+        });
+    }
+
+    private void validate(RecurringTransactionDTO dto) {
+        if (dto.getAccountId() == null) throw new IllegalArgumentException("accountId obrigatório");
+        if (dto.getAmount() == null || dto.getAmount().signum() <= 0) throw new IllegalArgumentException("Valor deve ser maior que zero");
+        if (!"income".equals(dto.getType()) && !"expense".equals(dto.getType())) throw new IllegalArgumentException("Tipo deve ser income ou expense");
+        if (dto.getFrequency() == null || !RecurrenceUtils.FREQUENCIES.contains(dto.getFrequency())) {
+            throw new IllegalArgumentException("Frequência deve ser daily, weekly, monthly ou yearly");
+        }
+        if (dto.getIntervalCount() != null && dto.getIntervalCount() < 1) throw new IllegalArgumentException("Intervalo deve ser maior que zero");
+        if (dto.getStartDate() == null) throw new IllegalArgumentException("Data inicial obrigatória");
+        if (dto.getEndDate() != null && dto.getEndDate().isBefore(dto.getStartDate())) {
+            throw new IllegalArgumentException("Data final anterior à data inicial");
+        }
+    }
+
+    private RecurringTransactionDTO toDTO(RecurringTransactionEntity e) {
+        return RecurringTransactionDTO.builder()
+                .id(e.getId()).accountId(e.getAccountId()).description(e.getDescription())
+                .amount(e.getAmount()).type(e.getType()).category(e.getCategory())
+                .frequency(e.getFrequency()).intervalCount(e.getIntervalCount())
+                .startDate(e.getStartDate()).endDate(e.getEndDate()).nextRunDate(e.getNextRunDate())
+                .active(e.getActive()).build();
+    }
+
+    private record Occurrence(RecurringTransactionEntity rule, LocalDate date) {
+    }
+
+    private record InsertedRow(String userId, Long accountId, BigDecimal amount, String type, String category,
+                               LocalDate date) {
+        BigDecimal signedAmount() {
+            return "income".equals(type) ? amount : amount.negate();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.ProjectEntity;
+import com.nickolss.backend.models.ReminderWatermarkEntity;
+import com.nickolss.backend.models.TaskEntity;
+import com.nickolss.backend.models.dtos.ReminderDTO;
+import com.nickolss.backend.models.dtos.ReminderStatusDTO;
+import com.nickolss.backend.repositories.ReminderWatermarkRepository;
+import com.nickolss.backend.utils.TimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lembretes de vencimento de tarefas abertas e projetos não concluídos: disparam às notify-at, days-before dias
+ * antes do dueDate, para todos os ReminderSink.
+ * Só a janela [agora, agora + horizon] fica em memória, num timing wheel; o banco é lido quando a janela anda
+ * (refill, na metade do horizonte) e os CRUDs de tarefas/projetos atualizam o wheel depois do commit.
+ * O watermark (reminder_watermarks) guarda até onde tudo já foi entregue: na subida, o que venceu durante o
+ * downtime e ainda não passou do vencimento é disparado.
+ */
+@Service
+public class ReminderService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderService.class);
+
+    static final String TASK = "task";
+    static final String PROJECT = "project";
+    private static final String WATERMARK = "due-dates";
+
+    // Índices: idx_tasks_open_due (schema.sql) e idx_projects_due; por usuário, idx_tasks_open_user_due e idx_projects_user_due
+    private static final String TASKS_SQL = "SELECT id, user_id, text, due_date FROM tasks " +
+            "WHERE NOT completed AND due_date BETWEEN ? AND ?";
+    private static final String PROJECTS_SQL = "SELECT id, user_id, name, due_date FROM projects " +
+            "WHERE due_date BETWEEN ? AND ? AND (status IS NULL OR status <> 'completed')";
+    private static final String BY_USER = " AND user_id = ?";
+
+    private record Key(String type, long id) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReminderWatermarkRepository watermarkRepository;
+    private final List<ReminderSink> sinks;
+    private final boolean enabled;
+    private final LocalTime notifyAt;
+    private final int daysBefore;
+    private final Duration horizon;
+    private final long tickMillis;
+
+    // Guardados por this
+    private TimingWheel<Key, ReminderDTO> wheel;
+    private LocalDateTime loadedUntil;
+    private LocalDateTime firedUntil;
+
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder refills = new LongAdder();
+
+    public ReminderService(JdbcTemplate jdbcTemplate,
+                           ReminderWatermarkRepository watermarkRepository,
+                           List<ReminderSink> sinks,
+                           @Value("${reminders.enabled:true}") boolean enabled,
+                           @Value("${reminders.notify-at:09:00}") LocalTime notifyAt,
+                           @Value("${reminders.days-before:1}") int daysBefore,
+                           @Value("${reminders.horizon-hours:48}") int horizonHours,
+                           @Value("${reminders.tick-ms:1000}") long tickMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.watermarkRepository = watermarkRepository;
+        this.sinks = sinks;
+        this.enabled = enabled;
+        this.notifyAt = notifyAt;
+        this.daysBefore = daysBefore;
+        this.horizon = Duration.ofHours(horizonHours);
+        this.tickMillis = tickMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        // Lembrete de vencimento que já passou não dispara mais: o catch-up vai no máximo até days-before dias atrás
+        LocalDateTime floor = now.toLocalDate().minusDays(daysBefore).atStartOfDay().minusSeconds(1);
+        LocalDateTime from = watermarkRepository.findById(WATERMARK)
+                .map(ReminderWatermarkEntity::getFiredUntil)
+                .filter(watermark -> watermark.isAfter(floor))
+                .orElse(floor);
+
+        synchronized (this) {
+            firedUntil = from;
+            loadedUntil = from;
+            wheel = new TimingWheel<>(tickMillis, millis(from));
+            refill(now);
+            log.info("Lembretes: {} pendentes até {}, retomando de {}", wheel.size(), loadedUntil, from);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reminders.tick-ms:1000}")
+    public void tick() {
+        List<ReminderDTO> due = new ArrayList<>();
+        LocalDateTime watermark;
+        synchronized (this) {
+            if (wheel == null) return;
+            LocalDateTime now = LocalDateTime.now();
+            wheel.advance(millis(now), due::add);
+            if (!now.plus(horizon.dividedBy(2)).isBefore(loadedUntil)) refill(now);
+            watermark = wheelTime();
+        }
+        if (!due.isEmpty()) deliver(due, watermark);
+    }
+
+    // --- Hooks dos CRUDs (aplicados depois do commit; fora de transação, na hora) ---
+
+    /**
+     * @param rescheduled tarefa nova, vencimento alterado ou reaberta: se o horário do lembrete já passou (mas o
+     *                    vencimento não), avisa na hora. Nas demais edições um lembrete que já passou não se repete.
+     */
+    public void taskChanged(TaskEntity task, boolean rescheduled) {
+        Key key = new Key(TASK, task.getId());
+        ReminderDTO reminder = Boolean.TRUE.equals(task.getCompleted()) || task.getDueDate() == null ? null
+                : reminder(TASK, task.getId(), task.getUserId(), task.getText(), task.getDueDate());
+        afterCommit(() -> apply(key, reminder, rescheduled));
+    }
+
+    public void taskDeleted(Long taskId) {
+        Key key = new Key(TASK, taskId);
+        afterCommit(() -> apply(key, null, false));
+    }
+
+    public void projectChanged(ProjectEntity project, boolean rescheduled) {
+        Key key = new Key(PROJECT, project.getId());
+        ReminderDTO reminder = "completed".equals(project.getStatus()) || project.getDueDate() == null ? null
+                : reminder(PROJECT, project.getId(), project.getUserId(), project.getName(), project.getDueDate());
+        afterCommit(() -> apply(key, reminder, rescheduled));
+    }
+
+    public void projectDeleted(Long projectId) {
+        Key key = new Key(PROJECT, projectId);
+        afterCommit(() -> apply(key, null, false));
+    }
+
+    // Ações em lote não sabem quais linhas mudaram: recarrega a janela do usuário (uma faixa de índice)
+    public void tasksChanged(String userId) {
+        afterCommit(() -> reload(userId, TASK));
+    }
+
+    public void projectsChanged(String userId) {
+        afterCommit(() -> reload(userId, PROJECT));
+    }
+
+    public synchronized ReminderStatusDTO getStatus() {
+        return ReminderStatusDTO.builder()
+                .enabled(enabled)
+                .pending(wheel != null ? wheel.size() : 0)
+                .loadedUntil(loadedUntil)
+                .firedUntil(firedUntil)
+                .fired(fired.sum())
+                .refills(refills.sum())
+                .build();
+    }
+
+    // --- Internos ---
+
+    private void apply(Key key, ReminderDTO reminder, boolean rescheduled) {
+        LocalDateTime watermark;
+        synchronized (this) {
+            if (wheel == null) return;
+            wheel.cancel(key);
+            // Além da janela: o refill carrega quando chegar a hora
+            if (reminder == null || reminder.getFireAt().isAfter(loadedUntil)) return;
+            if (wheel.schedule(key, millis(reminder.getFireAt()), reminder)) return;
+            if (!rescheduled || reminder.getDueDate().isBefore(LocalDate.now())) return;
+            watermark = wheelTime();
+        }
+        deliver(List.of(reminder), watermark);
+    }
+
+    private synchronized void reload(String userId, String type) {
+        if (wheel == null) return;
+        wheel.removeIf(reminder -> reminder.getType().equals(type) && reminder.getUserId().equals(userId));
+        load(wheelTime(), loadedUntil, type, userId);
+    }
+
+    // Chamado com o lock: hooks que chegam durante a leitura esperam e são aplicados por cima do que foi lido
+    private void refill(LocalDateTime now) {
+        LocalDateTime until = now.plus(horizon);
+        load(loadedUntil, until, TASK, null);
+        load(loadedUntil, until, PROJECT, null);
+        loadedUntil = until;
+        refills.increment();
+    }
+
+    private void load(LocalDateTime from, LocalDateTime to, String type, String userId) {
+        LocalDate firstDue = from.toLocalDate().plusDays(daysBefore);
+        LocalDate lastDue = to.toLocalDate().plusDays(daysBefore);
+        String sql = (type.equals(TASK) ? TASKS_SQL : PROJECTS_SQL) + (userId != null ? BY_USER : "");
+        Object[] args = userId != null ? new Object[]{firstDue, lastDue, userId} : new Object[]{firstDue, lastDue};
+
+        jdbcTemplate.query(sql, rs -> {
+            ReminderDTO reminder = reminder(type, rs.getLong(1), rs.getString(2), rs.getString(3),
+                    rs.getObject(4, LocalDate.class));
+            // Os que já passaram (<= from) o wheel recusa; os que já estavam nele são substituídos
+            if (!reminder.getFireAt().isAfter(to)) {
+                wheel.schedule(new Key(type, reminder.getId()), millis(reminder.getFireAt()), reminder);
+            }
+        }, args);
+    }
+
+    // Entrega fora do lock; o watermark só anda depois que os sinks receberam
+    private void deliver(List<ReminderDTO> reminders, LocalDateTime watermark) {
+        for (ReminderDTO reminder : reminders) {
+            for (ReminderSink sink : sinks) {
+                try {
+                    sink.send(reminder);
+                } catch (RuntimeException e) {
+                    log.warn("Falha ao entregar lembrete {} {} em {}", reminder.getType(), reminder.getId(),
+                            sink.getClass().getSimpleName(), e);
+                }
+            }
+        }
+        fired.add(reminders.size());
+        saveWatermark(watermark);
+    }
+
+    private synchronized void saveWatermark(LocalDateTime watermark) {
+        if (!watermark.isAfter(firedUntil)) return;
+        ReminderWatermarkEntity entity = new ReminderWatermarkEntity();
+        entity.setName(WATERMARK);
+        entity.setFiredUntil(watermark);
+        watermarkRepository.save(entity);
+        firedUntil = watermark;
+    }
+
+    private ReminderDTO reminder(String type, Long id, String userId, String title, LocalDate dueDate) {
+        return ReminderDTO.builder()
+                .type(type)
+                .id(id)
+                .userId(userId)
+                .title(title)
+                .dueDate(dueDate)
+                .fireAt(dueDate.minusDays(daysBefore).atTime(notifyAt))
+                .build();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private LocalDateTime wheelTime() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(wheel.currentMillis()), ZoneId.systemDefault());
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
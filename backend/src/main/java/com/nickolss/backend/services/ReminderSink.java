@@ -0,0 +1,12 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.ReminderDTO;
+
+/**
+ * Destino dos lembretes disparados pelo ReminderService. Todo bean que implementa recebe cada lembrete;
+ * send roda na thread do agendador, então não deve bloquear (IO lento vai assíncrono).
+ */
+public interface ReminderSink {
+
+    void send(ReminderDTO reminder);
+}
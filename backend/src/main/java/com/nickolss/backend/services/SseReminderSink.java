@@ -0,0 +1,51 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.ReminderDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Entrega os lembretes às conexões SSE abertas do usuário (GET /api/reminders/stream); sem conexão, o evento se perde
+@Component
+public class SseReminderSink implements ReminderSink {
+
+    private static final long TIMEOUT_MS = 30 * 60 * 1000L; // o cliente reconecta (EventSource faz isso sozinho)
+
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(TIMEOUT_MS);
+        emitters.compute(userId, (id, list) -> {
+            List<SseEmitter> userEmitters = list != null ? list : new CopyOnWriteArrayList<>();
+            userEmitters.add(emitter);
+            return userEmitters;
+        });
+        Runnable remove = () -> emitters.computeIfPresent(userId, (id, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+
+    @Override
+    public void send(ReminderDTO reminder) {
+        List<SseEmitter> userEmitters = emitters.get(reminder.getUserId());
+        if (userEmitters == null) return;
+        for (SseEmitter emitter : userEmitters) {
+            try {
+                emitter.send(SseEmitter.event().name("reminder").data(reminder));
+            } catch (IOException | IllegalStateException e) {
+                // Conexão caída: o onError/onCompletion remove o emitter
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.TaskEntity;
+import com.nickolss.backend.repositories.TaskRepository;
+import com.nickolss.backend.utils.RankKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Chaves da ordem manual das tarefas (rank_key). Mover uma tarefa grava só a chave dela, entre as dos vizinhos;
+ * o job de rebalanceamento regrava as chaves do usuário, curtas e espaçadas, quando alguma passa de max-key-length,
+ * quando há chaves repetidas (criações/movimentos concorrentes) ou tarefas ainda sem chave (anteriores à ordem manual).
+ */
+@Service
+public class TaskRankService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskRankService.class);
+
+    private static final String USERS_TO_REBALANCE_SQL = "SELECT user_id FROM tasks GROUP BY user_id " +
+            "HAVING max(length(rank_key)) > ? OR count(*) > count(rank_key) OR count(rank_key) > count(DISTINCT rank_key)";
+    // Mesma ordem da listagem: sem chave no fim, das mais recentes para as mais antigas
+    private static final String LOCK_USER_TASKS_SQL = "SELECT id FROM tasks WHERE user_id = ? ORDER BY rank_key, id DESC FOR UPDATE";
+    private static final String UPDATE_RANK_SQL = "UPDATE tasks SET rank_key = ? WHERE id = ?";
+
+    private final TaskRepository taskRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxKeyLength;
+    private final AtomicBoolean rebalancing = new AtomicBoolean(false);
+
+    public TaskRankService(TaskRepository taskRepository, JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${tasks.ranking.max-key-length:24}") int maxKeyLength) {
+        this.taskRepository = taskRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    // Tarefa nova entra no topo, como na ordem por criação
+    public String keyForNewTask(String userId) {
+        return RankKeys.between(null, taskRepository.findFirstRankKey(userId));
+    }
+
+    /**
+     * Chave para colocar a tarefa logo depois de previous ou, sem previous, logo antes de next.
+     * O outro lado é o vizinho atual no banco, não o que o cliente viu: com a lista desatualizada a tarefa ainda cai
+     * ao lado da âncora. Se a âncora ainda não tem chave, rebalanceia o usuário antes (uma vez).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String keyForMove(String userId, TaskEntity task, Long previousId, Long nextId) {
+        if (previousId == null && nextId == null) throw new IllegalArgumentException("Informe previousId ou nextId");
+        Long anchorId = previousId != null ? previousId : nextId;
+        if (anchorId.equals(task.getId())) throw new IllegalArgumentException("A tarefa não pode ser vizinha de si mesma");
+
+        String anchor = anchorKey(userId, anchorId);
+        if (anchor == null) {
+            rebalanceUser(userId);
+            anchor = anchorKey(userId, anchorId);
+        }
+        if (previousId != null) {
+            return RankKeys.between(anchor, taskRepository.findNextRankKey(userId, anchor, task.getId()));
+        }
+        return RankKeys.between(taskRepository.findPreviousRankKey(userId, anchor, task.getId()), anchor);
+    }
+
+    // Consulta escalar, não a entidade: depois do rebalanceamento (JDBC) a do contexto de persistência está desatualizada
+    private String anchorKey(String userId, Long taskId) {
+        if (!taskRepository.existsByIdAndUserId(taskId, userId)) {
+            throw new RuntimeException("Tarefa vizinha não encontrada ou acesso negado");
+        }
+        return taskRepository.findRankKey(taskId);
+    }
+
+    @Scheduled(cron = "${tasks.ranking.rebalance-cron:0 45 4 * * *}")
+    public void scheduledRebalance() {
+        try {
+            rebalance();
+        } catch (IllegalStateException e) {
+            log.warn("Rebalanceamento da ordem manual ignorado: {}", e.getMessage());
+        }
+    }
+
+    // Preenche as chaves das tarefas criadas antes da ordem manual (e o que ficou pendente)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebalanceAtStartup() {
+        try {
+            rebalance();
+        } catch (RuntimeException e) {
+            log.error("Falha ao rebalancear a ordem manual das tarefas na inicialização", e);
+        }
+    }
+
+    /**
+     * Regrava as chaves dos usuários que precisam, uma transação por usuário (as tarefas dele ficam travadas só
+     * durante a regravação). A ordem visível não muda.
+     */
+    public Map<String, Object> rebalance() {
+        if (!rebalancing.compareAndSet(false, true)) {
+            throw new IllegalStateException("Rebalanceamento da ordem manual já em andamento");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            List<String> userIds = jdbcTemplate.queryForList(USERS_TO_REBALANCE_SQL, String.class, maxKeyLength);
+
+            long tasks = 0;
+            for (String userId : userIds) {
+                Integer count = transactionTemplate.execute(status -> rebalanceUser(userId));
+                tasks += count != null ? count : 0;
+            }
+            long elapsed = System.currentTimeMillis() - start;
+            if (!userIds.isEmpty()) {
+                log.info("Ordem manual rebalanceada: {} usuários, {} tarefas, {} ms", userIds.size(), tasks, elapsed);
+            }
+            return Map.of("users", userIds.size(), "tasks", tasks, "elapsedMs", elapsed);
+        } finally {
+            rebalancing.set(false);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int rebalanceUser(String userId) {
+        List<Long> ids = jdbcTemplate.queryForList(LOCK_USER_TASKS_SQL, Long.class, userId);
+        String[] keys = RankKeys.spread(ids.size());
+        List<Object[]> updates = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) updates.add(new Object[]{keys[i], ids.get(i)});
+        jdbcTemplate.batchUpdate(UPDATE_RANK_SQL, updates);
+        return ids.size();
+    }
+}
@@ -1,21 +1,65 @@
 package com.nickolss.backend.services;
 
 import com.nickolss.backend.models.TaskEntity;
+import com.nickolss.backend.models.dtos.BulkResultDTO;
+import com.nickolss.backend.models.dtos.CursorPageDTO;
+import com.nickolss.backend.models.dtos.TaskBulkRequestDTO;
 import com.nickolss.backend.models.dtos.TaskDTO;
+import com.nickolss.backend.models.dtos.TaskFilterDTO;
+import com.nickolss.backend.models.dtos.TaskMoveDTO;
+import com.nickolss.backend.repositories.ProjectRepository;
 import com.nickolss.backend.repositories.TaskRepository;
+import com.nickolss.backend.repositories.TaskSpecifications;
+import com.nickolss.backend.utils.CursorUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 public class TaskService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_BULK_IDS = 1_000;
+
+    private static final Sort BY_CREATED = Sort.by(Sort.Direction.DESC, "id");
+    private static final Sort BY_DUE = Sort.by(Sort.Direction.ASC, "dueDate", "id");
+    private static final Sort BY_ID = Sort.by(Sort.Direction.ASC, "id");
+
     private final TaskRepository taskRepository;
+    private final ProjectRepository projectRepository;
+    private final EntityManager entityManager;
+    private final ReminderService reminderService;
+    private final TaskRankService taskRankService;
+    private final ProjectCounterService projectCounterService;
 
-    public TaskService(TaskRepository taskRepository) {
+    public TaskService(TaskRepository taskRepository, ProjectRepository projectRepository, EntityManager entityManager,
+                       ReminderService reminderService, TaskRankService taskRankService,
+                       ProjectCounterService projectCounterService) {
         this.taskRepository = taskRepository;
+        this.projectRepository = projectRepository;
+        this.entityManager = entityManager;
+        this.reminderService = reminderService;
+        this.taskRankService = taskRankService;
+        this.projectCounterService = projectCounterService;
     }
 
     // --- Mapper Auxiliar ---
@@ -27,6 +71,7 @@ public class TaskService {
                 .priority(entity.getPriority())
                 .category(entity.getCategory())
                 .dueDate(entity.getDueDate())
+                .projectId(entity.getProjectId())
                 .createdAt(entity.getCreatedAt())
                 .build();
     }
@@ -34,12 +79,205 @@ public class TaskService {
     // --- Métodos de Negócio ---
 
     public List<TaskDTO> getTasks(String userId) {
-        return taskRepository.findByUserIdOrderByCreatedAtDesc(userId)
+        return taskRepository.findByUserIdOrderByRankKeyAscIdDesc(userId)
                 .stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Listagem filtrada e paginada por cursor (keyset). Busca "limit + 1" linhas para saber se há próxima página.
+     * sort=created (padrão): mais recentes primeiro (id DESC, a ordem de criação).
+     * sort=due: vencimento mais próximo primeiro; sem filtro de vencimento, as tarefas sem data vêm no fim. As duas
+     * partes são consultas separadas (cada uma uma faixa de índice), em vez de um "OR due_date IS NULL" que impediria
+     * a varredura ordenada.
+     *
+     * @param completed  null: todas; false: abertas (índice parcial); true: concluídas
+     * @param priorities filtro opcional (low, medium, high)
+     */
+    public CursorPageDTO<TaskDTO> getTasksPage(String userId, Boolean completed, List<String> priorities, String category,
+                                               LocalDate dueFrom, LocalDate dueTo, String sort,
+                                               String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        boolean byDue = "due".equals(sort);
+        if (sort != null && !byDue && !sort.equals("created")) {
+            throw new IllegalArgumentException("sort inválido (use created ou due)");
+        }
+
+        Specification<TaskEntity> spec = filter(userId, completed, priorities, category, dueFrom, dueTo);
+
+        String[] after = cursor != null && !cursor.isBlank() ? CursorUtils.decode(cursor, 2) : null;
+        List<TaskEntity> rows;
+        try {
+            if (!byDue) {
+                if (after != null) spec = spec.and(TaskSpecifications.idBefore(Long.parseLong(after[1])));
+                rows = find(spec, BY_CREATED, pageSize + 1);
+            } else {
+                rows = findByDue(spec, dueFrom == null && dueTo == null, after, pageSize + 1);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<TaskEntity> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            TaskEntity last = page.get(page.size() - 1);
+            nextCursor = CursorUtils.encode(byDue ? last.getDueDate() : null, last.getId());
+        }
+
+        return CursorPageDTO.<TaskDTO>builder()
+                .items(page.stream().map(this::toDTO).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // Cursor com data vazia: a página anterior terminou no trecho sem vencimento
+    private List<TaskEntity> findByDue(Specification<TaskEntity> spec, boolean includeUndated, String[] after, int count) {
+        List<TaskEntity> rows = new ArrayList<>();
+        boolean inUndated = after != null && after[0].isEmpty();
+        if (!inUndated) {
+            Specification<TaskEntity> dated = spec.and(TaskSpecifications.withDueDate());
+            if (after != null) {
+                dated = dated.and(TaskSpecifications.dueAfter(LocalDate.parse(after[0]), Long.parseLong(after[1])));
+            }
+            rows.addAll(find(dated, BY_DUE, count));
+        }
+        if (includeUndated && rows.size() < count) {
+            Specification<TaskEntity> undated = spec.and(TaskSpecifications.withoutDueDate());
+            if (inUndated) undated = undated.and(TaskSpecifications.idAfter(Long.parseLong(after[1])));
+            rows.addAll(find(undated, BY_ID, count - rows.size()));
+        }
+        return rows;
+    }
+
+    private List<TaskEntity> find(Specification<TaskEntity> spec, Sort sort, int count) {
+        return taskRepository.findBy(spec, q -> q.sortBy(sort).limit(count).all());
+    }
+
+    private static Specification<TaskEntity> filter(String userId, Boolean completed, List<String> priorities,
+                                                    String category, LocalDate dueFrom, LocalDate dueTo) {
+        Specification<TaskEntity> spec = TaskSpecifications.byUser(userId);
+        if (completed != null) spec = spec.and(TaskSpecifications.byCompleted(completed));
+        if (priorities != null && !priorities.isEmpty()) spec = spec.and(TaskSpecifications.byPriorities(priorities));
+        if (category != null) spec = spec.and(TaskSpecifications.byCategory(category));
+        if (dueFrom != null) spec = spec.and(TaskSpecifications.dueFrom(dueFrom));
+        if (dueTo != null) spec = spec.and(TaskSpecifications.dueTo(dueTo));
+        return spec;
+    }
+
+    /**
+     * Ação em lote sobre uma lista de ids ou sobre todas as tarefas que casam com um filtro, num único
+     * UPDATE/DELETE restrito ao usuário. Linhas que já estão no estado pedido ficam de fora, então o retorno é o
+     * número de tarefas que de fato mudaram.
+     */
+    @Transactional
+    public BulkResultDTO bulkUpdate(String userId, TaskBulkRequestDTO request) {
+        Specification<TaskEntity> target = bulkTarget(userId, request);
+        String action = request.getAction() != null ? request.getAction() : "";
+
+        if (action.equals("delete")) {
+            SortedMap<Long, int[]> deltas = new TreeMap<>();
+            for (Tuple task : lockTargetTasks(target)) {
+                Long projectId = task.get(0, Long.class);
+                boolean completed = Boolean.TRUE.equals(task.get(1, Boolean.class));
+                if (projectId != null) ProjectCounterService.add(deltas, projectId, -1, completed ? -1 : 0);
+            }
+            long deleted = taskRepository.delete(target);
+            projectCounterService.apply(deltas);
+            if (deleted > 0) reminderService.tasksChanged(userId);
+            return BulkResultDTO.builder().affected(deleted).build();
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<TaskEntity> update = cb.createCriteriaUpdate(TaskEntity.class);
+        Root<TaskEntity> root = update.from(TaskEntity.class);
+        switch (action) {
+            case "complete" -> {
+                update.set(root.<Boolean>get("completed"), true);
+                target = target.and(TaskSpecifications.byCompleted(false));
+            }
+            case "reopen" -> {
+                update.set(root.<Boolean>get("completed"), false);
+                target = target.and(TaskSpecifications.byCompleted(true));
+            }
+            case "categorize" -> {
+                update.set(root.<String>get("category"), request.getCategory());
+                target = target.and(TaskSpecifications.categoryNot(request.getCategory()));
+            }
+            case "prioritize" -> {
+                if (request.getPriority() == null) throw new IllegalArgumentException("Informe a prioridade");
+                update.set(root.<String>get("priority"), request.getPriority());
+                target = target.and(TaskSpecifications.priorityNot(request.getPriority()));
+            }
+            default -> throw new IllegalArgumentException(
+                    "action inválida (use complete, reopen, categorize, prioritize ou delete)");
+        }
+        update.set(root.<LocalDateTime>get("updatedAt"), LocalDateTime.now());
+        update.where(target.toPredicate(root, null, cb));
+
+        // Concluir/reabrir move as concluídas dos projetos: as tarefas-alvo ficam travadas até o commit,
+        // então o delta contado aqui é exatamente o que o UPDATE muda
+        SortedMap<Long, int[]> deltas = new TreeMap<>();
+        if (action.equals("complete") || action.equals("reopen")) {
+            for (Tuple task : lockTargetTasks(target)) {
+                Long projectId = task.get(0, Long.class);
+                if (projectId != null) ProjectCounterService.add(deltas, projectId, 0, action.equals("complete") ? 1 : -1);
+            }
+        }
+
+        int affected = entityManager.createQuery(update).executeUpdate();
+        projectCounterService.apply(deltas);
+        // Concluir/reabrir muda quais tarefas têm lembrete; categoria e prioridade não
+        if (affected > 0 && (action.equals("complete") || action.equals("reopen"))) {
+            reminderService.tasksChanged(userId);
+        }
+        return BulkResultDTO.builder().affected(affected).build();
+    }
+
+    // Projeto e status de todas as tarefas-alvo, travadas em ordem de id (dois lotes não se cruzam). Inclusive as
+    // sem projeto: uma edição concorrente não consegue vinculá-las entre esta leitura e o UPDATE/DELETE
+    private List<Tuple> lockTargetTasks(Specification<TaskEntity> target) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<TaskEntity> root = query.from(TaskEntity.class);
+        query.multiselect(root.get("projectId"), root.get("completed"))
+                .where(target.toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query).setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList();
+    }
+
+    // projectId do DTO: 0 desvincula; qualquer outro precisa ser um projeto do usuário, travado contra o delete
+    // até o commit (um delete em andamento termina antes e o projeto não é mais encontrado)
+    private Long projectOf(String userId, Long projectId) {
+        if (projectId == 0) return null;
+        return projectRepository.lockForTaskLink(projectId, userId)
+                .orElseThrow(() -> new IllegalArgumentException("Projeto não encontrado"));
+    }
+
+    // Exige ids ou um filtro com ao menos um critério: um corpo vazio não pode virar "todas as tarefas"
+    private static Specification<TaskEntity> bulkTarget(String userId, TaskBulkRequestDTO request) {
+        List<Long> ids = request.getIds();
+        TaskFilterDTO filter = request.getFilter();
+        if (ids != null && !ids.isEmpty()) {
+            if (filter != null) throw new IllegalArgumentException("Informe ids ou filter, não os dois");
+            if (ids.size() > MAX_BULK_IDS) {
+                throw new IllegalArgumentException("Máximo de " + MAX_BULK_IDS + " ids por requisição");
+            }
+            return TaskSpecifications.byUser(userId).and(TaskSpecifications.byIds(ids));
+        }
+        if (filter == null || (filter.getCompleted() == null && (filter.getPriorities() == null || filter.getPriorities().isEmpty())
+                && filter.getCategory() == null && filter.getDueFrom() == null && filter.getDueTo() == null)) {
+            throw new IllegalArgumentException("Informe ids ou ao menos um filtro");
+        }
+        return filter(userId, filter.getCompleted(), filter.getPriorities(), filter.getCategory(),
+                filter.getDueFrom(), filter.getDueTo());
+    }
+
+    @Transactional
     public TaskDTO createTask(String userId, TaskDTO dto) {
         TaskEntity entity = new TaskEntity();
         entity.setUserId(userId);
@@ -49,33 +287,67 @@ public class TaskService {
         entity.setPriority(dto.getPriority());
         entity.setCategory(dto.getCategory());
         entity.setDueDate(dto.getDueDate());
+        entity.setRankKey(taskRankService.keyForNewTask(userId));
+        if (dto.getProjectId() != null) entity.setProjectId(projectOf(userId, dto.getProjectId()));
 
         // Atualiza o updated_at inicial
         entity.setUpdatedAt(LocalDateTime.now());
 
-        return toDTO(taskRepository.save(entity));
+        TaskEntity saved = taskRepository.save(entity);
+        projectCounterService.taskChanged(null, false, saved.getProjectId(), saved.getCompleted());
+        reminderService.taskChanged(saved, true);
+        return toDTO(saved);
     }
 
+    @Transactional
     public TaskDTO updateTask(String userId, Long taskId, TaskDTO updates) {
-        TaskEntity entity = taskRepository.findByIdAndUserId(taskId, userId)
+        // Lock: duas edições concorrentes da mesma tarefa não podem aplicar o mesmo delta no projeto
+        TaskEntity entity = taskRepository.findForUpdate(taskId, userId)
                 .orElseThrow(() -> new RuntimeException("Tarefa não encontrada ou acesso negado"));
 
+        LocalDate previousDueDate = entity.getDueDate();
+        boolean wasCompleted = Boolean.TRUE.equals(entity.getCompleted());
+        Long previousProjectId = entity.getProjectId();
+
         // Lógica de Patch (Só atualiza o que foi enviado)
         if (updates.getText() != null) entity.setText(updates.getText());
         if (updates.getCompleted() != null) entity.setCompleted(updates.getCompleted());
         if (updates.getPriority() != null) entity.setPriority(updates.getPriority());
         if (updates.getCategory() != null) entity.setCategory(updates.getCategory());
         if (updates.getDueDate() != null) entity.setDueDate(updates.getDueDate());
+        if (updates.getProjectId() != null) entity.setProjectId(projectOf(userId, updates.getProjectId()));
 
         entity.setUpdatedAt(LocalDateTime.now());
 
+        TaskEntity saved = taskRepository.save(entity);
+        boolean completed = Boolean.TRUE.equals(saved.getCompleted());
+        if (!Objects.equals(previousProjectId, saved.getProjectId()) || wasCompleted != completed) {
+            projectCounterService.taskChanged(previousProjectId, wasCompleted, saved.getProjectId(), completed);
+        }
+        boolean rescheduled = !Objects.equals(previousDueDate, saved.getDueDate())
+                || (wasCompleted && !completed);
+        reminderService.taskChanged(saved, rescheduled);
+        return toDTO(saved);
+    }
+
+    // Arrastar e soltar: só a linha da tarefa movida é gravada
+    @Transactional
+    public TaskDTO moveTask(String userId, Long taskId, TaskMoveDTO move) {
+        TaskEntity entity = taskRepository.findForUpdate(taskId, userId)
+                .orElseThrow(() -> new RuntimeException("Tarefa não encontrada ou acesso negado"));
+
+        entity.setRankKey(taskRankService.keyForMove(userId, entity, move.getPreviousId(), move.getNextId()));
+        entity.setUpdatedAt(LocalDateTime.now());
         return toDTO(taskRepository.save(entity));
     }
 
+    @Transactional
     public void deleteTask(String userId, Long taskId) {
-        TaskEntity entity = taskRepository.findByIdAndUserId(taskId, userId)
+        TaskEntity entity = taskRepository.findForUpdate(taskId, userId)
                 .orElseThrow(() -> new RuntimeException("Tarefa não encontrada ou acesso negado"));
 
         taskRepository.delete(entity);
+        projectCounterService.taskChanged(entity.getProjectId(), Boolean.TRUE.equals(entity.getCompleted()), null, false);
+        reminderService.taskDeleted(taskId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.nickolss.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nickolss.backend.models.TransactionEntity;
+import com.nickolss.backend.models.dtos.TransactionDTO;
+import com.nickolss.backend.repositories.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Export de transações em streaming: as linhas saem do cursor do banco direto para a resposta,
+ * uma por vez, então o uso de memória não depende do tamanho do histórico.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+    private static final int FLUSH_EVERY = 1_000;
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public TransactionExportService(TransactionRepository transactionRepository, EntityManager entityManager,
+                                    ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param format "csv" ou "ndjson"
+     */
+    @Transactional(readOnly = true) // O cursor do Postgres só funciona dentro de uma transação (autocommit off)
+    public void export(String userId, Long accountId, LocalDate startDate, LocalDate endDate,
+                       String format, OutputStream out) throws IOException {
+        LocalDate start = startDate != null ? startDate : MIN_DATE;
+        LocalDate end = endDate != null ? endDate : MAX_DATE;
+        boolean csv = !"ndjson".equals(format);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (csv) writer.write("id,date,description,amount,type,category,accountId\n");
+
+        try (Stream<TransactionEntity> rows = accountId != null
+                ? transactionRepository.streamByAccount(userId, accountId, start, end)
+                : transactionRepository.streamByUser(userId, start, end)) {
+            int written = 0;
+            Iterator<TransactionEntity> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                TransactionEntity row = iterator.next();
+                if (csv) {
+                    writeCsvLine(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(toDTO(row)));
+                    writer.write('\n');
+                }
+                // Tira a entidade do contexto de persistência para ele não crescer com o export
+                entityManager.detach(row);
+                if (++written % FLUSH_EVERY == 0) writer.flush();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeCsvLine(Writer writer, TransactionEntity row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writer.write(row.getDate().toString());
+        writer.write(',');
+        writer.write(csvField(row.getDescription()));
+        writer.write(',');
+        writer.write(row.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(csvField(row.getType()));
+        writer.write(',');
+        writer.write(csvField(row.getCategory()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getAccountId()));
+        writer.write('\n');
+    }
+
+    private String csvField(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private TransactionDTO toDTO(TransactionEntity e) {
+        return TransactionDTO.builder()
+                .id(e.getId()).accountId(e.getAccountId()).description(e.getDescription())
+                .amount(e.getAmount()).type(e.getType()).category(e.getCategory())
+                .date(e.getDate()).recurrenceId(e.getRecurrenceId())
+                .transferId(e.getTransferId()).build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.AccountEntity;
+import com.nickolss.backend.models.dtos.TransactionDTO;
+import com.nickolss.backend.models.dtos.TransactionImportErrorDTO;
+import com.nickolss.backend.models.dtos.TransactionImportResultDTO;
+import com.nickolss.backend.repositories.AccountRepository;
+import com.nickolss.backend.utils.CategorizationEngine;
+import com.nickolss.backend.utils.TransactionCsvParser;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Import em lote de extratos.
+ * Em vez de um createTransaction por linha, insere via JDBC batch e aplica um único UPDATE de saldo por conta.
+ */
+@Service
+public class TransactionImportService {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_ROWS = 50_000;
+
+    private static final String INSERT_SQL = "INSERT INTO transactions " +
+            "(user_id, account_id, description, amount, type, category, date) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final AccountRepository accountRepository;
+    private final FinanceRollupService rollupService;
+    private final BalanceCheckpointService checkpointService;
+    private final CategorizationService categorizationService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionImportService(AccountRepository accountRepository, FinanceRollupService rollupService,
+                                    BalanceCheckpointService checkpointService,
+                                    CategorizationService categorizationService, JdbcTemplate jdbcTemplate) {
+        this.accountRepository = accountRepository;
+        this.rollupService = rollupService;
+        this.checkpointService = checkpointService;
+        this.categorizationService = categorizationService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public TransactionImportResultDTO importCsv(String userId, String csv, Long defaultAccountId, boolean partial) {
+        TransactionCsvParser.Result parsed = TransactionCsvParser.parse(csv);
+        return importRows(userId, parsed.rows(), parsed.rowNumbers(), parsed.errors(), defaultAccountId, partial);
+    }
+
+    @Transactional
+    public TransactionImportResultDTO importJson(String userId, List<TransactionDTO> rows, Long defaultAccountId, boolean partial) {
+        if (rows.contains(null)) throw new IllegalArgumentException("Linha nula no import");
+        List<Integer> rowNumbers = new ArrayList<>(rows.size());
+        for (int i = 1; i <= rows.size(); i++) rowNumbers.add(i);
+        return importRows(userId, rows, rowNumbers, new ArrayList<>(), defaultAccountId, partial);
+    }
+
+    /**
+     * @param partial se true, linhas válidas são gravadas mesmo havendo erros; se false, qualquer erro cancela o import inteiro
+     */
+    private TransactionImportResultDTO importRows(String userId, List<TransactionDTO> rows, List<Integer> rowNumbers,
+                                                  List<TransactionImportErrorDTO> errors, Long defaultAccountId,
+                                                  boolean partial) {
+        int received = rows.size() + errors.size();
+        if (received > MAX_ROWS) {
+            throw new IllegalArgumentException("Import limitado a " + MAX_ROWS + " linhas por requisição");
+        }
+
+        // Uma única consulta para validar a posse de todas as contas referenciadas. As contas ficam travadas até o
+        // commit: uma conta deletada antes não aparece aqui (as linhas dela viram erro) e o delete de depois espera
+        // o import, então os cascades enxergam as linhas gravadas
+        Set<Long> userAccounts = accountRepository.lockByUserId(userId)
+                .stream().map(AccountEntity::getId).collect(Collectors.toSet());
+
+        List<TransactionDTO> valid = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            TransactionDTO row = rows.get(i);
+            if (row.getAccountId() == null) row.setAccountId(defaultAccountId);
+
+            String error = validate(row, userAccounts);
+            if (error != null) {
+                errors.add(TransactionImportErrorDTO.builder().row(rowNumbers.get(i)).message(error).build());
+            } else {
+                valid.add(row);
+            }
+        }
+        errors.sort((a, b) -> Integer.compare(a.getRow(), b.getRow()));
+
+        if (!errors.isEmpty() && !partial) {
+            return TransactionImportResultDTO.builder()
+                    .received(received).imported(0).rejected(errors.size()).errors(errors).build();
+        }
+
+        // Linhas sem categoria passam pelas regras do usuário (um único matcher compilado para o lote todo)
+        CategorizationEngine engine = categorizationService.engineFor(userId);
+        for (TransactionDTO row : valid) {
+            if (row.getCategory() == null || row.getCategory().isBlank()) {
+                row.setCategory(engine.categorize(row.getDescription(), row.getAmount(), row.getType()));
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, valid, BATCH_SIZE, (ps, row) -> {
+            ps.setString(1, userId);
+            ps.setLong(2, row.getAccountId());
+            ps.setString(3, row.getDescription());
+            ps.setBigDecimal(4, row.getAmount());
+            ps.setString(5, row.getType());
+            ps.setString(6, row.getCategory());
+            ps.setDate(7, Date.valueOf(row.getDate()));
+        });
+
+        // Soma o efeito no saldo por conta; TreeMap mantém a ordem de id (ordem de lock consistente)
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        for (TransactionDTO row : valid) {
+            BigDecimal effect = "income".equals(row.getType()) ? row.getAmount() : row.getAmount().negate();
+            deltas.merge(row.getAccountId(), effect, BigDecimal::add);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        deltas.forEach((accountId, delta) -> {
+            if (accountRepository.applyBalanceDelta(accountId, userId, delta, now) == 0) {
+                throw new RuntimeException("Conta vinculada não encontrada");
+            }
+        });
+
+        rollupService.apply(userId, valid.stream()
+                .map(row -> FinanceRollupService.RollupDelta.added(
+                        row.getAccountId(), row.getDate(), row.getType(), row.getCategory(), row.getAmount()))
+                .toList());
+        checkpointService.apply(userId, valid.stream()
+                .map(row -> new BalanceCheckpointService.FlowDelta(row.getAccountId(), row.getDate(),
+                        "income".equals(row.getType()) ? row.getAmount() : row.getAmount().negate()))
+                .toList());
+
+        return TransactionImportResultDTO.builder()
+                .received(received).imported(valid.size()).rejected(errors.size()).errors(errors).build();
+    }
+
+    private String validate(TransactionDTO row, Set<Long> userAccounts) {
+        if (row.getAccountId() == null) return "accountId obrigatório";
+        if (!userAccounts.contains(row.getAccountId())) return "Conta não encontrada: " + row.getAccountId();
+        if (row.getAmount() == null || row.getAmount().signum() <= 0) return "Valor deve ser maior que zero";
+        if (!"income".equals(row.getType()) && !"expense".equals(row.getType())) return "Tipo deve ser income ou expense";
+        if (row.getDate() == null) return "Data obrigatória";
+        return null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.nickolss.backend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nickolss.backend.models.dtos.ReminderDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * POST do lembrete em JSON para reminders.webhook.url (vazio: desligado). Envio assíncrono e sem retry:
+ * falhas só vão para o log.
+ */
+@Component
+public class WebhookReminderSink implements ReminderSink {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookReminderSink.class);
+
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final HttpClient client;
+
+    public WebhookReminderSink(ObjectMapper objectMapper, @Value("${reminders.webhook.url:}") String url) {
+        this.objectMapper = objectMapper;
+        this.url = url.isBlank() ? null : URI.create(url);
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    @Override
+    public void send(ReminderDTO reminder) {
+        if (url == null) return;
+
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(reminder);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Lembrete inválido para o webhook", e);
+        }
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error != null) {
+                log.warn("Webhook de lembrete falhou ({} {}): {}", reminder.getType(), reminder.getId(), error.toString());
+            } else if (response.statusCode() >= 300) {
+                log.warn("Webhook de lembrete respondeu {} ({} {})", response.statusCode(), reminder.getType(), reminder.getId());
+            }
+        });
+    }
+}
@@ -0,0 +1,314 @@
+package com.nickolss.backend.utils;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Regras de categorização de um usuário compiladas em um único matcher.
+ * Regras literais (contains/prefix) viram um autômato Aho-Corasick: a descrição é percorrida uma vez,
+ * independente de quantas regras existem. Regras regex não entram no autômato: são avaliadas uma a uma, em ordem
+ * de prioridade e só enquanto ainda podem vencer o melhor literal encontrado, então o custo delas cresce com o
+ * número de regras regex. Elas também são limitadas: tamanho máximo, sem quantificador aninhado nem referência a
+ * grupo, e um prazo por descrição ({@link #REGEX_BUDGET_NANOS}) para qualquer backtracking que escape da validação.
+ * Imutável depois de construído: pode ser compartilhado entre threads.
+ */
+public final class CategorizationEngine {
+
+    public static final String CONTAINS = "contains";
+    public static final String PREFIX = "prefix";
+    public static final String REGEX = "regex";
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    public static final int MAX_REGEX_LENGTH = 200;
+
+    // Prazo de todas as regras regex numa descrição: esgotado, a regex em andamento e as seguintes não casam
+    public static final long REGEX_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    /**
+     * @param priority menor valor = avaliada primeiro; empate resolvido pelo id (regra mais antiga vence)
+     */
+    public record Rule(long id, String matchType, String pattern, String category, BigDecimal minAmount,
+                       BigDecimal maxAmount, String transactionType, int priority) {
+    }
+
+    private final Rule[] rules; // ordenadas por (priority, id): o índice é o "rank" da regra
+
+    // Trie: filhos por nó, link de falha, link de dicionário (próximo sufixo que termina padrão)
+    private final List<Map<Character, Integer>> children = new ArrayList<>();
+    private final List<int[]> outputs = new ArrayList<>(); // ranks das regras que terminam no nó
+    private final List<Integer> depths = new ArrayList<>();
+    private int[] fail;
+    private int[] dictionaryLink;
+
+    private final int[] regexRanks;
+    private final Pattern[] regexPatterns;
+
+    public CategorizationEngine(List<Rule> source) {
+        this.rules = source.stream()
+                .sorted(Comparator.comparingInt(Rule::priority).thenComparingLong(Rule::id))
+                .toArray(Rule[]::new);
+
+        newNode(0);
+        List<Integer> regexRankList = new ArrayList<>();
+        List<Pattern> regexPatternList = new ArrayList<>();
+        for (int rank = 0; rank < rules.length; rank++) {
+            Rule rule = rules[rank];
+            if (REGEX.equals(rule.matchType())) {
+                // Regra antiga que a validação atual recusa: fica de fora em vez de travar a categorização
+                Pattern pattern;
+                try {
+                    pattern = compileRegex(rule.pattern());
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                regexRankList.add(rank);
+                regexPatternList.add(pattern);
+            } else {
+                String literal = normalize(rule.pattern());
+                if (!literal.isEmpty()) addLiteral(literal, rank);
+            }
+        }
+        this.regexRanks = regexRankList.stream().mapToInt(Integer::intValue).toArray();
+        this.regexPatterns = regexPatternList.toArray(Pattern[]::new);
+        buildLinks();
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * Categoria da regra de maior prioridade que casa com a transação, ou null se nenhuma casar.
+     */
+    public String categorize(String description, BigDecimal amount, String type) {
+        if (description == null || rules.length == 0) return null;
+
+        int best = Integer.MAX_VALUE;
+        String text = normalize(description).strip();
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            Integer nextNode;
+            while ((nextNode = children.get(node).get(c)) == null && node != 0) {
+                node = fail[node];
+            }
+            node = nextNode != null ? nextNode : 0;
+
+            // Percorre o nó e os sufixos que também terminam um padrão
+            for (int match = outputs.get(node).length > 0 ? node : dictionaryLink[node]; match > 0; match = dictionaryLink[match]) {
+                boolean atStart = i + 1 == depths.get(match);
+                for (int rank : outputs.get(match)) {
+                    if (rank >= best) break; // outputs ordenados por rank
+                    Rule rule = rules[rank];
+                    if (PREFIX.equals(rule.matchType()) && !atStart) continue;
+                    if (accepts(rule, amount, type)) best = rank;
+                }
+            }
+        }
+
+        long deadline = System.nanoTime() + REGEX_BUDGET_NANOS;
+        for (int r = 0; r < regexRanks.length && regexRanks[r] < best; r++) {
+            Rule rule = rules[regexRanks[r]];
+            if (accepts(rule, amount, type) && find(regexPatterns[r], description, deadline)) {
+                best = regexRanks[r];
+                break;
+            }
+        }
+        return best == Integer.MAX_VALUE ? null : rules[best].category();
+    }
+
+    private static boolean find(Pattern pattern, String description, long deadline) {
+        try {
+            return pattern.matcher(new DeadlineCharSequence(description, deadline)).find();
+        } catch (DeadlineExceededException e) {
+            return false;
+        }
+    }
+
+    // Lança IllegalArgumentException para regex inválida ou arriscada (validação na criação da regra)
+    public static Pattern compileRegex(String regex) {
+        if (regex.length() > MAX_REGEX_LENGTH) {
+            throw new IllegalArgumentException("Regex muito longa (máximo de " + MAX_REGEX_LENGTH + " caracteres)");
+        }
+        checkBacktracking(regex);
+        try {
+            return Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Regex inválida: " + e.getMessage());
+        }
+    }
+
+    // Recusa as construções que levam a backtracking exponencial: referência a grupo (\1, \k<nome>) e grupo
+    // repetido sem limite (*, + ou {n,}) que já contém um quantificador sem limite, como (a+)+ ou (\w*x)*
+    private static void checkBacktracking(String regex) {
+        Deque<Boolean> groups = new ArrayDeque<>(); // por grupo aberto: se já tem quantificador dentro
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                char next = i + 1 < regex.length() ? regex.charAt(i + 1) : ' ';
+                if ((next >= '1' && next <= '9') || next == 'k') {
+                    throw new IllegalArgumentException("Regex com referência a grupo não é permitida");
+                }
+                i += 2;
+            } else if (c == '[') {
+                i = skipClass(regex, i);
+            } else if (c == '(') {
+                groups.push(false);
+                i++;
+            } else if (c == ')') {
+                boolean inner = !groups.isEmpty() && groups.pop();
+                i++;
+                boolean repeated = unbounded(regex, i);
+                if (inner && repeated) {
+                    throw new IllegalArgumentException("Regex com quantificador aninhado não é permitida");
+                }
+                if ((inner || repeated) && !groups.isEmpty()) {
+                    groups.pop();
+                    groups.push(true);
+                }
+            } else {
+                if (unbounded(regex, i) && !groups.isEmpty()) {
+                    groups.pop();
+                    groups.push(true);
+                }
+                i++;
+            }
+        }
+    }
+
+    // Quantificador sem limite de repetições em i; '?' e {n}/{n,m} têm limite e não contam
+    private static boolean unbounded(String regex, int i) {
+        if (i >= regex.length()) return false;
+        char c = regex.charAt(i);
+        if (c == '*' || c == '+') return true;
+        if (c != '{') return false;
+        int close = regex.indexOf('}', i);
+        return close > 0 && regex.substring(i, close).endsWith(",");
+    }
+
+    // Índice logo depois do ']' que fecha a classe de caracteres aberta em start
+    private static int skipClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') i++;
+        if (i < regex.length() && regex.charAt(i) == ']') i++;
+        while (i < regex.length() && regex.charAt(i) != ']') {
+            i += regex.charAt(i) == '\\' ? 2 : 1;
+        }
+        return i + 1;
+    }
+
+    // Comparação sem acento e sem diferenciar maiúsculas ("PADARIA São João" casa com "sao joao")
+    public static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // Texto que interrompe o matcher quando o prazo passa: o backtracking relê o texto, então charAt é o ponto de checagem
+    private static final class DeadlineCharSequence implements CharSequence {
+        private final CharSequence text;
+        private final long deadline;
+
+        DeadlineCharSequence(CharSequence text, long deadline) {
+            this.text = text;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (System.nanoTime() > deadline) throw new DeadlineExceededException();
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new DeadlineCharSequence(text.subSequence(start, end), deadline);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+
+    private static final class DeadlineExceededException extends RuntimeException {
+        DeadlineExceededException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private boolean accepts(Rule rule, BigDecimal amount, String type) {
+        if (rule.transactionType() != null && !rule.transactionType().equals(type)) return false;
+        if (amount == null) return rule.minAmount() == null && rule.maxAmount() == null;
+        if (rule.minAmount() != null && amount.compareTo(rule.minAmount()) < 0) return false;
+        return rule.maxAmount() == null || amount.compareTo(rule.maxAmount()) <= 0;
+    }
+
+    private int newNode(int depth) {
+        children.add(new HashMap<>(4));
+        outputs.add(new int[0]);
+        depths.add(depth);
+        return children.size() - 1;
+    }
+
+    private void addLiteral(String literal, int rank) {
+        int node = 0;
+        for (int i = 0; i < literal.length(); i++) {
+            Integer next = children.get(node).get(literal.charAt(i));
+            if (next == null) {
+                next = newNode(i + 1);
+                children.get(node).put(literal.charAt(i), next);
+            }
+            node = next;
+        }
+        // Ranks chegam em ordem crescente, então o array de saída já fica ordenado
+        int[] current = outputs.get(node);
+        int[] extended = Arrays.copyOf(current, current.length + 1);
+        extended[current.length] = rank;
+        outputs.set(node, extended);
+    }
+
+    // BFS clássica do Aho-Corasick: falha = maior sufixo próprio que também é prefixo de algum padrão
+    private void buildLinks() {
+        int size = children.size();
+        fail = new int[size];
+        dictionaryLink = new int[size];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : children.get(0).values()) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (Map.Entry<Character, Integer> edge : children.get(node).entrySet()) {
+                char c = edge.getKey();
+                int child = edge.getValue();
+                int f = fail[node];
+                while (f != 0 && !children.get(f).containsKey(c)) {
+                    f = fail[f];
+                }
+                Integer target = children.get(f).get(c);
+                fail[child] = target != null && target != child ? target : 0;
+                dictionaryLink[child] = outputs.get(fail[child]).length > 0 ? fail[child] : dictionaryLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+}
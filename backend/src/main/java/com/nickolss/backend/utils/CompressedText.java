@@ -0,0 +1,85 @@
+package com.nickolss.backend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Texto comprimido (deflate de UTF-8) que só é descomprimido quando lido: carregar a entidade traz apenas os bytes.
+ * Os contadores estáticos medem o custo de compressão/descompressão no processo (relatório de /api/admin/notes/compression).
+ */
+public final class CompressedText {
+
+    private static final LongAdder compressions = new LongAdder();
+    private static final LongAdder compressNanos = new LongAdder();
+    private static final LongAdder compressedInputBytes = new LongAdder();
+    private static final LongAdder compressedOutputBytes = new LongAdder();
+    private static final LongAdder decompressions = new LongAdder();
+    private static final LongAdder decompressNanos = new LongAdder();
+
+    private final byte[] data;
+    private final int originalBytes;
+    private volatile String text;
+
+    private CompressedText(byte[] data, int originalBytes, String text) {
+        this.data = data;
+        this.originalBytes = originalBytes;
+        this.text = text;
+    }
+
+    public static CompressedText compress(String text) {
+        long start = System.nanoTime();
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        byte[] data = NoteDeltaCodec.deflate(raw);
+        compressNanos.add(System.nanoTime() - start);
+        compressions.increment();
+        compressedInputBytes.add(raw.length);
+        compressedOutputBytes.add(data.length);
+        return new CompressedText(data, raw.length, text);
+    }
+
+    // Bytes vindos do banco: nada é descomprimido até text()
+    public static CompressedText of(byte[] data) {
+        return new CompressedText(data, -1, null);
+    }
+
+    public byte[] data() {
+        return data;
+    }
+
+    // Tamanho em UTF-8 antes da compressão; -1 quando veio do banco e ainda não foi lido
+    public int originalBytes() {
+        return originalBytes;
+    }
+
+    public String text() {
+        String result = text;
+        if (result == null) {
+            long start = System.nanoTime();
+            result = new String(NoteDeltaCodec.inflate(data), StandardCharsets.UTF_8);
+            decompressNanos.add(System.nanoTime() - start);
+            decompressions.increment();
+            text = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof CompressedText that && Arrays.equals(data, that.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(data);
+    }
+
+    public record Stats(long compressions, long compressNanos, long inputBytes, long outputBytes,
+                        long decompressions, long decompressNanos) {
+    }
+
+    public static Stats stats() {
+        return new Stats(compressions.sum(), compressNanos.sum(), compressedInputBytes.sum(),
+                compressedOutputBytes.sum(), decompressions.sum(), decompressNanos.sum());
+    }
+}
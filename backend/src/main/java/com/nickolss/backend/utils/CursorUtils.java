@@ -0,0 +1,37 @@
+package com.nickolss.backend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica/decodifica o token de continuação usado na paginação por cursor (keyset).
+ * O token é opaco para o cliente: apenas os valores da última linha retornada, em Base64 URL-safe.
+ */
+public final class CursorUtils {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorUtils() {
+    }
+
+    public static String encode(Object... values) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) raw.append(SEPARATOR);
+            raw.append(values[i] != null ? values[i] : "");
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != expectedParts) throw new IllegalArgumentException();
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.nickolss.backend.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+/**
+ * Dias concluídos de um hábito como bitset contínuo (bit i = origin + i dias).
+ * Montado a partir dos bitsets anuais gravados no banco (bytea de 48 bytes, bit 0 = 1º de janeiro,
+ * mesma numeração do set_bit do Postgres). Todas as consultas são operações sobre words de 64 bits.
+ */
+public final class HabitCalendar {
+
+    public static final int YEAR_BYTES = 48; // 384 bits: cobre os 366 dias de um ano bissexto
+
+    private final LocalDate origin;
+    private final long[] words;
+
+    private HabitCalendar(LocalDate origin, long[] words) {
+        this.origin = origin;
+        this.words = words;
+    }
+
+    /**
+     * @param years bitsets anuais (ano → bytea); o calendário vai de 1º/jan do menor ano até "until"
+     */
+    public static HabitCalendar fromYears(Map<Integer, byte[]> years, LocalDate until) {
+        int firstYear = years.keySet().stream().mapToInt(Integer::intValue).min().orElse(until.getYear());
+        firstYear = Math.min(firstYear, until.getYear());
+        int lastYear = years.keySet().stream().mapToInt(Integer::intValue).max().orElse(until.getYear());
+        lastYear = Math.max(lastYear, until.getYear());
+
+        LocalDate origin = LocalDate.of(firstYear, 1, 1);
+        int days = (int) ChronoUnit.DAYS.between(origin, LocalDate.of(lastYear + 1, 1, 1));
+        long[] words = new long[(days + 63) >>> 6];
+
+        years.forEach((year, bytes) -> {
+            int offset = (int) ChronoUnit.DAYS.between(origin, LocalDate.of(year, 1, 1));
+            ByteBuffer buffer = ByteBuffer.wrap(padded(bytes)).order(ByteOrder.LITTLE_ENDIAN);
+            for (int j = 0; j < YEAR_BYTES / 8; j++) {
+                long value = buffer.getLong();
+                if (value == 0) continue;
+                int position = offset + 64 * j;
+                int index = position >>> 6;
+                int shift = position & 63;
+                words[index] |= value << shift;
+                if (shift != 0 && index + 1 < words.length) words[index + 1] |= value >>> (64 - shift);
+            }
+        });
+        return new HabitCalendar(origin, words);
+    }
+
+    // Índice do dia no bitset anual (usado no set_bit)
+    public static int dayOfYearIndex(LocalDate date) {
+        return date.getDayOfYear() - 1;
+    }
+
+    // Liga/desliga o dia no bitset anual (mesmo layout do set_bit do Postgres)
+    public static void setDay(byte[] yearBits, LocalDate date, boolean completed) {
+        int index = dayOfYearIndex(date);
+        if (completed) {
+            yearBits[index >>> 3] |= (byte) (1 << (index & 7));
+        } else {
+            yearBits[index >>> 3] &= (byte) ~(1 << (index & 7));
+        }
+    }
+
+    public LocalDate origin() {
+        return origin;
+    }
+
+    public boolean isSet(LocalDate date) {
+        int i = index(date);
+        return i >= 0 && i < capacity() && (words[i >>> 6] & (1L << (i & 63))) != 0;
+    }
+
+    /**
+     * Quantidade de dias concluídos em [from, to], datas inclusivas.
+     */
+    public int count(LocalDate from, LocalDate to) {
+        int start = Math.max(index(from), 0);
+        int end = Math.min(index(to) + 1, capacity()); // exclusivo
+        if (start >= end) return 0;
+
+        int firstWord = start >>> 6;
+        int lastWord = (end - 1) >>> 6;
+        long firstMask = -1L << (start & 63);
+        long lastMask = -1L >>> (63 - ((end - 1) & 63));
+        if (firstWord == lastWord) return Long.bitCount(words[firstWord] & firstMask & lastMask);
+
+        int total = Long.bitCount(words[firstWord] & firstMask) + Long.bitCount(words[lastWord] & lastMask);
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            total += Long.bitCount(words[w]);
+        }
+        return total;
+    }
+
+    public int total() {
+        int total = 0;
+        for (long word : words) total += Long.bitCount(word);
+        return total;
+    }
+
+    /**
+     * Tamanho da sequência de dias concluídos terminando em "date" (0 se o dia não foi concluído).
+     */
+    public int runEndingAt(LocalDate date) {
+        int i = Math.min(index(date), capacity() - 1);
+        if (i < index(date)) return 0;
+        int run = 0;
+        while (i >= 0) {
+            int bit = i & 63;
+            // Leva o bit i para a posição 63: os uns à esquerda são a sequência dentro da word
+            long shifted = words[i >>> 6] << (63 - bit);
+            int ones = Math.min(Long.numberOfLeadingZeros(~shifted), bit + 1);
+            run += ones;
+            if (ones < bit + 1) break;
+            i -= ones;
+        }
+        return run;
+    }
+
+    /**
+     * Maior sequência de dias concluídos em todo o histórico.
+     */
+    public int longestRun() {
+        int best = 0;
+        int carry = 0; // uns no fim da word anterior (continuam na próxima)
+        for (long word : words) {
+            if (word == -1L) {
+                carry += 64;
+                continue;
+            }
+            best = Math.max(best, carry + Long.numberOfTrailingZeros(~word));
+            best = Math.max(best, longestRunInWord(word));
+            carry = Long.numberOfLeadingZeros(~word);
+        }
+        return Math.max(best, carry);
+    }
+
+    /**
+     * Último dia concluído até "date" (inclusive), ou null.
+     */
+    public LocalDate lastSetOnOrBefore(LocalDate date) {
+        int i = Math.min(index(date), capacity() - 1);
+        if (i < 0) return null;
+        int w = i >>> 6;
+        long word = words[w] & (-1L >>> (63 - (i & 63)));
+        while (true) {
+            if (word != 0) return origin.plusDays(((long) w << 6) + 63 - Long.numberOfLeadingZeros(word));
+            if (--w < 0) return null;
+            word = words[w];
+        }
+    }
+
+    /**
+     * Primeiro dia concluído do histórico, ou null.
+     */
+    public LocalDate firstSet() {
+        for (int w = 0; w < words.length; w++) {
+            if (words[w] != 0) return origin.plusDays(((long) w << 6) + Long.numberOfTrailingZeros(words[w]));
+        }
+        return null;
+    }
+
+    private int index(LocalDate date) {
+        return (int) ChronoUnit.DAYS.between(origin, date);
+    }
+
+    private int capacity() {
+        return words.length << 6;
+    }
+
+    // x &= x << 1 remove um bit de cada sequência por iteração: o número de iterações é a maior sequência
+    private static int longestRunInWord(long word) {
+        int length = 0;
+        while (word != 0) {
+            word &= word << 1;
+            length++;
+        }
+        return length;
+    }
+
+    private static byte[] padded(byte[] bytes) {
+        if (bytes.length == YEAR_BYTES) return bytes;
+        byte[] copy = new byte[YEAR_BYTES];
+        System.arraycopy(bytes, 0, copy, 0, Math.min(bytes.length, YEAR_BYTES));
+        return copy;
+    }
+}
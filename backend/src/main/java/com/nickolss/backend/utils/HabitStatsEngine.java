@@ -0,0 +1,106 @@
+package com.nickolss.backend.utils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estatísticas de hábito calculadas sobre o HabitCalendar (bitset de dias concluídos).
+ * - daily: sequência em dias; o dia de hoje ainda em aberto não quebra a sequência.
+ * - weekly / custom: sequência em semanas (segunda a domingo) que atingiram a meta
+ *   (1 vez para weekly, targetDays vezes para custom); a semana atual só conta quando já atingiu a meta.
+ * As taxas das janelas móveis comparam o realizado com o esperado (dias × meta semanal / 7), limitadas a 100%.
+ */
+public final class HabitStatsEngine {
+
+    public static final int[] WINDOWS = {7, 30, 90, 365};
+
+    public record Window(int days, int completions, double expected, double rate) {
+    }
+
+    public record Stats(String streakUnit, int targetPerWeek, int currentStreak, int longestStreak,
+                        int totalCompletions, boolean completedToday, LocalDate lastCompletedDate,
+                        List<Window> windows) {
+    }
+
+    private HabitStatsEngine() {
+    }
+
+    /**
+     * @param habitStart início do hábito (antes disso os dias não contam como "esperados")
+     */
+    public static Stats compute(HabitCalendar calendar, String frequency, Integer targetDays,
+                                LocalDate habitStart, LocalDate today) {
+        int target = targetPerWeek(frequency, targetDays);
+        boolean weekly = target < 7 || "weekly".equals(frequency);
+
+        int current;
+        int longest;
+        if (weekly) {
+            current = currentWeekStreak(calendar, target, today);
+            longest = longestWeekStreak(calendar, target, today);
+        } else {
+            current = calendar.isSet(today) ? calendar.runEndingAt(today) : calendar.runEndingAt(today.minusDays(1));
+            longest = calendar.longestRun();
+        }
+
+        LocalDate firstCompletion = calendar.firstSet();
+        LocalDate start = habitStart;
+        if (firstCompletion != null && (start == null || firstCompletion.isBefore(start))) start = firstCompletion;
+        if (start == null) start = today;
+
+        List<Window> windows = new ArrayList<>(WINDOWS.length);
+        for (int days : WINDOWS) {
+            LocalDate from = today.minusDays(days - 1L);
+            if (from.isBefore(start)) from = start;
+            int completions = calendar.count(from, today);
+            long elapsed = from.isAfter(today) ? 0 : ChronoUnit.DAYS.between(from, today) + 1;
+            double expected = elapsed * target / 7.0;
+            double rate = expected > 0 ? Math.min(1.0, completions / expected) : 0.0;
+            windows.add(new Window(days, completions, round(expected), round(rate)));
+        }
+
+        return new Stats(weekly ? "weeks" : "days", target, current, longest, calendar.total(),
+                calendar.isSet(today), calendar.lastSetOnOrBefore(today), windows);
+    }
+
+    // Vezes por semana: daily = 7, weekly = 1, custom = targetDays (1..7)
+    public static int targetPerWeek(String frequency, Integer targetDays) {
+        if ("weekly".equals(frequency)) return 1;
+        if ("custom".equals(frequency) && targetDays != null) return Math.max(1, Math.min(7, targetDays));
+        return 7;
+    }
+
+    private static int currentWeekStreak(HabitCalendar calendar, int target, LocalDate today) {
+        LocalDate week = today.with(DayOfWeek.MONDAY);
+        int streak = 0;
+        if (calendar.count(week, today) >= target) streak++;
+        week = week.minusWeeks(1);
+        while (!week.plusDays(6).isBefore(calendar.origin()) && calendar.count(week, week.plusDays(6)) >= target) {
+            streak++;
+            week = week.minusWeeks(1);
+        }
+        return streak;
+    }
+
+    private static int longestWeekStreak(HabitCalendar calendar, int target, LocalDate today) {
+        LocalDate first = calendar.firstSet();
+        if (first == null) return 0;
+        int best = 0;
+        int run = 0;
+        for (LocalDate week = first.with(DayOfWeek.MONDAY); !week.isAfter(today); week = week.plusWeeks(1)) {
+            if (calendar.count(week, week.plusDays(6)) >= target) {
+                best = Math.max(best, ++run);
+            } else {
+                run = 0;
+            }
+        }
+        return best;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10_000) / 10_000.0;
+    }
+}
@@ -0,0 +1,224 @@
+package com.nickolss.backend.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Codificação das revisões de notas: snapshots (texto inteiro) e deltas (versão nova descrita a partir da anterior),
+ * ambos comprimidos com deflate.
+ * O delta é uma sequência de COPY (trecho da versão anterior) e INSERT (texto novo): todas as janelas de BLOCK
+ * caracteres da versão anterior são indexadas por hash (rolling) e cada trecho coincidente na versão nova vira um COPY
+ * estendido ao máximo; entre janelas repetidas vale a mais próxima do alinhamento do COPY anterior.
+ * Uma edição pequena numa nota grande gera poucas dezenas de bytes.
+ */
+public final class NoteDeltaCodec {
+
+    private static final int BLOCK = 16;
+    private static final int POW = pow31(BLOCK - 1);
+    private static final byte OP_COPY = 1;
+    private static final byte OP_INSERT = 2;
+
+    private NoteDeltaCodec() {
+    }
+
+    private static int pow31(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) result *= 31;
+        return result;
+    }
+
+    public static byte[] snapshot(String content) {
+        return deflate(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String fromSnapshot(byte[] data) {
+        return new String(inflate(data), StandardCharsets.UTF_8);
+    }
+
+    public static byte[] diff(String base, String target) {
+        long[] index = index(base);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            writeVarInt(out, target.length());
+            int literalStart = 0;
+            int shift = 0; // source - target do último COPY: o trecho seguinte tende a manter o alinhamento
+            int j = 0;
+            int h = target.length() >= BLOCK ? hash(target, 0) : 0;
+            while (j + BLOCK <= target.length()) {
+                int at = nearestMatch(index, h, base, target, j, j + shift);
+                if (at < 0) {
+                    if (j + BLOCK < target.length()) h = roll(h, target.charAt(j), target.charAt(j + BLOCK));
+                    j++;
+                    continue;
+                }
+                // Estende o trecho para trás (sobre o literal pendente) e para frente
+                int source = at;
+                int start = j;
+                while (start > literalStart && source > 0 && base.charAt(source - 1) == target.charAt(start - 1)) {
+                    source--;
+                    start--;
+                }
+                int length = j - start + BLOCK;
+                while (source + length < base.length() && start + length < target.length()
+                        && base.charAt(source + length) == target.charAt(start + length)) {
+                    length++;
+                }
+
+                writeInsert(out, target, literalStart, start);
+                out.writeByte(OP_COPY);
+                writeVarInt(out, source);
+                writeVarInt(out, length);
+                shift = source - start;
+                j = start + length;
+                literalStart = j;
+                if (j + BLOCK <= target.length()) h = hash(target, j);
+            }
+            writeInsert(out, target, literalStart, target.length());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return deflate(buffer.toByteArray());
+    }
+
+    // Hash de cada janela de BLOCK caracteres da versão anterior, como (hash << 32 | posição) ordenado
+    private static long[] index(String base) {
+        if (base.length() < BLOCK) return new long[0];
+        long[] keys = new long[base.length() - BLOCK + 1];
+        int h = hash(base, 0);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) h << 32) | i;
+            if (i + BLOCK < base.length()) h = roll(h, base.charAt(i), base.charAt(i + BLOCK));
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    // Entre as janelas com o mesmo hash, a coincidente mais próxima da posição esperada; -1 se nenhuma
+    private static int nearestMatch(long[] index, int h, String base, String target, int offset, int expected) {
+        int found = Arrays.binarySearch(index, ((long) h << 32) | Math.max(0, expected));
+        int above = found >= 0 ? found : -found - 1;
+        int below = above - 1;
+        while (true) {
+            boolean hasAbove = above < index.length && (int) (index[above] >> 32) == h;
+            boolean hasBelow = below >= 0 && (int) (index[below] >> 32) == h;
+            if (!hasAbove && !hasBelow) return -1;
+            int candidate;
+            if (hasAbove && (!hasBelow || position(index[above]) - expected <= expected - position(index[below]))) {
+                candidate = position(index[above++]);
+            } else {
+                candidate = position(index[below--]);
+            }
+            if (base.regionMatches(candidate, target, offset, BLOCK)) return candidate;
+        }
+    }
+
+    private static int position(long key) {
+        return (int) key; // posições são >= 0: os 32 bits baixos não carregam sinal para o hash
+    }
+
+    public static String apply(String base, byte[] delta) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(inflate(delta)))) {
+            int length = readVarInt(in);
+            StringBuilder target = new StringBuilder(length);
+            while (in.available() > 0) {
+                byte op = in.readByte();
+                if (op == OP_COPY) {
+                    int offset = readVarInt(in);
+                    int count = readVarInt(in);
+                    target.append(base, offset, offset + count);
+                } else if (op == OP_INSERT) {
+                    int count = readVarInt(in);
+                    for (int i = 0; i < count; i++) target.append(in.readChar());
+                } else {
+                    throw new IllegalStateException("Delta de revisão inválido");
+                }
+            }
+            if (target.length() != length) throw new IllegalStateException("Delta de revisão inválido");
+            return target.toString();
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new IllegalStateException("Delta de revisão inválido", e);
+        }
+    }
+
+    // Literais em UTF-16 (writeChar): um corte no meio de um par surrogate não corrompe o texto; o deflate tira a redundância
+    private static void writeInsert(DataOutputStream out, String target, int from, int to) throws IOException {
+        if (to <= from) return;
+        out.writeByte(OP_INSERT);
+        writeVarInt(out, to - from);
+        for (int i = from; i < to; i++) out.writeChar(target.charAt(i));
+    }
+
+    private static int hash(String text, int offset) {
+        int h = 0;
+        for (int i = offset; i < offset + BLOCK; i++) h = 31 * h + text.charAt(i);
+        return h;
+    }
+
+    // Desliza a janela um caractere: tira out (peso 31^(BLOCK-1)) e acrescenta in
+    private static int roll(int h, char out, char in) {
+        return 31 * (h - out * POW) + in;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalStateException("Delta de revisão inválido");
+    }
+
+    static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) out.write(chunk, 0, deflater.deflate(chunk));
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Revisão corrompida");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Revisão corrompida", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
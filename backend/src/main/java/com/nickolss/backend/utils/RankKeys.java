@@ -0,0 +1,105 @@
+package com.nickolss.backend.utils;
+
+/**
+ * Chaves de ordenação fracionárias (base 62) para a ordem manual das tarefas: entre quaisquer duas chaves sempre
+ * existe outra, então mover um item grava só a chave dele.
+ * As chaves comparam como strings byte a byte (String.compareTo / COLLATE "C" no Postgres) e nunca terminam no
+ * menor dígito ('0'), o que garante espaço entre uma chave e qualquer extensão dela.
+ * Inserir no topo ou no fim só decrementa/incrementa o primeiro dígito: a chave cresce um caractere a cada ~60 inserções
+ * no mesmo extremo; meio a meio cresce mais rápido, e o rebalanceamento (spread) devolve chaves curtas.
+ */
+public final class RankKeys {
+
+    static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    private RankKeys() {
+    }
+
+    /**
+     * Chave estritamente entre lower e upper; null em um dos lados = extremo aberto (topo/fim da lista).
+     */
+    public static String between(String lower, String upper) {
+        if (lower != null) validate(lower);
+        if (upper != null) validate(upper);
+        if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            throw new IllegalArgumentException("Chave inferior deve ser menor que a superior");
+        }
+        if (upper == null) return lower == null ? DIGITS.substring(BASE / 2, BASE / 2 + 1) : after(lower);
+        if (lower == null) return before(upper);
+        return midpoint(lower, upper);
+    }
+
+    /**
+     * count chaves crescentes, de mesmo tamanho, espaçadas por igual na metade central do espaço
+     * (sobra espaço para inserções no topo e no fim sem crescer).
+     */
+    public static String[] spread(int count) {
+        int width = 1;
+        long space = BASE;
+        // Ao menos BASE valores entre chaves vizinhas (metade do espaço é usada)
+        while (space / 2 / (count + 1L) < BASE) {
+            width++;
+            space *= BASE;
+        }
+        long low = space / 4;
+        long step = space / 2 / (count + 1L);
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            long value = low + step * (i + 1);
+            if (value % BASE == 0) value++; // sem '0' no fim
+            keys[i] = encode(value, width);
+        }
+        return keys;
+    }
+
+    private static String midpoint(String lower, String upper) {
+        // Prefixo comum (lower completado com '0')
+        int n = 0;
+        while (digit(lower, n) == digit(upper, n)) n++;
+        String prefix = upper.substring(0, n);
+        int low = digit(lower, n);
+        int high = digit(upper, n);
+
+        if (high - low > 1) return prefix + DIGITS.charAt((low + high) / 2);
+        // Dígitos vizinhos: upper truncado já serve se for mais longo; senão continua depois do resto de lower
+        if (n + 1 < upper.length()) return prefix + upper.charAt(n);
+        String rest = lower.length() > n + 1 ? lower.substring(n + 1) : "";
+        return prefix + DIGITS.charAt(low) + (rest.isEmpty() ? DIGITS.substring(BASE / 2, BASE / 2 + 1) : after(rest));
+    }
+
+    private static String after(String key) {
+        int first = DIGITS.indexOf(key.charAt(0));
+        if (first < BASE - 1) return String.valueOf(DIGITS.charAt(first + 1));
+        return DIGITS.charAt(BASE - 1) + (key.length() > 1 ? after(key.substring(1)) : DIGITS.substring(BASE / 2, BASE / 2 + 1));
+    }
+
+    private static String before(String key) {
+        int first = DIGITS.indexOf(key.charAt(0));
+        if (first > 1) return String.valueOf(DIGITS.charAt(first - 1));
+        if (first == 1) return key.length() > 1 ? key.substring(0, 1) : "0" + DIGITS.charAt(BASE - 1);
+        return "0" + before(key.substring(1));
+    }
+
+    private static int digit(String key, int index) {
+        return index < key.length() ? DIGITS.indexOf(key.charAt(index)) : 0;
+    }
+
+    private static String encode(long value, int width) {
+        char[] chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        return new String(chars);
+    }
+
+    private static void validate(String key) {
+        if (key.isEmpty() || key.charAt(key.length() - 1) == DIGITS.charAt(0)) {
+            throw new IllegalArgumentException("Chave de ordenação inválida: " + key);
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (DIGITS.indexOf(key.charAt(i)) < 0) throw new IllegalArgumentException("Chave de ordenação inválida: " + key);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.nickolss.backend.utils;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+public final class RecurrenceUtils {
+
+    public static final Set<String> FREQUENCIES = Set.of("daily", "weekly", "monthly", "yearly");
+
+    private RecurrenceUtils() {
+    }
+
+    /**
+     * Ocorrência seguinte a "current". Em regras mensais/anuais o dia vem da âncora (startDate),
+     * então uma regra do dia 31 cai em 30/04 e volta para 31/05 em vez de "escorregar" para o dia 30.
+     */
+    public static LocalDate next(String frequency, int intervalCount, LocalDate anchor, LocalDate current) {
+        return switch (frequency) {
+            case "daily" -> current.plusDays(intervalCount);
+            case "weekly" -> current.plusWeeks(intervalCount);
+            case "monthly" -> withAnchorDay(current.plusMonths(intervalCount), anchor);
+            case "yearly" -> withAnchorDay(current.plusYears(intervalCount), anchor);
+            default -> throw new IllegalArgumentException("Frequência inválida: " + frequency);
+        };
+    }
+
+    // Primeira ocorrência em ou depois de "date" (usado ao reativar uma regra pausada)
+    public static LocalDate firstOnOrAfter(String frequency, int intervalCount, LocalDate anchor,
+                                           LocalDate current, LocalDate date) {
+        LocalDate occurrence = current;
+        while (occurrence.isBefore(date)) {
+            occurrence = next(frequency, intervalCount, anchor, occurrence);
+        }
+        return occurrence;
+    }
+
+    private static LocalDate withAnchorDay(LocalDate date, LocalDate anchor) {
+        return date.withDayOfMonth(Math.min(anchor.getDayOfMonth(), date.lengthOfMonth()));
+    }
+}
@@ -0,0 +1,59 @@
+package com.nickolss.backend.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Dicionário imutável das tags de um usuário (tag → quantidade de notas) para autocomplete.
+ * As tags ficam ordenadas pela forma normalizada (sem acento, minúsculas): o prefixo é localizado por busca binária
+ * e as sugestões saem das tags mais usadas.
+ */
+public final class TagDictionary {
+
+    public record Entry(String tag, long count) {
+    }
+
+    private final Entry[] byCount;     // facetas: mais usadas primeiro
+    private final Entry[] byKey;       // autocomplete: ordenadas por key
+    private final String[] keys;
+
+    public TagDictionary(List<Entry> entries) {
+        this.byCount = entries.stream()
+                .sorted(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::tag))
+                .toArray(Entry[]::new);
+        this.byKey = entries.stream()
+                .sorted(Comparator.comparing((Entry e) -> CategorizationEngine.normalize(e.tag())).thenComparing(Entry::tag))
+                .toArray(Entry[]::new);
+        this.keys = Arrays.stream(byKey).map(e -> CategorizationEngine.normalize(e.tag())).toArray(String[]::new);
+    }
+
+    public List<Entry> all() {
+        return List.of(byCount);
+    }
+
+    public int size() {
+        return byCount.length;
+    }
+
+    public List<Entry> suggest(String prefix, int limit) {
+        String key = CategorizationEngine.normalize(prefix == null ? "" : prefix.strip());
+        int from = lowerBound(key);
+        List<Entry> matches = new ArrayList<>();
+        for (int i = from; i < keys.length && keys[i].startsWith(key); i++) matches.add(byKey[i]);
+        matches.sort(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::tag));
+        return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,167 @@
+package com.nickolss.backend.utils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Timing wheel hierárquico para prazos em memória (a mesma estrutura dos timers do Kafka e do kernel).
+ * Cada nível tem SLOTS baldes e um balde do nível L cobre SLOTS^L ticks: a entrada fica no nível mais baixo que
+ * alcança o seu prazo e desce de nível quando o ponteiro chega ao balde dela. Agendar e cancelar são O(1) (nó numa
+ * lista duplamente ligada + índice por chave); avançar custa O(1) por tick mais as entradas que vencem ou descem.
+ * Memória: um nó e uma entrada no índice por prazo, nada proporcional ao horizonte.
+ * Não é thread-safe: quem usa sincroniza.
+ */
+public final class TimingWheel<K, V> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4; // 64^4 ticks: ~194 dias com tick de 1 s
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long deadline; // em ticks
+        int level;
+        int slot;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, long deadline) {
+            this.key = key;
+            this.value = value;
+            this.deadline = deadline;
+        }
+    }
+
+    private final long tickMillis;
+    private final Node<K, V>[][] buckets;
+    private final Map<K, Node<K, V>> index = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis deve ser positivo");
+        this.tickMillis = tickMillis;
+        this.buckets = new Node[LEVELS][SLOTS];
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    // Tudo com prazo <= currentMillis já saiu do wheel
+    public long currentMillis() {
+        return currentTick * tickMillis;
+    }
+
+    /**
+     * Agenda (ou reagenda) a chave. Retorna false, sem agendar, se o prazo já passou: quem chama decide o que fazer.
+     */
+    public boolean schedule(K key, long deadlineMillis, V value) {
+        cancel(key);
+        long deadline = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        if (deadline <= currentTick) return false;
+
+        Node<K, V> node = new Node<>(key, value, deadline);
+        insert(node);
+        index.put(key, node);
+        return true;
+    }
+
+    public V cancel(K key) {
+        Node<K, V> node = index.remove(key);
+        if (node == null) return null;
+        unlink(node);
+        return node.value;
+    }
+
+    public int removeIf(Predicate<V> filter) {
+        int removed = 0;
+        for (Iterator<Node<K, V>> it = index.values().iterator(); it.hasNext(); ) {
+            Node<K, V> node = it.next();
+            if (filter.test(node.value)) {
+                it.remove();
+                unlink(node);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Avança até nowMillis entregando cada entrada vencida a expired. Com o wheel vazio o ponteiro salta direto.
+     */
+    public void advance(long nowMillis, Consumer<V> expired) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < target) {
+            if (index.isEmpty()) {
+                currentTick = target;
+                return;
+            }
+            currentTick++;
+            // Níveis altos primeiro: o que desce pode cair justamente no balde do nível 0 deste tick
+            for (int level = LEVELS - 1; level > 0; level--) {
+                int shift = BITS * level;
+                if ((currentTick & ((1L << shift) - 1)) == 0) {
+                    cascade(level, (int) ((currentTick >>> shift) & MASK), expired);
+                }
+            }
+            Node<K, V> node = detach(0, (int) (currentTick & MASK));
+            while (node != null) {
+                Node<K, V> next = node.next;
+                index.remove(node.key);
+                expired.accept(node.value);
+                node = next;
+            }
+        }
+    }
+
+    private void cascade(int level, int slot, Consumer<V> expired) {
+        Node<K, V> node = detach(level, slot);
+        while (node != null) {
+            Node<K, V> next = node.next;
+            if (node.deadline <= currentTick) {
+                index.remove(node.key);
+                expired.accept(node.value);
+            } else {
+                insert(node);
+            }
+            node = next;
+        }
+    }
+
+    private void insert(Node<K, V> node) {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * level;
+            if ((node.deadline >>> shift) - (currentTick >>> shift) < SLOTS) {
+                node.level = level;
+                node.slot = (int) ((node.deadline >>> shift) & MASK);
+                node.prev = null;
+                node.next = buckets[level][node.slot];
+                if (node.next != null) node.next.prev = node;
+                buckets[level][node.slot] = node;
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Prazo além do alcance do timing wheel");
+    }
+
+    private Node<K, V> detach(int level, int slot) {
+        Node<K, V> head = buckets[level][slot];
+        buckets[level][slot] = null;
+        return head;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.prev != null) node.prev.next = node.next;
+        else buckets[node.level][node.slot] = node.next;
+        if (node.next != null) node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+}
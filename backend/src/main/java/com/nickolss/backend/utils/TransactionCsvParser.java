@@ -0,0 +1,173 @@
+package com.nickolss.backend.utils;
+
+import com.nickolss.backend.models.dtos.TransactionDTO;
+import com.nickolss.backend.models.dtos.TransactionImportErrorDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parser de extratos em CSV para o import em lote.
+ * A primeira linha é o cabeçalho (date, description, amount, type, category, accountId, em qualquer ordem).
+ * Aceita "," ou ";" como separador, campos entre aspas (inclusive com quebras de linha), datas ISO ou dd/MM/yyyy
+ * e valores com vírgula decimal.
+ * Sem coluna "type", o sinal do valor define se é income (positivo) ou expense (negativo).
+ */
+public final class TransactionCsvParser {
+
+    private static final DateTimeFormatter BR_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private TransactionCsvParser() {
+    }
+
+    public record Result(List<TransactionDTO> rows, List<Integer> rowNumbers, List<TransactionImportErrorDTO> errors) {
+    }
+
+    public static Result parse(String csv) {
+        List<TransactionDTO> rows = new ArrayList<>();
+        List<Integer> rowNumbers = new ArrayList<>();
+        List<TransactionImportErrorDTO> errors = new ArrayList<>();
+
+        char delimiter = detectDelimiter(csv);
+        List<List<String>> records = splitRecords(csv, delimiter);
+        if (records.isEmpty()) return new Result(rows, rowNumbers, errors);
+
+        List<String> header = records.get(0);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        for (int i = 1; i < records.size(); i++) {
+            int rowNumber = i;
+            try {
+                rows.add(toDTO(records.get(i), columns));
+                rowNumbers.add(rowNumber);
+            } catch (IllegalArgumentException e) {
+                errors.add(TransactionImportErrorDTO.builder().row(rowNumber).message(e.getMessage()).build());
+            }
+        }
+        return new Result(rows, rowNumbers, errors);
+    }
+
+    private static TransactionDTO toDTO(List<String> fields, Map<String, Integer> columns) {
+        String type = field(fields, columns, "type");
+        BigDecimal amount = parseAmount(field(fields, columns, "amount"));
+        if (type == null && amount != null) {
+            type = amount.signum() < 0 ? "expense" : "income";
+        }
+        String accountId = field(fields, columns, "accountid");
+
+        return TransactionDTO.builder()
+                .date(parseDate(field(fields, columns, "date")))
+                .description(field(fields, columns, "description"))
+                .amount(amount != null ? amount.abs() : null)
+                .type(type != null ? type.toLowerCase(Locale.ROOT) : null)
+                .category(field(fields, columns, "category"))
+                .accountId(accountId != null ? parseLong(accountId) : null)
+                .build();
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) return null;
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) return null;
+        try {
+            return value.contains("/") ? LocalDate.parse(value, BR_DATE) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data inválida: " + value);
+        }
+    }
+
+    private static BigDecimal parseAmount(String value) {
+        if (value == null) return null;
+        String normalized = value.replace(" ", "");
+        int comma = normalized.lastIndexOf(',');
+        int dot = normalized.lastIndexOf('.');
+        if (comma > dot) {
+            // Formato brasileiro: 1.234,56
+            normalized = normalized.replace(".", "").replace(',', '.');
+        } else {
+            normalized = normalized.replace(",", "");
+        }
+        try {
+            return new BigDecimal(normalized);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido: " + value);
+        }
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("accountId inválido: " + value);
+        }
+    }
+
+    // Separador pela primeira linha não vazia (o cabeçalho)
+    private static char detectDelimiter(String text) {
+        for (String line : text.split("\r?\n|\r")) {
+            if (!line.isBlank()) return line.indexOf(';') >= 0 ? ';' : ',';
+        }
+        return ',';
+    }
+
+    /**
+     * Divide o texto em registros e campos num só passo: quebra de linha e separador só contam fora de aspas,
+     * então um campo entre aspas pode conter ";", "," e quebras de linha ("" é uma aspa escapada) e as mantém como
+     * vieram, inclusive CR. Fora de aspas CRLF, LF e CR sozinho terminam o registro. Linhas em branco são ignoradas.
+     */
+    private static List<List<String>> splitRecords(String text, char delimiter) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        boolean blank = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                blank = false;
+            } else if (c == delimiter) {
+                fields.add(current.toString());
+                current.setLength(0);
+                blank = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') i++;
+                fields.add(current.toString());
+                if (!blank) records.add(fields);
+                fields = new ArrayList<>();
+                current.setLength(0);
+                blank = true;
+            } else {
+                current.append(c);
+                if (!Character.isWhitespace(c)) blank = false;
+            }
+        }
+        fields.add(current.toString());
+        if (!blank) records.add(fields);
+        return records;
+    }
+}
@@ -0,0 +1,87 @@
+-- Executado na subida depois do ddl-auto do Hibernate (spring.jpa.defer-datasource-initialization).
+-- Só comandos idempotentes: o script roda a cada inicialização.
+-- Blocos DO usam corpo entre aspas simples (o ScriptUtils do Spring não entende $$).
+
+-- Check-in único por (usuário, hábito, dia). Na primeira vez remove as duplicatas existentes
+-- (fica a linha mais recente) e limpa os bitsets de hábitos para serem recarregados das entries.
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = ''uk_habit_entries_user_habit_date'') THEN
+        DELETE FROM habit_entries a USING habit_entries b
+        WHERE a.user_id = b.user_id AND a.habit_id = b.habit_id AND a.date = b.date AND a.id < b.id;
+        CREATE UNIQUE INDEX uk_habit_entries_user_habit_date ON habit_entries (user_id, habit_id, date);
+        DELETE FROM habit_completion_bitsets;
+    END IF;
+END';
+
+-- Busca textual em notas: tsvector gerado (título > tags > conteúdo) e índice GIN.
+-- array_to_string não é IMMUTABLE, por isso o wrapper (exigido em colunas geradas).
+CREATE OR REPLACE FUNCTION notes_tags_text(tags text[]) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS 'SELECT coalesce(array_to_string(tags, '' ''), '''')';
+
+-- Termos do conteúdo em coluna própria: o trigger calcula a partir do texto puro; em notas com conteúdo comprimido
+-- pela aplicação (content_compressed) o banco não lê o texto, e quem grava é o NoteContentService.
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS content_vector tsvector;
+
+CREATE OR REPLACE FUNCTION notes_content_vector() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    IF NEW.content_compressed IS NULL THEN
+        NEW.content_vector := to_tsvector(''portuguese'', coalesce(NEW.content, ''''));
+    END IF;
+    RETURN NEW;
+END';
+
+DROP TRIGGER IF EXISTS trg_notes_content_vector ON notes;
+CREATE TRIGGER trg_notes_content_vector BEFORE INSERT OR UPDATE OF content, content_compressed ON notes
+    FOR EACH ROW EXECUTE FUNCTION notes_content_vector();
+
+-- Migração da versão em que search_vector era gerado direto de content: preenche content_vector e recria a coluna
+-- (os índices de search_vector saem junto e são recriados abaixo)
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns WHERE table_name = ''notes'' AND column_name = ''search_vector''
+               AND generation_expression NOT LIKE ''%content_vector%'') THEN
+        UPDATE notes SET content_vector = to_tsvector(''portuguese'', coalesce(content, ''''))
+        WHERE content_compressed IS NULL;
+        ALTER TABLE notes DROP COLUMN search_vector;
+    END IF;
+END';
+
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('portuguese', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('portuguese', notes_tags_text(tags)), 'B') ||
+    setweight(coalesce(content_vector, ''::tsvector), 'C')
+) STORED;
+
+-- Com btree_gin o GIN é composto (user_id, search_vector): termos comuns não trazem as notas dos outros usuários.
+-- Sem permissão para a extensão, fica o GIN simples (mesmo resultado, filtro de usuário no heap).
+DO '
+BEGIN
+    BEGIN
+        CREATE EXTENSION IF NOT EXISTS btree_gin;
+    EXCEPTION WHEN OTHERS THEN
+        RAISE NOTICE ''btree_gin indisponível: busca de notas usa o índice GIN simples'';
+    END;
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = ''btree_gin'') THEN
+        CREATE INDEX IF NOT EXISTS idx_notes_user_search_vector ON notes USING GIN (user_id, search_vector);
+    ELSE
+        CREATE INDEX IF NOT EXISTS idx_notes_search_vector ON notes USING GIN (search_vector);
+    END IF;
+END';
+
+-- Filtro de notas por tags (&& / @>) resolvido pelo índice; composto com user_id quando há btree_gin
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = ''btree_gin'') THEN
+        CREATE INDEX IF NOT EXISTS idx_notes_user_tags ON notes USING GIN (user_id, tags);
+    ELSE
+        CREATE INDEX IF NOT EXISTS idx_notes_tags ON notes USING GIN (tags);
+    END IF;
+END';
+
+-- Tarefas abertas por vencimento ("vencem esta semana"): índice parcial, só com as não concluídas.
+-- O histórico de concluídas não entra no índice nem é percorrido.
+CREATE INDEX IF NOT EXISTS idx_tasks_open_user_due ON tasks (user_id, due_date, id) WHERE NOT completed;
+
+-- Lembretes (ReminderService): janela de vencimentos de todos os usuários, só tarefas abertas
+CREATE INDEX IF NOT EXISTS idx_tasks_open_due ON tasks (due_date) WHERE NOT completed;
@@ -0,0 +1,116 @@
+package com.nickolss.backend.benchmarks;
+
+import com.nickolss.backend.models.HabitEntryEntity;
+import com.nickolss.backend.utils.HabitCalendar;
+import com.nickolss.backend.utils.HabitStatsEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estatísticas de um hábito: abordagem antiga (lista de entries, como o cliente calcula hoje)
+ * contra o bitset anual + operações de bits.
+ * Desligado por padrão: rode com "mvn test -Dbenchmark=true -Dtest=HabitStatsBenchmarkTests".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HabitStatsBenchmarkTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 30);
+
+    @Param({"365", "1825"})
+    public int historyDays;
+
+    private List<HabitEntryEntity> entries;
+    private Map<Integer, byte[]> years;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        entries = new ArrayList<>();
+        years = new HashMap<>();
+        for (LocalDate day = TODAY.minusDays(historyDays - 1L); !day.isAfter(TODAY); day = day.plusDays(1)) {
+            if (random.nextDouble() < 0.8) {
+                HabitEntryEntity entry = new HabitEntryEntity();
+                entry.setDate(day);
+                entry.setCompleted(true);
+                entries.add(entry);
+
+                int index = HabitCalendar.dayOfYearIndex(day);
+                years.computeIfAbsent(day.getYear(), y -> new byte[HabitCalendar.YEAR_BYTES])[index / 8] |= (byte) (1 << (index % 8));
+            }
+        }
+        entries.sort(Comparator.comparing(HabitEntryEntity::getDate).reversed()); // ORDER BY date DESC da listagem do histórico
+    }
+
+    @Benchmark
+    public int[] listBased() {
+        // Sequência atual: percorre as entries concluídas em ordem decrescente
+        List<HabitEntryEntity> completed = entries.stream().filter(HabitEntryEntity::getCompleted).toList();
+        int current = 0;
+        for (HabitEntryEntity entry : completed) {
+            if (entry.getDate().equals(TODAY.minusDays(current))) current++;
+            else break;
+        }
+        // Recorde: ordena em ordem crescente e mede as sequências
+        List<LocalDate> dates = completed.stream().map(HabitEntryEntity::getDate).sorted().toList();
+        int longest = 0;
+        int run = 0;
+        LocalDate previous = null;
+        for (LocalDate date : dates) {
+            run = previous != null && ChronoUnit.DAYS.between(previous, date) == 1 ? run + 1 : 1;
+            longest = Math.max(longest, run);
+            previous = date;
+        }
+        // Janelas: um filtro sobre a lista por janela
+        int[] result = new int[2 + HabitStatsEngine.WINDOWS.length];
+        result[0] = current;
+        result[1] = longest;
+        for (int w = 0; w < HabitStatsEngine.WINDOWS.length; w++) {
+            LocalDate from = TODAY.minusDays(HabitStatsEngine.WINDOWS[w] - 1L);
+            result[2 + w] = (int) completed.stream().filter(e -> !e.getDate().isBefore(from)).count();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public HabitStatsEngine.Stats bitsetBased() {
+        HabitCalendar calendar = HabitCalendar.fromYears(years, TODAY);
+        return HabitStatsEngine.compute(calendar, "daily", null, null, TODAY);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HabitStatsBenchmarkTests.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,87 @@
+package com.nickolss.backend.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nickolss.backend.services.NoteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Listagem completa de notas (conteúdo inteiro) contra a listagem resumida (projeção + preview) num conjunto
+ * de notas grandes: tempo, bytes alocados na thread (heap churn) e tamanho do JSON. A correção da listagem
+ * resumida fica no NoteSummaryListTests; aqui só se mede.
+ * Desligado por padrão: rode com "mvn test -Dbenchmark=true -Dtest=NoteListBenchmarkTests".
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class NoteListBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteListBenchmarkTests.class);
+
+    private static final int NOTES = 2_000;
+    private static final int CONTENT_BLOCKS = 600; // ~20 KB de texto pouco compressível por nota
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String userId = "bench-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM notes WHERE user_id = ?", userId);
+    }
+
+    @Test
+    void compareFullListWithSummaryList() throws Exception {
+        jdbcTemplate.update("INSERT INTO notes (user_id, title, content, tags, is_pinned, color, updated_at, created_at) " +
+                "SELECT ?, 'Nota ' || g, (SELECT string_agg(md5(random()::text || g || b), ' ') FROM generate_series(1, ?) b), " +
+                "ARRAY['tag' || (g % 10)], g % 50 = 0, 'yellow', now() - g * interval '1 minute', now() " +
+                "FROM generate_series(1, ?) g", userId, CONTENT_BLOCKS, NOTES);
+        assertEquals(NOTES, noteService.getNoteSummaries(userId).size());
+
+        Result full = measure(() -> noteService.getNotes(userId));
+        Result summary = measure(() -> noteService.getNoteSummaries(userId));
+
+        log.info("{} notas de ~{} KB", NOTES, CONTENT_BLOCKS * 33 / 1024);
+        log.info("  completa: {} ms, {} MB alocados, JSON {} KB", full.millis(), full.allocatedMb(), full.payloadKb());
+        log.info("  resumida: {} ms, {} MB alocados, JSON {} KB", summary.millis(), summary.allocatedMb(), summary.payloadKb());
+    }
+
+    private record Result(String millis, String allocatedMb, String payloadKb) {
+    }
+
+    private Result measure(Supplier<List<?>> list) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) list.get();
+
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        List<?> last = null;
+        for (int i = 0; i < ITERATIONS; i++) last = list.get();
+        double millis = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+        double allocatedMb = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / 1024.0 / 1024.0 / ITERATIONS;
+        double payloadKb = objectMapper.writeValueAsBytes(last).length / 1024.0;
+
+        return new Result(String.format("%.1f", millis), String.format("%.1f", allocatedMb), String.format("%.1f", payloadKb));
+    }
+}
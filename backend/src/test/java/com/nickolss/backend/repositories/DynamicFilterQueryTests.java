@@ -0,0 +1,184 @@
+package com.nickolss.backend.repositories;
+
+import com.nickolss.backend.services.FinanceService;
+import com.nickolss.backend.services.HabitService;
+import com.nickolss.backend.services.TaskService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Garante que as listagens com filtros opcionais só emitem os predicados informados
+ * (sem "? IS NULL OR ...") e que o plano genérico de cada combinação usa os índices compostos.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.nickolss.backend.repositories.DynamicFilterQueryTests$SqlCapture")
+class DynamicFilterQueryTests {
+
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private FinanceService financeService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String userId = "test-" + UUID.randomUUID();
+
+    @BeforeEach
+    void clear() {
+        SqlCapture.STATEMENTS.clear();
+    }
+
+    @Test
+    void habitEntryFiltersOnlyEmitSuppliedPredicates() {
+        for (int mask = 0; mask < 8; mask++) {
+            Long habitId = (mask & 1) != 0 ? 1L : null;
+            LocalDate start = (mask & 2) != 0 ? LocalDate.of(2025, 1, 1) : null;
+            LocalDate end = (mask & 4) != 0 ? LocalDate.of(2025, 12, 31) : null;
+
+            String sql = capture("habit_entries", () -> habitService.getHabitEntries(userId, habitId, start, end));
+
+            assertFalse(sql.contains(" is null"), sql);
+            assertEquals(habitId != null, matches(sql, "habit_id\\s*=\\s*\\?"), sql);
+            assertEquals(start != null, matches(sql, "date\\s*>=\\s*\\?"), sql);
+            assertEquals(end != null, matches(sql, "date\\s*<=\\s*\\?"), sql);
+            assertTrue(genericPlan(sql).contains("uk_habit_entries_user_habit_date"), sql);
+        }
+    }
+
+    @Test
+    void transactionFiltersOnlyEmitSuppliedPredicates() {
+        for (Long accountId : new Long[]{null, 1L}) {
+            String sql = capture("transactions", () -> financeService.getTransactions(userId, accountId));
+
+            assertFalse(sql.contains(" is null"), sql);
+            assertEquals(accountId != null, matches(sql, "account_id\\s*=\\s*\\?"), sql);
+            String plan = genericPlan(sql);
+            assertTrue(plan.contains("idx_transactions_user_"), plan);
+        }
+    }
+
+    @Test
+    void taskPageFiltersOnlyEmitSuppliedPredicates() {
+        seedTasksOfOtherUsers();
+        for (Boolean completed : new Boolean[]{null, false, true}) {
+            String sql = capture("tasks", () -> taskService.getTasksPage(
+                    userId, completed, null, null, null, null, "created", null, 20));
+
+            assertFalse(sql.contains(" is null"), sql);
+            assertEquals(completed != null, sql.substring(sql.indexOf(" where ")).contains("completed"), sql);
+            String plan = genericPlan(sql);
+            assertTrue(plan.contains("idx_tasks_user_"), plan);
+        }
+    }
+
+    @Test
+    void openTasksDueThisWeekUseThePartialIndex() {
+        LocalDate sunday = LocalDate.of(2025, 6, 8);
+        String sql = capture("tasks", () -> taskService.getTasksPage(
+                userId, false, null, null, null, sunday, "due", null, 20));
+
+        assertTrue(matches(sql, "due_date\\s*<=\\s*\\?"), sql);
+        assertFalse(matches(sql, "completed\\s*=\\s*\\?"), sql);
+        String plan = genericPlan(sql);
+        assertTrue(plan.contains("idx_tasks_open_user_due"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    void manualOrderListingReadsTheRankIndexInOrder() {
+        String sql = capture("tasks", () -> taskService.getTasks(userId));
+
+        String plan = genericPlan(sql);
+        assertTrue(plan.contains("idx_tasks_user_rank"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    // Com a tabela vazia (ou de um único usuário) "tasks_pkey de trás pra frente + filtro" empata em custo com o
+    // índice composto; com vários usuários as estatísticas ficam parecidas com as de produção
+    private void seedTasksOfOtherUsers() {
+        jdbcTemplate.update("INSERT INTO tasks (user_id, text, completed, created_at, updated_at) " +
+                "SELECT 'seed-" + userId + "-' || (i % 50), 't', i % 3 = 0, now(), now() FROM generate_series(1, 2000) i");
+        jdbcTemplate.execute("ANALYZE tasks");
+    }
+
+    @AfterEach
+    void removeSeededTasks() {
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id LIKE ?", "seed-" + userId + "-%");
+    }
+
+    private String capture(String table, Runnable call) {
+        SqlCapture.STATEMENTS.clear();
+        call.run();
+        return SqlCapture.STATEMENTS.stream()
+                .filter(s -> s.startsWith("select") && s.contains(" from " + table + " "))
+                .reduce((first, second) -> second)
+                .orElseThrow(() -> new AssertionError("Nenhum SELECT em " + table + ": " + SqlCapture.STATEMENTS));
+    }
+
+    private static boolean matches(String sql, String regex) {
+        return Pattern.compile(regex).matcher(sql).find();
+    }
+
+    // Plano genérico (o mesmo que o Postgres reaproveita para qualquer valor) do SQL gerado, com seq scan desligado:
+    // as tabelas de teste são pequenas demais para o planner preferir índice por custo,
+    // mas ainda precisa existir um índice que atenda os predicados emitidos
+    private String genericPlan(String sql) {
+        Matcher matcher = Pattern.compile("\\?").matcher(sql);
+        StringBuilder numbered = new StringBuilder();
+        int n = 0;
+        while (matcher.find()) matcher.appendReplacement(numbered, "\\$" + (++n));
+        matcher.appendTail(numbered);
+        String arguments = n > 0 ? "(" + String.join(", ", Collections.nCopies(n, "NULL")) + ")" : "";
+
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PREPARE filter_plan AS " + numbered);
+                statement.execute("SET plan_cache_mode = force_generic_plan");
+                statement.execute("SET enable_seqscan = off");
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = statement.executeQuery("EXPLAIN EXECUTE filter_plan" + arguments)) {
+                    while (rs.next()) plan.append(rs.getString(1)).append('\n');
+                }
+                statement.execute("DEALLOCATE filter_plan");
+                statement.execute("RESET plan_cache_mode");
+                statement.execute("RESET enable_seqscan");
+                return plan.toString();
+            }
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.AccountDTO;
+import com.nickolss.backend.models.dtos.TransactionDTO;
+import com.nickolss.backend.models.dtos.TransferDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class BalanceCheckpointTests {
+
+    @Autowired
+    private FinanceService financeService;
+
+    @Autowired
+    private BalanceCheckpointService checkpointService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String userId = "test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM transactions WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM finance_monthly_rollups WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM account_balance_checkpoints WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM accounts WHERE user_id = ?", userId);
+    }
+
+    private Long account(String name, String balance) {
+        return financeService.createAccount(userId, AccountDTO.builder()
+                .name(name).type("checking").balance(new BigDecimal(balance)).build()).getId();
+    }
+
+    private Long transaction(Long accountId, String type, String amount, LocalDate date) {
+        return financeService.createTransaction(userId, TransactionDTO.builder().accountId(accountId).type(type)
+                .amount(new BigDecimal(amount)).category("Outros").date(date).build()).getId();
+    }
+
+    // Saldo inicial + todas as transações até a data, direto da tabela de transações
+    private BigDecimal summed(Long accountId, LocalDate date) {
+        return jdbcTemplate.queryForObject("SELECT a.opening_balance + COALESCE((SELECT sum(CASE WHEN t.type = 'income' " +
+                "THEN t.amount ELSE -t.amount END) FROM transactions t WHERE t.account_id = a.id AND t.date <= ?), 0) " +
+                "FROM accounts a WHERE a.id = ?", BigDecimal.class, date, accountId);
+    }
+
+    private void assertBalances(Long accountId, List<LocalDate> dates) {
+        for (LocalDate date : dates) {
+            BigDecimal expected = summed(accountId, date);
+            BigDecimal actual = checkpointService.getBalanceAt(userId, accountId, date).getBalance();
+            assertEquals(0, expected.compareTo(actual), "saldo em " + date + ": esperado " + expected + ", obtido " + actual);
+        }
+    }
+
+    @Test
+    void balanceAtDateFollowsBackdatedInsertsEditsAndDeletes() {
+        Long a = account("Conta A", "1000.00");
+        Long b = account("Conta B", "0");
+        LocalDate may = LocalDate.of(2025, 5, 20);
+        List<LocalDate> dates = List.of(LocalDate.of(2025, 2, 27), LocalDate.of(2025, 2, 28), LocalDate.of(2025, 3, 1),
+                LocalDate.of(2025, 3, 31), LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 30), may, LocalDate.of(2025, 6, 1));
+
+        transaction(a, "expense", "100.00", may);
+        transaction(a, "income", "250.00", may.minusDays(1));
+        assertBalances(a, dates);
+
+        // Retroativas: criam checkpoints de meses anteriores aos que já existiam
+        Long march = transaction(a, "expense", "40.00", LocalDate.of(2025, 3, 31));
+        Long april = transaction(a, "income", "15.00", LocalDate.of(2025, 4, 1));
+        transaction(a, "expense", "5.00", LocalDate.of(2025, 2, 28));
+        assertBalances(a, dates);
+
+        // Edições atravessando a virada do mês e trocando tipo e valor
+        financeService.updateTransaction(userId, march, TransactionDTO.builder().date(LocalDate.of(2025, 4, 1)).build());
+        financeService.updateTransaction(userId, april, TransactionDTO.builder()
+                .date(LocalDate.of(2025, 3, 1)).type("expense").amount(new BigDecimal("22.00")).build());
+        assertBalances(a, dates);
+
+        TransferDTO transfer = financeService.createTransfer(userId, TransferDTO.builder()
+                .fromAccountId(a).toAccountId(b).amount(new BigDecimal("70.00")).date(LocalDate.of(2025, 3, 31)).build());
+        financeService.updateTransfer(userId, transfer.getTransferId(), TransferDTO.builder()
+                .date(LocalDate.of(2025, 4, 1)).build());
+        assertBalances(a, dates);
+        assertBalances(b, dates);
+
+        financeService.deleteTransaction(userId, march);
+        financeService.deleteTransfer(userId, transfer.getTransferId());
+        assertBalances(a, dates);
+        assertBalances(b, dates);
+    }
+}
@@ -0,0 +1,119 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.AccountDTO;
+import com.nickolss.backend.models.dtos.HabitDTO;
+import com.nickolss.backend.models.dtos.HabitEntryDTO;
+import com.nickolss.backend.models.dtos.TransferDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CascadeDeleteServiceTests {
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private FinanceService financeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final String userId = "test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM habit_entries WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM habit_completion_bitsets WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM habits WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM transactions WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM finance_monthly_rollups WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM account_balance_checkpoints WHERE account_id IN (SELECT id FROM accounts WHERE user_id = ?)", userId);
+        jdbcTemplate.update("DELETE FROM accounts WHERE user_id = ?", userId);
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+
+    private Long habitWithEntries(String name) {
+        Long habitId = habitService.createHabit(userId, HabitDTO.builder().name(name).frequency("daily").build()).getId();
+        LocalDate today = LocalDate.now();
+        habitService.upsertHabitEntries(userId, List.of(
+                HabitEntryDTO.builder().habitId(habitId).date(today).completed(true).build(),
+                HabitEntryDTO.builder().habitId(habitId).date(today.minusDays(1)).completed(true).build(),
+                HabitEntryDTO.builder().habitId(habitId).date(today.minusYears(1)).completed(true).build()));
+        return habitId;
+    }
+
+    @Test
+    void deletingAHabitRemovesItsEntriesAndBitsets() {
+        Long deleted = habitWithEntries("Correr");
+        Long kept = habitWithEntries("Ler");
+        assertEquals(2, count("SELECT count(*) FROM habit_completion_bitsets WHERE habit_id = ?", deleted));
+
+        habitService.deleteHabit(userId, deleted);
+
+        assertEquals(0, count("SELECT count(*) FROM habits WHERE id = ?", deleted));
+        assertEquals(0, count("SELECT count(*) FROM habit_entries WHERE habit_id = ?", deleted));
+        assertEquals(0, count("SELECT count(*) FROM habit_completion_bitsets WHERE habit_id = ?", deleted));
+        assertEquals(3, count("SELECT count(*) FROM habit_entries WHERE habit_id = ?", kept));
+        assertEquals(2, count("SELECT count(*) FROM habit_completion_bitsets WHERE habit_id = ?", kept));
+    }
+
+    @Test
+    void statsEndpointStillWorksAfterAHabitIsDeleted() throws Exception {
+        Long deleted = habitWithEntries("Correr");
+        Long kept = habitWithEntries("Ler");
+        habitService.deleteHabit(userId, deleted);
+
+        mockMvc.perform(get("/api/habits/{id}/stats", kept).param("userId", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCompletions").value(3))
+                .andExpect(jsonPath("$.currentStreak").value(2));
+        mockMvc.perform(get("/api/habits/{id}/stats", deleted).param("userId", userId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/habits/stats").param("userId", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void deletingAnAccountRemovesItsTransactionsAndUnlinksTransfers() {
+        AccountDTO deleted = financeService.createAccount(userId, AccountDTO.builder()
+                .name("Conta A").type("checking").balance(new BigDecimal("100.00")).build());
+        AccountDTO kept = financeService.createAccount(userId, AccountDTO.builder()
+                .name("Conta B").type("savings").balance(BigDecimal.ZERO).build());
+        TransferDTO transfer = financeService.createTransfer(userId, TransferDTO.builder()
+                .fromAccountId(deleted.getId()).toAccountId(kept.getId()).amount(new BigDecimal("40.00")).build());
+
+        financeService.deleteAccount(userId, deleted.getId());
+
+        assertEquals(0, count("SELECT count(*) FROM transactions WHERE account_id = ?", deleted.getId()));
+        assertEquals(0, count("SELECT count(*) FROM finance_monthly_rollups WHERE account_id = ?", deleted.getId()));
+        assertEquals(0, count("SELECT count(*) FROM account_balance_checkpoints WHERE account_id = ?", deleted.getId()));
+        // A entrada na conta B continua, mas não é mais transferência
+        assertNull(jdbcTemplate.queryForObject("SELECT transfer_id FROM transactions WHERE id = ?",
+                String.class, transfer.getIncoming().getId()));
+    }
+}
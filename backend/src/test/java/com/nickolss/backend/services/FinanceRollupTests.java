@@ -0,0 +1,100 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.AccountDTO;
+import com.nickolss.backend.models.dtos.TransactionDTO;
+import com.nickolss.backend.models.dtos.TransferDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+class FinanceRollupTests {
+
+    @Autowired
+    private FinanceService financeService;
+
+    @Autowired
+    private FinanceRollupService rollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String userId = "test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM transactions WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM finance_monthly_rollups WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM account_balance_checkpoints WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM accounts WHERE user_id = ?", userId);
+    }
+
+    private Long account(String name) {
+        return financeService.createAccount(userId, AccountDTO.builder()
+                .name(name).type("checking").balance(BigDecimal.ZERO).build()).getId();
+    }
+
+    private Long transaction(Long accountId, String type, String amount, String category, LocalDate date) {
+        return financeService.createTransaction(userId, TransactionDTO.builder().accountId(accountId).type(type)
+                .amount(new BigDecimal(amount)).category(category).date(date).build()).getId();
+    }
+
+    // Linhas que zeraram (tudo que havia no mês/categoria saiu) não existem no rebuild e não contam
+    private List<Map<String, Object>> rollups() {
+        return jdbcTemplate.queryForList("SELECT account_id, month, type, category, round(total, 2) AS total, tx_count " +
+                "FROM finance_monthly_rollups WHERE user_id = ? AND tx_count <> 0 " +
+                "ORDER BY account_id, month, type, category", userId);
+    }
+
+    @Test
+    void incrementalRollupsMatchARebuildFromTransactions() {
+        Long a = account("Conta A");
+        Long b = account("Conta B");
+        LocalDate march = LocalDate.of(2025, 3, 10);
+
+        transaction(a, "income", "100.00", "Salário", march);
+        Long groceries = transaction(a, "expense", "30.00", "Mercado", march.plusDays(5));
+        Long removed = transaction(b, "expense", "20.00", "Mercado", march.minusMonths(1));
+        Long leisure = transaction(a, "expense", "10.00", "Lazer", march.plusDays(10));
+        transaction(a, "expense", "7.50", "Mercado", march.plusDays(1));
+
+        // Retroativa para outro mês e com outro valor
+        financeService.updateTransaction(userId, groceries, TransactionDTO.builder()
+                .date(LocalDate.of(2025, 1, 31)).amount(new BigDecimal("45.00")).build());
+        // Outro tipo, valor, categoria e conta
+        financeService.updateTransaction(userId, leisure, TransactionDTO.builder()
+                .type("income").amount(new BigDecimal("12.00")).category("Reembolso").accountId(b).build());
+        financeService.deleteTransaction(userId, removed);
+
+        TransferDTO transfer = financeService.createTransfer(userId, TransferDTO.builder()
+                .fromAccountId(a).toAccountId(b).amount(new BigDecimal("50.00")).date(march.withDayOfMonth(1)).build());
+        financeService.updateTransfer(userId, transfer.getTransferId(), TransferDTO.builder()
+                .date(LocalDate.of(2025, 2, 28)).amount(new BigDecimal("60.00")).build());
+        TransferDTO undone = financeService.createTransfer(userId, TransferDTO.builder()
+                .fromAccountId(b).toAccountId(a).amount(new BigDecimal("5.00")).date(march.plusMonths(1)).build());
+        financeService.deleteTransfer(userId, undone.getTransferId());
+        // Pela rota de transações, numa perna da transferência
+        financeService.updateTransaction(userId, transfer.getIncoming().getId(), TransactionDTO.builder()
+                .date(march.plusMonths(1)).build());
+
+        List<Map<String, Object>> incremental = rollups();
+        assertFalse(incremental.isEmpty());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM finance_monthly_rollups " +
+                "WHERE user_id = ? AND tx_count = 0 AND total <> 0", Integer.class, userId));
+
+        rollupService.rebuild(userId);
+
+        assertEquals(rollups(), incremental);
+    }
+}
@@ -0,0 +1,159 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.AccountDTO;
+import com.nickolss.backend.models.dtos.TransactionDTO;
+import com.nickolss.backend.models.dtos.TransferDTO;
+import com.nickolss.backend.repositories.AccountRepository;
+import com.nickolss.backend.repositories.TransactionRepository;
+import com.nickolss.backend.repositories.TransactionSpecifications;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class FinanceServiceConcurrencyTests {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 25;
+
+    @Autowired
+    private FinanceService financeService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private final String userId = "test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        transactionRepository.deleteAll(transactionRepository.findAll(TransactionSpecifications.byUser(userId)));
+        accountRepository.deleteAll(accountRepository.findByUserIdOrderByCreatedAtDesc(userId));
+    }
+
+    @Test
+    void concurrentTransactionsKeepExactBalance() throws Exception {
+        AccountDTO account = financeService.createAccount(userId, AccountDTO.builder()
+                .name("Conta teste").type("checking").balance(new BigDecimal("100.00")).build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    // Threads pares creditam 10.25, ímpares debitam 3.10
+                    boolean income = thread % 2 == 0;
+                    financeService.createTransaction(userId, TransactionDTO.builder()
+                            .accountId(account.getId())
+                            .amount(income ? new BigDecimal("10.25") : new BigDecimal("3.10"))
+                            .type(income ? "income" : "expense")
+                            .date(LocalDate.now())
+                            .build());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+
+        int perSide = THREADS / 2 * OPERATIONS_PER_THREAD;
+        BigDecimal expected = new BigDecimal("100.00")
+                .add(new BigDecimal("10.25").multiply(BigDecimal.valueOf(perSide)))
+                .subtract(new BigDecimal("3.10").multiply(BigDecimal.valueOf(perSide)));
+
+        BigDecimal actual = accountRepository.findById(account.getId()).orElseThrow().getBalance();
+        assertEquals(0, expected.compareTo(actual), "saldo esperado " + expected + ", obtido " + actual);
+    }
+
+    @Test
+    void manualBalanceEditWithStaleVersionIsRejected() {
+        AccountDTO account = financeService.createAccount(userId, AccountDTO.builder()
+                .name("Conta teste").type("checking").balance(BigDecimal.ZERO).build());
+
+        // Uma transação incrementa a versão depois que o cliente leu a conta
+        financeService.createTransaction(userId, TransactionDTO.builder()
+                .accountId(account.getId()).amount(BigDecimal.ONE).type("income").date(LocalDate.now()).build());
+
+        AccountDTO staleEdit = AccountDTO.builder().balance(new BigDecimal("50")).version(account.getVersion()).build();
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> financeService.updateAccount(userId, account.getId(), staleEdit));
+    }
+
+    @Test
+    void concurrentOppositeTransfersDoNotDeadlockAndKeepBalances() throws Exception {
+        AccountDTO a = financeService.createAccount(userId, AccountDTO.builder()
+                .name("Conta A").type("checking").balance(new BigDecimal("1000.00")).build());
+        AccountDTO b = financeService.createAccount(userId, AccountDTO.builder()
+                .name("Conta B").type("savings").balance(new BigDecimal("500.00")).build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    // Threads pares transferem A→B 7.00, ímpares B→A 3.00: sentidos opostos ao mesmo tempo
+                    boolean aToB = thread % 2 == 0;
+                    financeService.createTransfer(userId, TransferDTO.builder()
+                            .fromAccountId(aToB ? a.getId() : b.getId())
+                            .toAccountId(aToB ? b.getId() : a.getId())
+                            .amount(aToB ? new BigDecimal("7.00") : new BigDecimal("3.00"))
+                            .build());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+
+        BigDecimal net = new BigDecimal("4.00").multiply(BigDecimal.valueOf(THREADS / 2 * OPERATIONS_PER_THREAD));
+        BigDecimal balanceA = accountRepository.findById(a.getId()).orElseThrow().getBalance();
+        BigDecimal balanceB = accountRepository.findById(b.getId()).orElseThrow().getBalance();
+        assertEquals(0, new BigDecimal("1000.00").subtract(net).compareTo(balanceA), "saldo A: " + balanceA);
+        assertEquals(0, new BigDecimal("500.00").add(net).compareTo(balanceB), "saldo B: " + balanceB);
+        assertEquals(THREADS * OPERATIONS_PER_THREAD * 2, transactionRepository.findAll(TransactionSpecifications.byUser(userId)).size());
+    }
+
+    @Test
+    void transferLegsAreEditedAndDeletedTogether() {
+        AccountDTO a = financeService.createAccount(userId, AccountDTO.builder()
+                .name("Conta A").type("checking").balance(new BigDecimal("100.00")).build());
+        AccountDTO b = financeService.createAccount(userId, AccountDTO.builder()
+                .name("Conta B").type("savings").balance(BigDecimal.ZERO).build());
+
+        TransferDTO transfer = financeService.createTransfer(userId, TransferDTO.builder()
+                .fromAccountId(a.getId()).toAccountId(b.getId()).amount(new BigDecimal("40.00")).build());
+
+        // Editar o valor pela perna de entrada muda as duas pernas
+        financeService.updateTransaction(userId, transfer.getIncoming().getId(),
+                TransactionDTO.builder().amount(new BigDecimal("25.00")).build());
+        assertEquals(0, new BigDecimal("75.00").compareTo(accountRepository.findById(a.getId()).orElseThrow().getBalance()));
+        assertEquals(0, new BigDecimal("25.00").compareTo(accountRepository.findById(b.getId()).orElseThrow().getBalance()));
+        assertTrue(transactionRepository.findAll(TransactionSpecifications.byUser(userId)).stream()
+                .allMatch(t -> new BigDecimal("25.00").compareTo(t.getAmount()) == 0));
+
+        // Apagar a perna de saída remove o par e devolve os saldos
+        financeService.deleteTransaction(userId, transfer.getOutgoing().getId());
+        assertEquals(0, transactionRepository.findAll(TransactionSpecifications.byUser(userId)).size());
+        assertEquals(0, new BigDecimal("100.00").compareTo(accountRepository.findById(a.getId()).orElseThrow().getBalance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(accountRepository.findById(b.getId()).orElseThrow().getBalance()));
+    }
+}
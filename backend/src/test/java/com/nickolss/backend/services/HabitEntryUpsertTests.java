@@ -0,0 +1,130 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.HabitDTO;
+import com.nickolss.backend.models.dtos.HabitEntryDTO;
+import com.nickolss.backend.models.dtos.HabitStatsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class HabitEntryUpsertTests {
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private HabitStatsService habitStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String userId = "test-" + UUID.randomUUID();
+    private final LocalDate day = LocalDate.of(2024, 3, 10);
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM habit_entries WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM habit_completion_bitsets WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM habits WHERE user_id = ?", userId);
+    }
+
+    private Long habit() {
+        return habitService.createHabit(userId, HabitDTO.builder().name("Ler").frequency("daily").build()).getId();
+    }
+
+    private int rows(Long habitId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM habit_entries WHERE habit_id = ?", Integer.class, habitId);
+    }
+
+    private int completions(Long habitId) {
+        return habitStatsService.getAllStats(userId, day).stream()
+                .filter(s -> s.getHabitId().equals(habitId)).findFirst().map(HabitStatsDTO::getTotalCompletions).orElseThrow();
+    }
+
+    @Test
+    void sameHabitAndDayTwiceInOneBatchIsOneRowWithTheLastValues() {
+        Long habitId = habit();
+
+        List<HabitEntryDTO> saved = habitService.upsertHabitEntries(userId, List.of(
+                HabitEntryDTO.builder().habitId(habitId).date(day).completed(true).notes("manhã").build(),
+                HabitEntryDTO.builder().habitId(habitId).date(day.plusDays(1)).completed(true).build(),
+                HabitEntryDTO.builder().habitId(habitId).date(day).completed(false).build()));
+
+        assertEquals(2, saved.size());
+        assertEquals(2, rows(habitId));
+        HabitEntryDTO first = saved.stream().filter(e -> e.getDate().equals(day)).findFirst().orElseThrow();
+        assertFalse(first.getCompleted());
+        assertEquals("manhã", first.getNotes());
+        assertEquals(1, completions(habitId));
+    }
+
+    @Test
+    void upsertAcrossBatchesUpdatesTheSameRow() {
+        Long habitId = habit();
+
+        HabitEntryDTO created = habitService.upsertHabitEntry(userId,
+                HabitEntryDTO.builder().habitId(habitId).date(day).build());
+        assertTrue(created.getCompleted());
+
+        HabitEntryDTO updated = habitService.upsertHabitEntries(userId, List.of(
+                HabitEntryDTO.builder().habitId(habitId).date(day).notes("anotação").build())).get(0);
+        assertEquals(created.getId(), updated.getId());
+        assertTrue(updated.getCompleted());
+        assertEquals("anotação", updated.getNotes());
+
+        HabitEntryDTO unchecked = habitService.upsertHabitEntry(userId,
+                HabitEntryDTO.builder().habitId(habitId).date(day).completed(false).build());
+        assertEquals(created.getId(), unchecked.getId());
+        assertEquals("anotação", unchecked.getNotes());
+        assertEquals(1, rows(habitId));
+        assertEquals(0, completions(habitId));
+    }
+
+    @Test
+    void habitOfAnotherUserIsRejected() {
+        Long habitId = habit();
+        assertThrows(IllegalArgumentException.class, () -> habitService.upsertHabitEntry("other-" + userId,
+                HabitEntryDTO.builder().habitId(habitId).date(day).build()));
+        assertEquals(0, rows(habitId));
+    }
+
+    @Test
+    void migrationRemovesDuplicatesKeepingTheNewestAndCreatesTheUniqueIndex() {
+        Long habitId = habit();
+        jdbcTemplate.execute("DROP INDEX uk_habit_entries_user_habit_date");
+        try {
+            for (String notes : new String[]{"antiga", "nova"}) {
+                jdbcTemplate.update("INSERT INTO habit_entries (user_id, habit_id, date, completed, notes) VALUES (?, ?, ?, true, ?)",
+                        userId, habitId, day, notes);
+            }
+        } finally {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+                return null;
+            });
+            // A migração limpa os bitsets para serem recarregados das entries
+            habitStatsService.backfillOnStartup();
+        }
+
+        assertEquals(1, rows(habitId));
+        assertEquals("nova", jdbcTemplate.queryForObject("SELECT notes FROM habit_entries WHERE habit_id = ?", String.class, habitId));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_indexes WHERE indexname = 'uk_habit_entries_user_habit_date'", Integer.class));
+        assertEquals(1, completions(habitId));
+    }
+}
@@ -0,0 +1,57 @@
+package com.nickolss.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HabitHeatmapServiceTests {
+
+    private static byte[] bitmap(Integer[] offsets, int days) {
+        return Base64.getDecoder().decode(HabitHeatmapService.bitmap(offsets, days));
+    }
+
+    @Test
+    void rangeNotMultipleOfEightUsesAPartialLastByte() {
+        Integer[] offsets = {0, 7, 8, 9};
+        assertArrayEquals(new byte[]{(byte) 0x81, 0x03}, bitmap(offsets, 10));
+        assertEquals(List.of(0, 1, 6, 3), HabitHeatmapService.runLengths(offsets, 10));
+
+        // Último dia do intervalo: o único bit do terceiro byte
+        assertArrayEquals(new byte[]{0, 0, 0x01}, bitmap(new Integer[]{16}, 17));
+        assertEquals(List.of(16, 1), HabitHeatmapService.runLengths(new Integer[]{16}, 17));
+        assertEquals(List.of(2, 2, 6), HabitHeatmapService.runLengths(new Integer[]{2, 3}, 10));
+    }
+
+    @Test
+    void completionsOutsideTheRangeAreIgnored() {
+        Integer[] offsets = {-1, 3, 10, 12};
+        assertArrayEquals(new byte[]{0x08, 0x00}, bitmap(offsets, 10));
+        assertEquals(List.of(3, 1, 6), HabitHeatmapService.runLengths(offsets, 10));
+    }
+
+    @Test
+    void emptyRangeAndRangeWithoutCompletions() {
+        assertEquals("", HabitHeatmapService.bitmap(new Integer[0], 0));
+        assertEquals(List.of(), HabitHeatmapService.runLengths(new Integer[0], 0));
+        assertEquals(List.of(), HabitHeatmapService.runLengths(new Integer[]{0}, 0));
+
+        assertArrayEquals(new byte[]{0}, bitmap(new Integer[0], 5));
+        assertEquals(List.of(5), HabitHeatmapService.runLengths(new Integer[0], 5));
+    }
+
+    @Test
+    void invalidRangeIsRejectedBeforeQuerying() {
+        HabitHeatmapService service = new HabitHeatmapService(null);
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> service.getHeatmap("u", null, day, day.minusDays(1), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getHeatmap("u", null, day, day.plusDays(HabitHeatmapService.MAX_RANGE_DAYS), null));
+        assertThrows(IllegalArgumentException.class, () -> service.getHeatmap("u", null, day, day, "png"));
+    }
+}
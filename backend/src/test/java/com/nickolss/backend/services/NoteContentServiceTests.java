@@ -0,0 +1,93 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.NoteEntity;
+import com.nickolss.backend.models.dtos.NoteDTO;
+import com.nickolss.backend.repositories.NoteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = {
+        "notes.compression.enabled=true",
+        "notes.compression.min-chars=1000"})
+class NoteContentServiceTests {
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private NoteContentService noteContentService;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String userId = "test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM note_revisions WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM notes WHERE user_id = ?", userId);
+    }
+
+    private boolean compressed(Long noteId) {
+        return jdbcTemplate.queryForObject("SELECT content_compressed IS NOT NULL FROM notes WHERE id = ?",
+                Boolean.class, noteId);
+    }
+
+    // Cria pela API e relê a entidade do banco (bytes passando pelo converter)
+    private Long assertRoundTrip(String content, boolean expectCompressed) {
+        Long id = noteService.createNote(userId, NoteDTO.builder().title("Nota").content(content).build()).getId();
+        assertEquals(expectCompressed, compressed(id));
+        assertEquals(content, noteRepository.findById(id).orElseThrow().getContent());
+        assertEquals(content, noteService.getNote(userId, id).getContent());
+        return id;
+    }
+
+    @Test
+    void contentRoundTripsWithAndWithoutCompression() {
+        assertRoundTrip("", false);
+        assertRoundTrip("abaixo do limite: ação", false);
+
+        String large = "Reunião de orçamento: pendências e próximos passos.\n".repeat(500);
+        Long id = assertRoundTrip(large, true);
+        // A coluna content fica só com o início, para preview e trechos da busca
+        String head = jdbcTemplate.queryForObject("SELECT content FROM notes WHERE id = ?", String.class, id);
+        assertEquals(large.substring(0, head.length()), head);
+        assertEquals(large.getBytes(StandardCharsets.UTF_8).length,
+                noteRepository.findById(id).orElseThrow().getContentOriginalBytes());
+
+        assertRoundTrip("日本語のメモ、emoji 😀, coração e acentuação ÁÉÍÓÚ.\n".repeat(200), true);
+    }
+
+    @Test
+    void legacyUncompressedRowsAreReadAndMigrated() {
+        String content = "Nota antiga gravada antes da compressão. ção 😀\n".repeat(100);
+        Long id = jdbcTemplate.queryForObject(
+                "INSERT INTO notes (user_id, title, content, updated_at) VALUES (?, 'Antiga', ?, now()) RETURNING id",
+                Long.class, userId, content);
+
+        NoteEntity legacy = noteRepository.findById(id).orElseThrow();
+        assertNull(legacy.getContentCompressed());
+        assertEquals(content, legacy.getContent());
+
+        noteContentService.migrate();
+
+        assertEquals(true, compressed(id));
+        NoteEntity migrated = noteRepository.findById(id).orElseThrow();
+        assertNotNull(migrated.getContentCompressed());
+        assertEquals(content, migrated.getContent());
+        assertEquals(content, noteService.getNote(userId, id).getContent());
+    }
+}
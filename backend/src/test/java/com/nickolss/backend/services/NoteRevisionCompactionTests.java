@@ -0,0 +1,131 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.NoteDTO;
+import com.nickolss.backend.models.dtos.NoteRevisionDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "notes.revisions.min-kept=20",
+        "notes.revisions.thin-after-days=7",
+        "notes.revisions.retention-days=180"})
+class NoteRevisionCompactionTests {
+
+    private static final int REVISIONS = 70;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private NoteRevisionService noteRevisionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String userId = "test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM note_revisions WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM notes WHERE user_id = ?", userId);
+    }
+
+    // Texto que evolui linha a linha, com reescritas completas de vez em quando (viram snapshot)
+    private static List<String> contents() {
+        Random random = new Random(19);
+        List<String> lines = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        for (int r = 1; r <= REVISIONS; r++) {
+            if (r % 17 == 0) lines.clear();
+            lines.add("linha " + r + " " + Long.toHexString(random.nextLong()));
+            if (lines.size() > 3) lines.set(random.nextInt(lines.size() - 1), "editada em " + r + " ç á");
+            contents.add(String.join("\n", lines));
+        }
+        return contents;
+    }
+
+    // Dias atrás de cada revisão: 1–10 além da retenção, 11–40 três por dia, 41–50 uma por dia,
+    // 51–70 (as min-kept mais recentes) todas no mesmo dia antigo
+    private static int daysAgo(int revision) {
+        if (revision <= 10) return 200;
+        if (revision <= 40) return 100 - (revision - 11) / 3 * 5;
+        if (revision <= 50) return 40 - (revision - 41);
+        return 30;
+    }
+
+    @Test
+    void compactionKeepsTheRetainedRevisionsRebuildable() {
+        List<String> contents = contents();
+        NoteDTO note = noteService.createNote(userId, NoteDTO.builder().title("Diário").content(contents.get(0)).build());
+        for (int r = 2; r <= REVISIONS; r++) {
+            noteService.updateNote(userId, note.getId(), NoteDTO.builder().content(contents.get(r - 1)).build());
+        }
+        for (int r = 1; r <= REVISIONS; r++) {
+            jdbcTemplate.update("UPDATE note_revisions SET created_at = date_trunc('day', now()) - make_interval(days => ?) " +
+                    "+ make_interval(mins => ?) WHERE note_id = ? AND revision = ?", daysAgo(r), r, note.getId(), r);
+        }
+        Map<Integer, String> before = new HashMap<>();
+        for (int r = 1; r <= REVISIONS; r++) before.put(r, noteRevisionService.getRevision(userId, note.getId(), r).getContent());
+        assertEquals(contents, IntStream.rangeClosed(1, REVISIONS).mapToObj(before::get).toList());
+
+        noteRevisionService.compact();
+
+        List<Integer> expected = new ArrayList<>();
+        for (int r = 13; r <= 40; r += 3) expected.add(r); // última de cada dia
+        for (int r = 41; r <= REVISIONS; r++) expected.add(r);
+        List<NoteRevisionDTO> kept = new ArrayList<>(noteRevisionService.getRevisions(userId, note.getId()));
+        Collections.reverse(kept);
+        assertEquals(expected, kept.stream().map(NoteRevisionDTO::getRevision).toList());
+
+        for (NoteRevisionDTO revision : kept) {
+            NoteRevisionDTO rebuilt = noteRevisionService.getRevision(userId, note.getId(), revision.getRevision());
+            assertEquals(before.get(revision.getRevision()), rebuilt.getContent(), "revisão " + revision.getRevision());
+            assertEquals(rebuilt.getContent().length(), revision.getContentLength());
+        }
+
+        // A primeira revisão mantida é snapshot e nenhuma reconstrução aplica mais que SNAPSHOT_INTERVAL - 1 deltas
+        assertTrue(kept.get(0).getSnapshot());
+        int sinceSnapshot = 0;
+        for (NoteRevisionDTO revision : kept) {
+            sinceSnapshot = revision.getSnapshot() ? 0 : sinceSnapshot + 1;
+            assertTrue(sinceSnapshot < NoteRevisionService.SNAPSHOT_INTERVAL, "revisão " + revision.getRevision());
+        }
+
+        // Rodar de novo não remove mais nada e a nota continua com o conteúdo da última revisão
+        noteRevisionService.compact();
+        assertEquals(expected.size(), noteRevisionService.getRevisions(userId, note.getId()).size());
+        assertEquals(contents.get(REVISIONS - 1), noteService.getNote(userId, note.getId()).getContent());
+    }
+
+    @Test
+    void revisionsOfDeletedNotesAreRemoved() {
+        NoteDTO note = noteService.createNote(userId, NoteDTO.builder().title("Rascunho").content("a").build());
+        for (int r = 2; r <= 25; r++) {
+            noteService.updateNote(userId, note.getId(), NoteDTO.builder().content("versão " + r).build());
+        }
+        // Histórico órfão (nota removida por fora do NoteService) com mais que min-kept revisões antigas:
+        // entra na compactação, que remove tudo (históricos menores ficam para a varredura de órfãos)
+        jdbcTemplate.update("UPDATE note_revisions SET created_at = now() - interval '400 days' WHERE note_id = ?", note.getId());
+        jdbcTemplate.update("DELETE FROM notes WHERE id = ?", note.getId());
+
+        noteRevisionService.compact();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM note_revisions WHERE note_id = ?",
+                Integer.class, note.getId()));
+    }
+}
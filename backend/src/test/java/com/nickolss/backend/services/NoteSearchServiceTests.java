@@ -0,0 +1,22 @@
+package com.nickolss.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NoteSearchServiceTests {
+
+    @Test
+    void prefixQueryRequiresAllTermsAndExpandsTheLast() {
+        assertEquals("reunião & proj:*", NoteSearchService.prefixQuery("  Reunião  Proj"));
+        assertEquals("café:*", NoteSearchService.prefixQuery("café"));
+    }
+
+    @Test
+    void prefixQueryDropsTsqueryOperators() {
+        assertEquals("a & b & c:*", NoteSearchService.prefixQuery("a | b & !c:*"));
+        assertEquals("sql & drop:*", NoteSearchService.prefixQuery("sql') ; drop"));
+        assertThrows(IllegalArgumentException.class, () -> NoteSearchService.prefixQuery("& | ! ( ) :*"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.nickolss.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nickolss.backend.models.dtos.NoteDTO;
+import com.nickolss.backend.models.dtos.NoteSummaryDTO;
+import com.nickolss.backend.repositories.NoteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A listagem resumida (projeção + preview) tem que trazer as mesmas notas, na mesma ordem, que a listagem completa,
+ * com o preview igual ao início do conteúdo.
+ */
+@SpringBootTest
+class NoteSummaryListTests {
+
+    private static final int NOTES = 60;
+    private static final int CONTENT_BLOCKS = 300; // ~10 KB de texto por nota (as múltiplas de 3 ficam curtas)
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String userId = "test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM notes WHERE user_id = ?", userId);
+    }
+
+    @Test
+    void summariesMatchTheFullListing() throws Exception {
+        jdbcTemplate.update("INSERT INTO notes (user_id, title, content, tags, is_pinned, color, updated_at, created_at) " +
+                "SELECT ?, 'Nota ' || g, CASE WHEN g % 3 = 0 THEN 'curta ' || g " +
+                "ELSE (SELECT string_agg(md5(g || '-' || b), ' ') FROM generate_series(1, ?) b) END, " +
+                "ARRAY['tag' || (g % 10)], g % 20 = 0, 'yellow', now() - g * interval '1 minute', now() " +
+                "FROM generate_series(1, ?) g", userId, CONTENT_BLOCKS, NOTES);
+
+        List<NoteDTO> full = noteService.getNotes(userId);
+        List<NoteSummaryDTO> summary = noteService.getNoteSummaries(userId);
+
+        assertEquals(NOTES, full.size());
+        assertEquals(NOTES, summary.size());
+        for (int i = 0; i < NOTES; i++) {
+            NoteDTO note = full.get(i);
+            NoteSummaryDTO row = summary.get(i);
+            assertEquals(note.getId(), row.getId());
+            assertEquals(note.getTitle(), row.getTitle());
+            assertEquals(note.getTags(), row.getTags());
+            assertEquals(note.getIsPinned(), row.getIsPinned());
+            assertTrue(note.getContent().startsWith(row.getPreview()));
+            boolean truncated = note.getContent().length() > NoteRepository.PREVIEW_LENGTH;
+            assertEquals(truncated, row.getTruncated());
+            assertEquals(truncated ? NoteRepository.PREVIEW_LENGTH : note.getContent().length(), row.getPreview().length());
+        }
+        assertTrue(objectMapper.writeValueAsBytes(summary).length * 10 < objectMapper.writeValueAsBytes(full).length);
+    }
+}
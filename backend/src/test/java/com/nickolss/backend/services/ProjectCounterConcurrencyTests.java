@@ -0,0 +1,211 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.ProjectEntity;
+import com.nickolss.backend.models.dtos.ProjectDTO;
+import com.nickolss.backend.models.dtos.TaskBulkRequestDTO;
+import com.nickolss.backend.models.dtos.TaskDTO;
+import com.nickolss.backend.models.dtos.TaskFilterDTO;
+import com.nickolss.backend.repositories.ProjectRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class ProjectCounterConcurrencyTests {
+
+    private static final int THREADS = 8;
+    private static final int TASKS_PER_THREAD = 10;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private ProjectCounterService projectCounterService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final String userId = "test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM projects WHERE user_id = ?", userId);
+    }
+
+    private ProjectDTO project(String name) {
+        return projectService.createProject(userId, ProjectDTO.builder().name(name).progress(0).build());
+    }
+
+    // Roda a ação em outra thread enquanto a transação aberta aqui segura os locks; ela tem que esperar o commit
+    private Future<?> whileHoldingLocks(Runnable inTransaction, Runnable concurrent) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> future = transactionTemplate.execute(status -> {
+                inTransaction.run();
+                Future<?> started = executor.submit(concurrent);
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                assertFalse(started.isDone(), "a ação concorrente não esperou o commit");
+                return started;
+            });
+            try {
+                future.get();
+            } catch (ExecutionException ignored) {
+                // Conferido por quem chamou
+            }
+            return future;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void assertCounters(Long projectId, int tasks, int completed, int progress) {
+        ProjectEntity project = projectRepository.findById(projectId).orElseThrow();
+        assertEquals(tasks, project.getTaskCount(), "tarefas");
+        assertEquals(completed, project.getCompletedTaskCount(), "concluídas");
+        assertEquals(progress, project.getProgress(), "progresso");
+    }
+
+    @Test
+    void concurrentTaskChangesKeepExactCounters() throws Exception {
+        ProjectDTO a = project("Projeto A");
+        ProjectDTO b = project("Projeto B");
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                    // Cada tarefa nasce em A, é concluída e metade delas passa para B (o delta mexe nos dois projetos)
+                    TaskDTO task = taskService.createTask(userId, TaskDTO.builder()
+                            .text("Tarefa " + thread + "-" + i).projectId(a.getId()).build());
+                    taskService.updateTask(userId, task.getId(), TaskDTO.builder().completed(true).build());
+                    if (i % 2 == 0) {
+                        taskService.updateTask(userId, task.getId(), TaskDTO.builder().projectId(b.getId()).build());
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+
+        int half = THREADS * TASKS_PER_THREAD / 2;
+        assertCounters(a.getId(), half, half, 100);
+        assertCounters(b.getId(), half, half, 100);
+    }
+
+    @Test
+    void bulkActionsAndDeletesMoveCountersAndProgress() {
+        ProjectDTO project = project("Projeto");
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(taskService.createTask(userId, TaskDTO.builder().text("Tarefa " + i).projectId(project.getId()).build()).getId());
+        }
+        taskService.createTask(userId, TaskDTO.builder().text("Sem projeto").build());
+        assertCounters(project.getId(), 4, 0, 0);
+
+        taskService.bulkUpdate(userId, TaskBulkRequestDTO.builder().action("complete").ids(ids.subList(0, 3)).build());
+        assertCounters(project.getId(), 4, 3, 75);
+
+        taskService.deleteTask(userId, ids.get(0));
+        assertCounters(project.getId(), 3, 2, 67);
+
+        taskService.bulkUpdate(userId, TaskBulkRequestDTO.builder()
+                .action("delete").filter(TaskFilterDTO.builder().completed(false).build()).build());
+        assertCounters(project.getId(), 2, 2, 100);
+
+        // Desvincular (projectId = 0) e editar o projeto não tocam no progresso derivado
+        taskService.updateTask(userId, ids.get(1), TaskDTO.builder().projectId(0L).build());
+        projectService.updateProject(userId, project.getId(), ProjectDTO.builder().name("Renomeado").progress(10).build());
+        assertCounters(project.getId(), 1, 1, 100);
+    }
+
+    @Test
+    void repairFixesDriftedCountersAndDeletedProjectUnlinksTasks() {
+        ProjectDTO project = project("Projeto");
+        TaskDTO task = taskService.createTask(userId, TaskDTO.builder().text("Tarefa").projectId(project.getId()).completed(true).build());
+        taskService.createTask(userId, TaskDTO.builder().text("Aberta").projectId(project.getId()).build());
+
+        jdbcTemplate.update("UPDATE projects SET task_count = 7, completed_task_count = 0, progress = 0 WHERE id = ?", project.getId());
+        projectCounterService.repair();
+        assertCounters(project.getId(), 2, 1, 50);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.updateTask(userId, task.getId(), TaskDTO.builder().projectId(-1L).build()));
+
+        projectService.deleteProject(userId, project.getId());
+        assertNull(jdbcTemplate.queryForObject("SELECT project_id FROM tasks WHERE id = ?", Long.class, task.getId()));
+    }
+
+    @Test
+    void bulkCompleteCountsATaskLinkedConcurrently() throws Exception {
+        ProjectDTO project = project("Projeto");
+        Long taskId = taskService.createTask(userId, TaskDTO.builder().text("Sem projeto").build()).getId();
+
+        // O vínculo commita depois que o lote já leu as tarefas-alvo: o lote espera e conta a tarefa no projeto
+        Future<?> bulk = whileHoldingLocks(
+                () -> taskService.updateTask(userId, taskId, TaskDTO.builder().projectId(project.getId()).build()),
+                () -> taskService.bulkUpdate(userId, TaskBulkRequestDTO.builder().action("complete").ids(List.of(taskId)).build()));
+        bulk.get();
+
+        assertCounters(project.getId(), 1, 1, 100);
+    }
+
+    @Test
+    void taskLinkedWhileTheProjectIsDeletedEndsUnlinked() throws Exception {
+        ProjectDTO project = project("Projeto");
+        Long taskId = taskService.createTask(userId, TaskDTO.builder().text("Sem projeto").build()).getId();
+
+        Future<?> delete = whileHoldingLocks(
+                () -> taskService.updateTask(userId, taskId, TaskDTO.builder().projectId(project.getId()).build()),
+                () -> projectService.deleteProject(userId, project.getId()));
+        delete.get();
+
+        assertNull(jdbcTemplate.queryForObject("SELECT project_id FROM tasks WHERE id = ?", Long.class, taskId));
+    }
+
+    @Test
+    void linkingToAProjectBeingDeletedIsRejected() throws Exception {
+        ProjectDTO project = project("Projeto");
+
+        Future<?> create = whileHoldingLocks(
+                () -> jdbcTemplate.update("DELETE FROM projects WHERE id = ?", project.getId()),
+                () -> taskService.createTask(userId, TaskDTO.builder().text("Tarefa").projectId(project.getId()).build()));
+
+        ExecutionException error = assertThrows(ExecutionException.class, create::get);
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM tasks WHERE user_id = ?", Integer.class, userId));
+    }
+}
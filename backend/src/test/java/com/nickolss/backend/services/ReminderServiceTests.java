@@ -0,0 +1,166 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.ReminderWatermarkEntity;
+import com.nickolss.backend.models.dtos.ReminderDTO;
+import com.nickolss.backend.models.dtos.TaskDTO;
+import com.nickolss.backend.repositories.ReminderWatermarkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Lembrete às 00:00 da véspera: vencimento amanhã já devia ter disparado hoje, depois de amanhã ainda não
+@SpringBootTest(properties = {"reminders.notify-at=00:00", "reminders.days-before=1", "reminders.tick-ms=100"})
+class ReminderServiceTests {
+
+    private static final String WATERMARK = "due-dates";
+
+    @TestConfiguration
+    static class SinkConfig {
+
+        @Bean
+        CollectingSink collectingSink() {
+            return new CollectingSink();
+        }
+    }
+
+    static class CollectingSink implements ReminderSink {
+
+        final List<ReminderDTO> sent = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(ReminderDTO reminder) {
+            sent.add(reminder);
+        }
+    }
+
+    @Autowired
+    private ReminderService reminderService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ReminderWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private CollectingSink sink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final String userId = "test-" + UUID.randomUUID();
+    private final LocalDate today = LocalDate.now();
+
+    private Optional<LocalDateTime> previousWatermark;
+
+    @BeforeEach
+    void saveWatermark() {
+        previousWatermark = watermarkRepository.findById(WATERMARK).map(ReminderWatermarkEntity::getFiredUntil);
+        sink.sent.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", userId);
+        previousWatermark.ifPresentOrElse(this::setWatermark, () -> watermarkRepository.deleteById(WATERMARK));
+        reminderService.start();
+    }
+
+    // Gravada direto no banco, como se tivesse sido criada enquanto o serviço estava fora
+    private long insertTask(String text, LocalDate dueDate, boolean completed) {
+        return jdbcTemplate.queryForObject("INSERT INTO tasks (user_id, text, completed, due_date, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, now(), now()) RETURNING id", Long.class, userId, text, completed, dueDate);
+    }
+
+    private void setWatermark(LocalDateTime firedUntil) {
+        ReminderWatermarkEntity entity = new ReminderWatermarkEntity();
+        entity.setName(WATERMARK);
+        entity.setFiredUntil(firedUntil);
+        watermarkRepository.save(entity);
+    }
+
+    private List<Long> sentToUser() {
+        return sink.sent.stream().filter(reminder -> reminder.getUserId().equals(userId)).map(ReminderDTO::getId).toList();
+    }
+
+    // Espera alguns ticks para que nada do que deveria ficar no wheel passe despercebido
+    private List<Long> sentToUserAfterTicks() throws InterruptedException {
+        Thread.sleep(500);
+        return sentToUser();
+    }
+
+    private TaskDTO patch(Long taskId, TaskDTO updates) {
+        return taskService.updateTask(userId, taskId, updates);
+    }
+
+    @Test
+    void restartFiresWhatCameDueDuringDowntimeOnlyOnce() throws InterruptedException {
+        long dueTomorrow = insertTask("vence amanhã", today.plusDays(1), false);
+        insertTask("vence depois de amanhã", today.plusDays(2), false);
+        insertTask("concluída", today.plusDays(1), true);
+        insertTask("já venceu", today.minusDays(1), false);
+
+        // Fora do ar há três dias: o catch-up não volta além de days-before, e o que já venceu fica de fora
+        setWatermark(LocalDateTime.now().minusDays(3));
+        reminderService.start();
+
+        assertEquals(List.of(dueTomorrow), sentToUserAfterTicks());
+        LocalDateTime firedUntil = watermarkRepository.findById(WATERMARK).orElseThrow().getFiredUntil();
+        assertFalse(firedUntil.isBefore(today.atStartOfDay()), "o watermark não avançou depois da entrega");
+
+        // Nova subida a partir do watermark gravado: nada se repete
+        sink.sent.clear();
+        reminderService.start();
+        assertEquals(List.of(), sentToUserAfterTicks());
+    }
+
+    @Test
+    void taskEditsReachTheWheelAfterCommit() throws InterruptedException {
+        long postponed = insertTask("adiantada", today.plusDays(2), false);
+        long completed = insertTask("concluída depois", today.plusDays(2), false);
+        setWatermark(LocalDateTime.now());
+        reminderService.start();
+        int pending = reminderService.getStatus().getPending();
+
+        // Vencimento adiantado para amanhã: o horário do lembrete já passou, então avisa na hora — mas só no commit
+        transactionTemplate.executeWithoutResult(status -> {
+            patch(postponed, TaskDTO.builder().dueDate(today.plusDays(1)).build());
+            assertEquals(List.of(), sentToUser(), "lembrete entregue antes do commit");
+        });
+        assertEquals(List.of(postponed), sentToUser());
+        assertEquals(pending - 1, reminderService.getStatus().getPending());
+
+        // Só o título mudou: o lembrete já entregue não volta ao wheel nem se repete
+        patch(postponed, TaskDTO.builder().text("adiantada, renomeada").build());
+        assertEquals(pending - 1, reminderService.getStatus().getPending());
+
+        // Concluída: sai do wheel; reaberta com vencimento amanhã: avisa na hora
+        patch(completed, TaskDTO.builder().completed(true).build());
+        assertEquals(pending - 2, reminderService.getStatus().getPending());
+        patch(completed, TaskDTO.builder().completed(false).dueDate(today.plusDays(1)).build());
+
+        List<Long> sent = sentToUserAfterTicks();
+        assertEquals(List.of(postponed, completed), sent);
+        assertTrue(reminderService.getStatus().getFiredUntil().isAfter(LocalDateTime.now().minusMinutes(1)));
+    }
+}
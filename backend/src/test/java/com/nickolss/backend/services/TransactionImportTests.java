@@ -0,0 +1,149 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.AccountDTO;
+import com.nickolss.backend.models.dtos.TransactionDTO;
+import com.nickolss.backend.models.dtos.TransactionImportResultDTO;
+import com.nickolss.backend.repositories.AccountRepository;
+import com.nickolss.backend.repositories.TransactionRepository;
+import com.nickolss.backend.repositories.TransactionSpecifications;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * O import em lote tem que chegar ao mesmo saldo que o caminho antigo (um createTransaction por linha).
+ */
+@SpringBootTest
+class TransactionImportTests {
+
+    private static final int ROWS = 500;
+
+    @Autowired
+    private FinanceService financeService;
+
+    @Autowired
+    private TransactionImportService transactionImportService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final String userId = "test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        transactionRepository.deleteAll(transactionRepository.findAll(TransactionSpecifications.byUser(userId)));
+        accountRepository.deleteAll(accountRepository.findByUserIdOrderByCreatedAtDesc(userId));
+    }
+
+    @Test
+    void bulkImportMatchesSingleCreates() {
+        AccountDTO oldPath = financeService.createAccount(userId, AccountDTO.builder().name("old").type("checking").build());
+        AccountDTO newPath = financeService.createAccount(userId, AccountDTO.builder().name("new").type("checking").build());
+
+        for (TransactionDTO row : rows(oldPath.getId())) {
+            financeService.createTransaction(userId, row);
+        }
+        TransactionImportResultDTO result = transactionImportService.importJson(userId, rows(newPath.getId()), null, false);
+
+        assertEquals(ROWS, result.getImported());
+        BigDecimal oldBalance = accountRepository.findById(oldPath.getId()).orElseThrow().getBalance();
+        BigDecimal newBalance = accountRepository.findById(newPath.getId()).orElseThrow().getBalance();
+        assertEquals(0, oldBalance.compareTo(newBalance), "saldo " + oldBalance + " x " + newBalance);
+    }
+
+    @Test
+    void csvFieldsWithLineBreaksAreImportedAsOneRow() {
+        AccountDTO account = financeService.createAccount(userId, AccountDTO.builder().name("csv").type("checking").build());
+        String csv = "date;description;amount;accountId\r\n" +
+                "2024-01-05;\"Mercado\nsemana 1\";-10,50;" + account.getId() + "\r\n" +
+                "\n" +
+                "05/01/2024;\"Salário \"\"jan\"\"\";1.000,00;" + account.getId() + "\r" +
+                "06/01/2024;\"Feira\r\nsábado\";-3,00;" + account.getId() + "\r\n";
+
+        TransactionImportResultDTO result = transactionImportService.importCsv(userId, csv, null, false);
+
+        assertEquals(3, result.getImported(), String.valueOf(result.getErrors()));
+        List<String> descriptions = transactionRepository.findAll(TransactionSpecifications.byUser(userId)).stream()
+                .map(t -> t.getDescription()).sorted().toList();
+        // CR dentro de aspas é conteúdo; fora delas (CRLF ou CR sozinho) só termina o registro
+        assertEquals(List.of("Feira\r\nsábado", "Mercado\nsemana 1", "Salário \"jan\""), descriptions);
+    }
+
+    @Test
+    void rowsOfAnAccountDeletedDuringTheImportAreRejected() throws Exception {
+        AccountDTO kept = financeService.createAccount(userId, AccountDTO.builder().name("mantida").type("checking").build());
+        AccountDTO deleted = financeService.createAccount(userId, AccountDTO.builder().name("removida").type("checking").build());
+        List<TransactionDTO> rows = new ArrayList<>(rows(kept.getId()).subList(0, 3));
+        rows.addAll(rows(deleted.getId()).subList(0, 2));
+
+        // O delete da conta está em andamento quando o import começa: o import espera e não grava as linhas dela
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<TransactionImportResultDTO> imported = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM accounts WHERE id = ?", deleted.getId());
+            Future<TransactionImportResultDTO> started = executor.submit(
+                    () -> transactionImportService.importJson(userId, rows, null, true));
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            assertFalse(started.isDone(), "o import não esperou o delete da conta");
+            return started;
+        });
+        TransactionImportResultDTO result = imported.get();
+        executor.shutdown();
+
+        assertEquals(3, result.getImported());
+        assertEquals(List.of(4, 5), result.getErrors().stream().map(e -> e.getRow()).toList());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM transactions WHERE account_id = ?",
+                Integer.class, deleted.getId()));
+    }
+
+    @Test
+    void nullJsonRowIsRejected() {
+        List<TransactionDTO> rows = new ArrayList<>();
+        rows.add(null);
+        assertThrows(IllegalArgumentException.class, () -> transactionImportService.importJson(userId, rows, null, true));
+    }
+
+    private List<TransactionDTO> rows(Long accountId) {
+        List<TransactionDTO> rows = new ArrayList<>(ROWS);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(TransactionDTO.builder()
+                    .accountId(accountId)
+                    .description("Linha " + i)
+                    .amount(BigDecimal.valueOf(1 + i % 500, 2))
+                    .type(i % 3 == 0 ? "income" : "expense")
+                    .category("Import")
+                    .date(start.plusDays(i % 1500))
+                    .build());
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,91 @@
+package com.nickolss.backend.services;
+
+import com.nickolss.backend.models.dtos.AccountDTO;
+import com.nickolss.backend.models.dtos.CursorPageDTO;
+import com.nickolss.backend.models.dtos.TransactionDTO;
+import com.nickolss.backend.repositories.AccountRepository;
+import com.nickolss.backend.repositories.TransactionRepository;
+import com.nickolss.backend.repositories.TransactionSpecifications;
+import com.nickolss.backend.utils.CursorUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class TransactionPageTests {
+
+    @Autowired
+    private FinanceService financeService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private final String userId = "test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        transactionRepository.deleteAll(transactionRepository.findAll(TransactionSpecifications.byUser(userId)));
+        accountRepository.deleteAll(accountRepository.findByUserIdOrderByCreatedAtDesc(userId));
+    }
+
+    @Test
+    void pagesThroughRowsSharingTheSameDateWithoutGapsOrRepeats() {
+        AccountDTO account = financeService.createAccount(userId, AccountDTO.builder()
+                .name("Conta teste").type("checking").balance(BigDecimal.ZERO).build());
+        LocalDate today = LocalDate.now();
+        // 7 no mesmo dia (o cursor cai no meio deles) e 2 em dias vizinhos
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; i < 7; i++) dates.add(today);
+        dates.add(today.plusDays(1));
+        dates.add(today.minusDays(1));
+        List<TransactionDTO> created = new ArrayList<>();
+        for (LocalDate date : dates) {
+            created.add(financeService.createTransaction(userId, TransactionDTO.builder()
+                    .accountId(account.getId()).amount(BigDecimal.ONE).type("income").category("Outros").date(date).build()));
+        }
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDTO<TransactionDTO> page = financeService.getTransactionsPage(
+                    userId, null, null, null, null, null, cursor, 3);
+            page.getItems().forEach(t -> paged.add(t.getId()));
+            cursor = page.getNextCursor();
+            assertEquals(cursor != null, page.getHasMore());
+            pages++;
+        } while (cursor != null);
+
+        List<Long> expected = created.stream()
+                .sorted(Comparator.comparing(TransactionDTO::getDate).thenComparing(TransactionDTO::getId).reversed())
+                .map(TransactionDTO::getId)
+                .toList();
+        assertEquals(expected, paged);
+        assertTrue(pages >= 3, "páginas: " + pages);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> financeService.getTransactionsPage(
+                userId, null, null, null, null, null, CursorUtils.encode("2024-13-45", 1), 10));
+        assertThrows(IllegalArgumentException.class, () -> financeService.getTransactionsPage(
+                userId, null, null, null, null, null, CursorUtils.encode("2024-01-01", "x"), 10));
+        assertThrows(IllegalArgumentException.class, () -> financeService.getTransactionsPage(
+                userId, null, null, null, null, null, "%%%", 10));
+    }
+}
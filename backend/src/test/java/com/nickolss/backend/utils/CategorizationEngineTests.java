@@ -0,0 +1,127 @@
+package com.nickolss.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CategorizationEngineTests {
+
+    private static CategorizationEngine.Rule rule(long id, String matchType, String pattern, String category, int priority) {
+        return new CategorizationEngine.Rule(id, matchType, pattern, category, null, null, null, priority);
+    }
+
+    @Test
+    void containsIgnoresCaseAndAccents() {
+        CategorizationEngine engine = new CategorizationEngine(List.of(
+                rule(1, "contains", "padaria são joão", "Alimentação", 100)));
+
+        assertEquals("Alimentação", engine.categorize("COMPRA PADARIA SAO JOAO 12/03", BigDecimal.TEN, "expense"));
+        assertNull(engine.categorize("Posto Ipiranga", BigDecimal.TEN, "expense"));
+    }
+
+    @Test
+    void prefixOnlyMatchesAtTheStart() {
+        CategorizationEngine engine = new CategorizationEngine(List.of(
+                rule(1, "prefix", "pix", "Pix", 100)));
+
+        assertEquals("Pix", engine.categorize("  PIX recebido Maria", BigDecimal.TEN, "income"));
+        assertNull(engine.categorize("Estorno pix", BigDecimal.TEN, "income"));
+    }
+
+    @Test
+    void lowestPriorityWinsAmongOverlappingPatterns() {
+        CategorizationEngine engine = new CategorizationEngine(List.of(
+                rule(1, "contains", "uber", "Transporte", 50),
+                rule(2, "contains", "uber eats", "Alimentação", 10),
+                rule(3, "contains", "eats", "Outros", 10)));
+
+        // "uber eats" e "eats" empatam na prioridade 10: vence o menor id
+        assertEquals("Alimentação", engine.categorize("UBER EATS *PEDIDO", BigDecimal.TEN, "expense"));
+        assertEquals("Transporte", engine.categorize("UBER *TRIP", BigDecimal.TEN, "expense"));
+    }
+
+    @Test
+    void amountRangeAndTypeConstraints() {
+        CategorizationEngine engine = new CategorizationEngine(List.of(
+                new CategorizationEngine.Rule(1, "contains", "transf", "Aluguel",
+                        new BigDecimal("1500"), new BigDecimal("2000"), "expense", 10),
+                new CategorizationEngine.Rule(2, "contains", "transf", "Salário", null, null, "income", 20),
+                rule(3, "contains", "transf", "Transferências", 30)));
+
+        assertEquals("Aluguel", engine.categorize("Transf João", new BigDecimal("1800"), "expense"));
+        assertEquals("Transferências", engine.categorize("Transf João", new BigDecimal("50"), "expense"));
+        assertEquals("Salário", engine.categorize("Transf Empresa", new BigDecimal("5000"), "income"));
+    }
+
+    @Test
+    void regexCompetesByPriorityWithLiterals() {
+        CategorizationEngine engine = new CategorizationEngine(List.of(
+                rule(1, "contains", "netflix", "Lazer", 50),
+                rule(2, "regex", "(netflix|spotify|disney)\\.com", "Assinaturas", 10),
+                rule(3, "regex", "\\d{4}", "Números", 90)));
+
+        assertEquals("Assinaturas", engine.categorize("NETFLIX.COM 0800", BigDecimal.TEN, "expense"));
+        assertEquals("Lazer", engine.categorize("Netflix mensal 2024", BigDecimal.TEN, "expense"));
+        assertEquals("Números", engine.categorize("Compra 1234", BigDecimal.TEN, "expense"));
+        assertThrows(IllegalArgumentException.class, () -> CategorizationEngine.compileRegex("(aberto"));
+    }
+
+    @Test
+    void manyRulesMatchLikeALinearScan() {
+        List<CategorizationEngine.Rule> rules = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            rules.add(rule(i, i % 7 == 0 ? "prefix" : "contains", "loja" + i + " ", "Categoria " + i, 5_000 - i));
+        }
+        CategorizationEngine engine = new CategorizationEngine(rules);
+
+        for (int i = 0; i < 5_000; i += 37) {
+            String description = (i % 7 == 0 ? "" : "compra ") + "LOJA" + i + " centro";
+            String expected = rules.stream()
+                    .filter(r -> description.toLowerCase().contains(r.pattern())
+                            && (!"prefix".equals(r.matchType()) || description.toLowerCase().startsWith(r.pattern())))
+                    .min((a, b) -> Integer.compare(a.priority(), b.priority()))
+                    .map(CategorizationEngine.Rule::category).orElse(null);
+            assertEquals(expected, engine.categorize(description, BigDecimal.ONE, "expense"), description);
+        }
+    }
+
+    @Test
+    void riskyRegexesAreRejected() {
+        for (String regex : List.of("(a+)+$", "(\\w*x)*", "((ab)*c)+", "(x+){2,}", "(a)\\1", "(?<n>a)\\k<n>", "a".repeat(201))) {
+            assertThrows(IllegalArgumentException.class, () -> CategorizationEngine.compileRegex(regex), regex);
+        }
+        for (String regex : List.of("uber\\s*\\*?trip", "(\\d{2}/){2}\\d{4}", "(ifood|rappi)+", "[(+*]+x", "(?i)(mercado|feira) \\d+")) {
+            CategorizationEngine.compileRegex(regex);
+        }
+    }
+
+    @Test
+    void catastrophicBacktrackingIsCutByTheDeadline() {
+        // Alternativas sobrepostas passam pela validação, mas levariam anos para falhar nesta descrição
+        CategorizationEngine engine = new CategorizationEngine(List.of(
+                rule(1, "regex", "^(a|aa)+$", "Lenta", 10),
+                rule(2, "contains", "pix", "Pix", 100)));
+        String description = "a".repeat(60) + "b pix";
+
+        long start = System.nanoTime();
+        assertEquals("Pix", engine.categorize(description, BigDecimal.TEN, "expense"));
+        assertTrue(System.nanoTime() - start < CategorizationEngine.REGEX_BUDGET_NANOS * 50);
+        assertEquals("Lenta", engine.categorize("aaaa", BigDecimal.TEN, "expense"));
+    }
+
+    @Test
+    void storedRegexRejectedByTheCurrentValidationIsSkipped() {
+        CategorizationEngine engine = new CategorizationEngine(List.of(
+                rule(1, "regex", "(a+)+$", "Antiga", 10),
+                rule(2, "contains", "aaa", "Literal", 100)));
+
+        assertEquals("Literal", engine.categorize("aaaa", BigDecimal.TEN, "expense"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.nickolss.backend.utils;
+
+import com.nickolss.backend.models.NoteEntity;
+import com.nickolss.backend.models.converters.CompressedTextConverter;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CompressedTextTests {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    // Grava pelo converter e lê de volta como viria do banco (só os bytes)
+    private String roundTrip(String text) {
+        CompressedText compressed = CompressedText.compress(text);
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, compressed.originalBytes());
+        CompressedText loaded = converter.convertToEntityAttribute(converter.convertToDatabaseColumn(compressed));
+        assertEquals(-1, loaded.originalBytes());
+        assertEquals(compressed, loaded);
+        return loaded.text();
+    }
+
+    @Test
+    void roundTripThroughTheConverter() {
+        assertEquals("", roundTrip(""));
+        assertEquals("nota curta", roundTrip("nota curta"));
+        String large = "Reunião de orçamento: pendências e próximos passos.\n".repeat(5000);
+        assertEquals(large, roundTrip(large));
+        String nonAscii = "ação, coração, 日本語, emoji 😀 e acentuação: ÁÉÍÓÚ ç ñ\n".repeat(200);
+        assertEquals(nonAscii, roundTrip(nonAscii));
+    }
+
+    @Test
+    void nullColumnIsNullAttribute() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void toStringAndEqualsDoNotDecompress() {
+        String content = "Parágrafo longo o bastante para comprimir. ".repeat(1000);
+        NoteEntity note = new NoteEntity();
+        note.setTitle("Ata");
+        note.setCompressedContent(CompressedText.of(CompressedText.compress(content).data()), content.substring(0, 10));
+        NoteEntity other = new NoteEntity();
+        other.setTitle("Ata");
+        other.setCompressedContent(CompressedText.of(CompressedText.compress(content).data()), content.substring(0, 10));
+
+        long before = CompressedText.stats().decompressions();
+        assertFalse(note.toString().contains(content.substring(0, 10)));
+        note.hashCode();
+        note.equals(other);
+        assertEquals(before, CompressedText.stats().decompressions());
+        assertEquals(content, note.getContent());
+        assertEquals(before + 1, CompressedText.stats().decompressions());
+    }
+}
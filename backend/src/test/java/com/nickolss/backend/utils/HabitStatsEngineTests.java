@@ -0,0 +1,128 @@
+package com.nickolss.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HabitStatsEngineTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 12); // quarta-feira
+
+    // Mesmo layout do set_bit do Postgres: bit (dia do ano - 1), byte = bit / 8, posição = bit % 8
+    private static HabitCalendar calendar(Set<LocalDate> days, LocalDate until) {
+        Map<Integer, byte[]> years = new HashMap<>();
+        for (LocalDate day : days) {
+            byte[] bits = years.computeIfAbsent(day.getYear(), y -> new byte[HabitCalendar.YEAR_BYTES]);
+            int index = HabitCalendar.dayOfYearIndex(day);
+            bits[index / 8] |= (byte) (1 << (index % 8));
+        }
+        return HabitCalendar.fromYears(years, until);
+    }
+
+    private static Set<LocalDate> range(LocalDate from, LocalDate to) {
+        Set<LocalDate> days = new TreeSet<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) days.add(d);
+        return days;
+    }
+
+    @Test
+    void dailyStreakCrossesYearBoundaryAndTolerantOfOpenToday() {
+        Set<LocalDate> days = range(LocalDate.of(2024, 12, 20), TODAY.minusDays(1));
+        HabitStatsEngine.Stats stats = HabitStatsEngine.compute(calendar(days, TODAY), "daily", null, null, TODAY);
+
+        assertEquals("days", stats.streakUnit());
+        assertEquals(days.size(), stats.currentStreak()); // hoje ainda não marcado não quebra a sequência
+        assertEquals(days.size(), stats.longestStreak());
+        assertFalse(stats.completedToday());
+        assertEquals(TODAY.minusDays(1), stats.lastCompletedDate());
+    }
+
+    @Test
+    void dailyStreakBreaksOnMissedDay() {
+        Set<LocalDate> days = range(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 10)); // 70 dias
+        days.addAll(range(TODAY.minusDays(4), TODAY));
+        HabitStatsEngine.Stats stats = HabitStatsEngine.compute(calendar(days, TODAY), "daily", null, null, TODAY);
+
+        assertEquals(5, stats.currentStreak());
+        assertEquals(70, stats.longestStreak());
+        assertTrue(stats.completedToday());
+        assertEquals(75, stats.totalCompletions());
+    }
+
+    @Test
+    void customFrequencyCountsWeeksThatHitTheTarget() {
+        Set<LocalDate> days = new TreeSet<>();
+        // 3 semanas completas com 3 check-ins (seg, qua, sex) antes da semana atual
+        for (int w = 1; w <= 3; w++) {
+            LocalDate monday = LocalDate.of(2025, 3, 10).minusWeeks(w);
+            days.add(monday);
+            days.add(monday.plusDays(2));
+            days.add(monday.plusDays(4));
+        }
+        days.add(LocalDate.of(2025, 3, 10)); // semana atual: só 1 até agora
+
+        HabitStatsEngine.Stats stats = HabitStatsEngine.compute(calendar(days, TODAY), "custom", 3, null, TODAY);
+        assertEquals("weeks", stats.streakUnit());
+        assertEquals(3, stats.targetPerWeek());
+        assertEquals(3, stats.currentStreak()); // semana em andamento não quebra
+        assertEquals(3, stats.longestStreak());
+
+        HabitStatsEngine.Stats weekly = HabitStatsEngine.compute(calendar(days, TODAY), "weekly", null, null, TODAY);
+        assertEquals(4, weekly.currentStreak()); // semana atual já atingiu 1 check-in
+    }
+
+    @Test
+    void windowRatesUseExpectedCompletionsForFrequency() {
+        Set<LocalDate> days = range(TODAY.minusDays(29), TODAY);
+        HabitStatsEngine.Stats daily = HabitStatsEngine.compute(calendar(days, TODAY), "daily", null,
+                TODAY.minusDays(29), TODAY);
+        HabitStatsEngine.Window last30 = daily.windows().get(1);
+        assertEquals(30, last30.completions());
+        assertEquals(1.0, last30.rate());
+        // Janela de 90 dias limitada ao início do hábito
+        assertEquals(1.0, daily.windows().get(2).rate());
+
+        HabitStatsEngine.Stats custom = HabitStatsEngine.compute(calendar(Set.of(TODAY, TODAY.minusDays(2)), TODAY),
+                "custom", 2, TODAY.minusDays(6), TODAY);
+        assertEquals(1.0, custom.windows().get(0).rate()); // 2 de 2 esperados na semana
+    }
+
+    @Test
+    void bitOperationsMatchNaiveScan() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            Set<LocalDate> days = new TreeSet<>();
+            LocalDate start = LocalDate.of(2021 + random.nextInt(3), 1 + random.nextInt(12), 1);
+            double density = 0.3 + random.nextDouble() * 0.69;
+            for (LocalDate d = start; !d.isAfter(TODAY); d = d.plusDays(1)) {
+                if (random.nextDouble() < density) days.add(d);
+            }
+            HabitCalendar calendar = calendar(days, TODAY);
+
+            int longest = 0;
+            int run = 0;
+            for (LocalDate d = start; !d.isAfter(TODAY); d = d.plusDays(1)) {
+                run = days.contains(d) ? run + 1 : 0;
+                longest = Math.max(longest, run);
+            }
+            int current = 0;
+            for (LocalDate d = TODAY; days.contains(d); d = d.minusDays(1)) current++;
+            LocalDate from = TODAY.minusDays(random.nextInt(800));
+            long inRange = days.stream().filter(d -> !d.isBefore(from)).count();
+
+            assertEquals(longest, calendar.longestRun());
+            assertEquals(current, calendar.runEndingAt(TODAY));
+            assertEquals(inRange, calendar.count(from, TODAY));
+            assertEquals(days.size(), calendar.total());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.nickolss.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NoteDeltaCodecTests {
+
+    private static String paragraphs(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append("Parágrafo ").append(i).append(": reunião sobre o orçamento, pendências e próximos passos.\n");
+        }
+        return text.toString();
+    }
+
+    private static void assertRoundTrip(String base, String target) {
+        assertEquals(target, NoteDeltaCodec.apply(base, NoteDeltaCodec.diff(base, target)));
+    }
+
+    @Test
+    void snapshotRoundTrip() {
+        String content = paragraphs(50) + "emoji 😀 no fim";
+        assertEquals(content, NoteDeltaCodec.fromSnapshot(NoteDeltaCodec.snapshot(content)));
+        assertEquals("", NoteDeltaCodec.fromSnapshot(NoteDeltaCodec.snapshot("")));
+    }
+
+    @Test
+    void smallEditOnLargeNoteProducesSmallDelta() {
+        String base = paragraphs(500);
+        String target = base.replace("Parágrafo 250:", "Parágrafo 250 (revisado):") + "Linha nova no fim.\n";
+
+        byte[] delta = NoteDeltaCodec.diff(base, target);
+        assertEquals(target, NoteDeltaCodec.apply(base, delta));
+        assertTrue(delta.length < 100, "delta de " + delta.length + " bytes");
+        assertTrue(delta.length * 10 < NoteDeltaCodec.snapshot(target).length);
+    }
+
+    @Test
+    void edgeCases() {
+        assertRoundTrip("", "");
+        assertRoundTrip("", "texto novo");
+        assertRoundTrip(paragraphs(10), "");
+        assertRoundTrip("curto", "curta");
+        assertRoundTrip(paragraphs(20), paragraphs(20));
+        // Trechos movidos e repetidos viram COPY de qualquer posição da versão anterior
+        assertRoundTrip(paragraphs(10), paragraphs(10).substring(300) + paragraphs(10).substring(0, 300) + paragraphs(3));
+        // Par surrogate cortado entre um COPY e um literal
+        assertRoundTrip("😀".repeat(40), "x" + "😀".repeat(40).substring(1) + "😁");
+    }
+
+    @Test
+    void randomEditsRoundTrip() {
+        Random random = new Random(42);
+        String current = paragraphs(30);
+        for (int i = 0; i < 200; i++) {
+            StringBuilder next = new StringBuilder(current);
+            int edits = 1 + random.nextInt(4);
+            for (int e = 0; e < edits; e++) {
+                int at = next.isEmpty() ? 0 : random.nextInt(next.length());
+                int end = Math.min(next.length(), at + random.nextInt(40));
+                if (random.nextBoolean()) next.delete(at, end);
+                else next.insert(at, "inserido " + random.nextInt(1000) + " ");
+            }
+            String target = next.toString();
+            assertRoundTrip(current, target);
+            current = target;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.nickolss.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankKeysTests {
+
+    private static void assertBetween(String lower, String upper) {
+        String key = RankKeys.between(lower, upper);
+        if (lower != null) assertTrue(lower.compareTo(key) < 0, lower + " < " + key);
+        if (upper != null) assertTrue(key.compareTo(upper) < 0, key + " < " + upper);
+        assertTrue(key.charAt(key.length() - 1) != '0', key);
+    }
+
+    @Test
+    void betweenEdgeCases() {
+        assertBetween(null, null);
+        assertBetween("V", null);
+        assertBetween("z", null);
+        assertBetween("zz", null);
+        assertBetween(null, "1");
+        assertBetween(null, "01");
+        assertBetween(null, "0z");
+        assertBetween("a", "b");
+        assertBetween("a", "a1");
+        assertBetween("a1", "b");
+        assertBetween("a", "az");
+        assertBetween("az", "b");
+        assertBetween("0001", "0002");
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("b", "a"));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a", "a"));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a0", null));
+    }
+
+    @Test
+    void insertingAtTheTopGrowsKeysSlowly() {
+        String first = RankKeys.between(null, null);
+        for (int i = 0; i < 600; i++) {
+            String key = RankKeys.between(null, first);
+            assertTrue(key.compareTo(first) < 0);
+            first = key;
+        }
+        assertTrue(first.length() <= 11, first);
+    }
+
+    @Test
+    void randomMovesKeepTheListOrdered() {
+        Random random = new Random(3);
+        List<String> list = new ArrayList<>(List.of(RankKeys.spread(20)));
+        for (int i = 0; i < 5_000; i++) {
+            int position = random.nextInt(list.size() + 1);
+            String lower = position > 0 ? list.get(position - 1) : null;
+            String upper = position < list.size() ? list.get(position) : null;
+            list.add(position, RankKeys.between(lower, upper));
+            list.remove(random.nextInt(list.size()));
+        }
+        for (int i = 1; i < list.size(); i++) assertTrue(list.get(i - 1).compareTo(list.get(i)) < 0);
+    }
+
+    @Test
+    void spreadIsOrderedShortAndLeavesRoomAtBothEnds() {
+        for (int count : new int[]{1, 2, 61, 1_000, 100_000}) {
+            String[] keys = RankKeys.spread(count);
+            assertEquals(count, keys.length);
+            for (int i = 1; i < count; i++) assertTrue(keys[i - 1].compareTo(keys[i]) < 0);
+            assertTrue(keys[0].length() <= 5, keys[0]);
+            assertTrue(keys[0].charAt(0) > '9' && keys[count - 1].charAt(0) < 'z');
+            assertBetween(keys[0], count > 1 ? keys[1] : null);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.nickolss.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TagDictionaryTests {
+
+    private final TagDictionary dictionary = new TagDictionary(List.of(
+            new TagDictionary.Entry("Férias", 3),
+            new TagDictionary.Entry("festa", 7),
+            new TagDictionary.Entry("Feira", 1),
+            new TagDictionary.Entry("trabalho", 12),
+            new TagDictionary.Entry("fé", 2)));
+
+    private static List<String> tags(List<TagDictionary.Entry> entries) {
+        return entries.stream().map(TagDictionary.Entry::tag).toList();
+    }
+
+    @Test
+    void suggestMatchesPrefixIgnoringCaseAndAccentsMostUsedFirst() {
+        assertEquals(List.of("festa", "Férias", "fé", "Feira"), tags(dictionary.suggest("FE", 10)));
+        assertEquals(List.of("Férias"), tags(dictionary.suggest("feri", 10)));
+        assertEquals(List.of("festa", "Férias"), tags(dictionary.suggest("fe", 2)));
+        assertTrue(dictionary.suggest("x", 10).isEmpty());
+    }
+
+    @Test
+    void emptyPrefixAndFacetsListEverythingByCount() {
+        assertEquals(List.of("trabalho", "festa", "Férias"), tags(dictionary.suggest("", 3)));
+        assertEquals(List.of("trabalho", "festa", "Férias", "fé", "Feira"), tags(dictionary.all()));
+    }
+}
@@ -0,0 +1,83 @@
+package com.nickolss.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTests {
+
+    private static final long TICK = 1_000;
+
+    @Test
+    void firesEachEntryAtItsDeadlineAcrossLevels() {
+        TimingWheel<Long, Long> wheel = new TimingWheel<>(TICK, 0);
+        // Prazos que caem no nível 0 (segundos), 1 (~minuto), 2 (~hora) e 3 (dias); 1_500 arredonda para o tick seguinte
+        long[] deadlines = {1_500, 5_000, 63_999, 65_000, 3_600_000, 4_100_000, 90_000_000, 86_400_000L * 100};
+        for (long deadline : deadlines) assertTrue(wheel.schedule(deadline, deadline, deadline));
+
+        for (long deadline : deadlines) {
+            List<Long> fired = new ArrayList<>();
+            wheel.advance(deadline - 1, fired::add);
+            assertTrue(fired.isEmpty(), deadline + " disparou antes: " + fired);
+            wheel.advance(deadline + TICK - 1, fired::add);
+            assertEquals(List.of(deadline), fired);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelRescheduleAndPastDeadlines() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, 10_000);
+        assertFalse(wheel.schedule("passado", 9_000, "passado"));
+        assertFalse(wheel.schedule("agora", 10_000, "agora"));
+        assertTrue(wheel.schedule("a", 20_000, "a"));
+        assertTrue(wheel.schedule("b", 20_000, "b"));
+        assertTrue(wheel.schedule("c", 500_000, "c"));
+        assertTrue(wheel.schedule("b", 30_000, "b2"));
+
+        assertEquals("a", wheel.cancel("a"));
+        assertNull(wheel.cancel("a"));
+        assertEquals(1, wheel.removeIf(value -> value.equals("c")));
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(25_000, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(1_000_000, fired::add);
+        assertEquals(List.of("b2"), fired);
+        assertEquals(1_000_000, wheel.currentMillis());
+    }
+
+    @Test
+    void hundredsOfThousandsOfEntriesFireInOrderOfTick() {
+        TimingWheel<Integer, Long> wheel = new TimingWheel<>(TICK, 0);
+        Random random = new Random(7);
+        int count = 300_000;
+        long horizon = 2 * 86_400_000L;
+        for (int i = 0; i < count; i++) {
+            long deadline = 1 + (long) (random.nextDouble() * horizon);
+            wheel.schedule(i, deadline, deadline);
+        }
+        for (int i = 0; i < count; i += 3) wheel.cancel(i);
+        assertEquals(count - (count + 2) / 3, wheel.size());
+
+        long[] last = {0};
+        int[] fired = {0};
+        for (long now = 0; now <= horizon + TICK; now += 60 * TICK) {
+            long at = now;
+            wheel.advance(now, deadline -> {
+                assertTrue(deadline <= at && deadline > last[0]);
+                fired[0]++;
+            });
+            last[0] = now;
+        }
+        assertEquals(count - (count + 2) / 3, fired[0]);
+        assertEquals(0, wheel.size());
+    }
+}